@@ -0,0 +1,197 @@
+/**
+ * Command.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+
+/**
+ * BOTコマンド (immutable)
+ * 
+ * 発言を正規表現を使わずに走査し、各トークンの位置だけを記録する。
+ * トークンの文字列は参照された時点で切り出す。
+ */
+final class Command {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param source 発言。
+     * @param bounds トークンの開始位置と終了位置の組。
+     * @param tokenCount トークン数。
+     */
+    private Command(final String source, final int[] bounds, final int tokenCount) {
+        _source = source;
+        _bounds = bounds;
+        _tokenCount = tokenCount;
+    }
+    
+    
+    
+    /**
+     * 発言を解析
+     * 
+     * 「jan 」で始まらない発言は先頭の数文字だけを見て破棄する。
+     * トークンの区切りは半角スペースのみで、連続する半角スペースは1つの区切りとみなす。
+     * 
+     * @param message 発言。
+     * @return コマンド。(BOTコマンドでない場合はnull)
+     */
+    public static Command parse(final String message) {
+        if (message == null) {
+            throw new NullPointerException("Message is null.");
+        }
+        
+        final int length = message.length();
+        if (length <= PREFIX_LENGTH ||
+            message.charAt(0) != 'j' ||
+            message.charAt(1) != 'a' ||
+            message.charAt(2) != 'n' ||
+            message.charAt(3) != ' ') {
+            // 「jan hoge」以外全て無視
+            return null;
+        }
+        
+        int[] bounds = new int[INITIAL_TOKEN_CAPACITY * 2];
+        int tokenCount = 0;
+        int index = PREFIX_LENGTH;
+        while (true) {
+            while (index < length && message.charAt(index) == ' ') {
+                index++;
+            }
+            if (index == length) {
+                break;
+            }
+            
+            final int start = index;
+            while (index < length && message.charAt(index) != ' ') {
+                index++;
+            }
+            
+            if (tokenCount * 2 == bounds.length) {
+                final int[] newBounds = new int[bounds.length * 2];
+                System.arraycopy(bounds, 0, newBounds, 0, bounds.length);
+                bounds = newBounds;
+            }
+            bounds[tokenCount * 2] = start;
+            bounds[tokenCount * 2 + 1] = index;
+            tokenCount++;
+        }
+        
+        if (tokenCount == 0) {
+            return null;
+        }
+        return new Command(message, bounds, tokenCount);
+    }
+    
+    
+    
+    /**
+     * コマンド名を取得
+     * 
+     * @return コマンド名。
+     */
+    public String getName() {
+        return getToken(0);
+    }
+    
+    /**
+     * パラメータを取得
+     * 
+     * @param index インデックス。
+     * @return パラメータ。
+     */
+    public String getParameter(final int index) {
+        if (index < 0 || getParameterCount() <= index) {
+            throw new IndexOutOfBoundsException("Invalid parameter index : " + index);
+        }
+        return getToken(index + 1);
+    }
+    
+    /**
+     * パラメータ数を取得
+     * 
+     * @return パラメータ数。
+     */
+    public int getParameterCount() {
+        return _tokenCount - 1;
+    }
+    
+    /**
+     * パラメータのリストを取得
+     * 
+     * @return パラメータのリスト。
+     */
+    public List<String> getParameterList() {
+        final int count = getParameterCount();
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        
+        final List<String> parameterList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            parameterList.add(getToken(i + 1));
+        }
+        return parameterList;
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return _source;
+    }
+    
+    
+    
+    /**
+     * トークンを取得
+     * 
+     * @param index トークンのインデックス。
+     * @return トークン。
+     */
+    private String getToken(final int index) {
+        return _source.substring(_bounds[index * 2], _bounds[index * 2 + 1]);
+    }
+    
+    
+    
+    /**
+     * BOTコマンドのプレフィックス長 (「jan 」)
+     */
+    private static final int PREFIX_LENGTH = 4;
+    
+    /**
+     * トークン位置の初期容量
+     */
+    private static final int INITIAL_TOKEN_CAPACITY = 4;
+    
+    
+    
+    /**
+     * 発言
+     */
+    private final String _source;
+    
+    /**
+     * トークンの開始位置と終了位置の組
+     */
+    private final int[] _bounds;
+    
+    /**
+     * トークン数
+     */
+    private final int _tokenCount;
+    
+}
@@ -0,0 +1,312 @@
+/**
+ * CommandDispatcher.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+
+/**
+ * コマンド実行スレッドへの振り分け
+ * 
+ * IRCの受信スレッドではコマンドの受付のみを行い、ゲーム処理はワーカースレッドで実行する。
+ * 同じ発言者のコマンドは受付順に1つずつ実行する。
+ */
+final class CommandDispatcher {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param threadCount ワーカースレッド数。
+     * @param maxInFlight 同時に受け付けるコマンド数の上限。
+     */
+    public CommandDispatcher(final int threadCount, final int maxInFlight) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Invalid thread count : " + threadCount);
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Invalid in-flight limit : " + maxInFlight);
+        }
+        
+        _executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+            public Thread newThread(final Runnable task) {
+                final Thread thread = new Thread(task, "CommandDispatcher-" + _threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        _inFlight = new Semaphore(maxInFlight);
+        _maxInFlight = maxInFlight;
+    }
+    
+    
+    
+    /**
+     * コマンドを受け付ける
+     * 
+     * @param senderName 発言者のニックネーム。
+     * @param command コマンド処理。
+     * @return 受け付けた場合はtrue。同時実行数の上限に達していた場合はfalse。
+     */
+    public boolean dispatch(final String senderName, final Runnable command) {
+        if (senderName == null) {
+            throw new NullPointerException("Sender name is null.");
+        }
+        if (command == null) {
+            throw new NullPointerException("Command is null.");
+        }
+        
+        if (!_inFlight.tryAcquire()) {
+            _rejectedCount.incrementAndGet();
+            return false;
+        }
+        
+        final long acceptTime = System.nanoTime();
+        final Runnable task = new Runnable() {
+            public void run() {
+                recordQueueDelay(System.nanoTime() - acceptTime);
+                try {
+                    command.run();
+                }
+                finally {
+                    _inFlight.release();
+                }
+            }
+        };
+        while (!getSenderQueue(senderName).offer(task)) {
+            // 空になって閉じたキューを掴んだ場合は、作り直したキューに入れ直す
+        }
+        return true;
+    }
+    
+    /**
+     * 統計情報を取得
+     * 
+     * @return 統計情報。
+     */
+    public String getStatistics() {
+        final long count = _executedCount.get();
+        final long averageMicros = count > 0 ? TimeUnit.NANOSECONDS.toMicros(_totalDelayNanos.get() / count) : 0;
+        final long maxMicros = TimeUnit.NANOSECONDS.toMicros(_maxDelayNanos.get());
+        
+        final StringBuilder buf = new StringBuilder();
+        buf.append("実行中：").append(_maxInFlight - _inFlight.availablePermits()).append("/").append(_maxInFlight).append("   ");
+        buf.append("発言者キュー：").append(_senderQueueMap.size()).append("   ");
+        buf.append("実行数：").append(count).append("   ");
+        buf.append("拒否数：").append(_rejectedCount.get()).append("   ");
+        buf.append("待ち時間(平均/最大)：").append(averageMicros).append("us/").append(maxMicros).append("us");
+        return buf.toString();
+    }
+    
+    
+    
+    /**
+     * 発言者ごとのキューを取得
+     * 
+     * @param senderName 発言者のニックネーム。
+     * @return 発言者ごとのキュー。
+     */
+    private SenderQueue getSenderQueue(final String senderName) {
+        final SenderQueue queue = _senderQueueMap.get(senderName);
+        if (queue != null) {
+            return queue;
+        }
+        
+        final SenderQueue newQueue = new SenderQueue(senderName);
+        final SenderQueue oldQueue = _senderQueueMap.putIfAbsent(senderName, newQueue);
+        return oldQueue != null ? oldQueue : newQueue;
+    }
+    
+    /**
+     * キューイング遅延を記録
+     * 
+     * @param delayNanos キューイング遅延。(ナノ秒)
+     */
+    private void recordQueueDelay(final long delayNanos) {
+        _executedCount.incrementAndGet();
+        _totalDelayNanos.addAndGet(delayNanos);
+        
+        long max = _maxDelayNanos.get();
+        while (delayNanos > max && !_maxDelayNanos.compareAndSet(max, delayNanos)) {
+            max = _maxDelayNanos.get();
+        }
+    }
+    
+    
+    
+    /**
+     * 発言者ごとのキュー
+     * 
+     * 同じ発言者のコマンドを1つずつ順番に実行する。
+     * 空になったキューは閉じて一覧から外し、発言者が増えても一覧が膨らまないようにする。
+     */
+    private final class SenderQueue implements Runnable {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param senderName 発言者のニックネーム。
+         */
+        public SenderQueue(final String senderName) {
+            _senderName = senderName;
+        }
+        
+        
+        
+        /**
+         * コマンドを追加
+         * 
+         * @param command コマンド処理。
+         * @return 追加した場合はtrue。キューが閉じていた場合はfalse。
+         */
+        public boolean offer(final Runnable command) {
+            synchronized (this) {
+                if (_closed) {
+                    return false;
+                }
+                _commandQueue.offer(command);
+            }
+            schedule();
+            return true;
+        }
+        
+        /**
+         * キューを処理
+         */
+        public void run() {
+            try {
+                Runnable command;
+                while ((command = _commandQueue.poll()) != null) {
+                    try {
+                        command.run();
+                    }
+                    catch (final RuntimeException e) {
+                        // 1つのコマンドの失敗で後続のコマンドを止めない
+                        e.printStackTrace();
+                    }
+                }
+            }
+            finally {
+                _scheduled.set(false);
+            }
+            
+            if (!_commandQueue.isEmpty()) {
+                schedule();
+            }
+            else if (close()) {
+                _senderQueueMap.remove(_senderName, this);
+            }
+        }
+        
+        /**
+         * 空であればキューを閉じる
+         * 
+         * 別のスレッドが実行中の場合は、そのスレッドが処理を終えた後に閉じる。
+         * 閉じた後に届いたコマンドは、作り直したキューに入る。(閉じる前のコマンドは全て実行済みのため順序は保たれる)
+         * 
+         * @return 閉じた場合はtrue。
+         */
+        private synchronized boolean close() {
+            if (_commandQueue.isEmpty() && !_scheduled.get()) {
+                _closed = true;
+            }
+            return _closed;
+        }
+        
+        /**
+         * 実行をスケジュール
+         */
+        private void schedule() {
+            if (_scheduled.compareAndSet(false, true)) {
+                _executor.execute(this);
+            }
+        }
+        
+        
+        
+        /**
+         * 発言者のニックネーム
+         */
+        private final String _senderName;
+        
+        /**
+         * コマンドキュー
+         */
+        private final Queue<Runnable> _commandQueue = new ConcurrentLinkedQueue<>();
+        
+        /**
+         * 実行がスケジュール済みか
+         */
+        private final AtomicBoolean _scheduled = new AtomicBoolean(false);
+        
+        /**
+         * 閉じたか (閉じたキューにはコマンドを追加しない)
+         */
+        private boolean _closed = false;
+        
+    }
+    
+    
+    
+    /**
+     * ワーカースレッド
+     */
+    private final ExecutorService _executor;
+    
+    /**
+     * 生成したスレッド数
+     */
+    private final AtomicInteger _threadCount = new AtomicInteger();
+    
+    /**
+     * 同時実行数の制限
+     */
+    private final Semaphore _inFlight;
+    
+    /**
+     * 同時実行数の上限
+     */
+    private final int _maxInFlight;
+    
+    /**
+     * 発言者ごとのキュー (実行待ちのコマンドがある発言者のみ)
+     */
+    private final ConcurrentMap<String, SenderQueue> _senderQueueMap = new ConcurrentHashMap<>();
+    
+    /**
+     * 実行したコマンド数
+     */
+    private final AtomicLong _executedCount = new AtomicLong();
+    
+    /**
+     * 拒否したコマンド数
+     */
+    private final AtomicLong _rejectedCount = new AtomicLong();
+    
+    /**
+     * キューイング遅延の合計 (ナノ秒)
+     */
+    private final AtomicLong _totalDelayNanos = new AtomicLong();
+    
+    /**
+     * キューイング遅延の最大 (ナノ秒)
+     */
+    private final AtomicLong _maxDelayNanos = new AtomicLong();
+    
+}
@@ -0,0 +1,29 @@
+/**
+ * CommandHandler.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot;
+
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * コマンド処理
+ */
+interface CommandHandler {
+    
+    /**
+     * コマンドを実行
+     * 
+     * @param channel 発言されたチャンネル名。(トークの場合はnull)
+     * @param playerName 発言者のニックネーム。
+     * @param command コマンド。
+     * @throws JanException 麻雀ゲーム中の例外。
+     */
+    public void execute(final String channel, final String playerName, final Command command) throws JanException;
+    
+}
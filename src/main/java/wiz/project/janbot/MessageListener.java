@@ -8,17 +8,25 @@
 package wiz.project.janbot;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.pircbotx.PircBotX;
 import org.pircbotx.hooks.ListenerAdapter;
 import org.pircbotx.hooks.events.MessageEvent;
+import org.pircbotx.hooks.events.NickChangeEvent;
 import org.pircbotx.hooks.events.PrivateMessageEvent;
 
 import wiz.project.ircbot.IRCBOT;
 import wiz.project.janbot.game.CallType;
 import wiz.project.janbot.game.GameMaster;
+import wiz.project.janbot.game.HandCheckCache;
+import wiz.project.janbot.game.MessagePriority;
+import wiz.project.janbot.game.OutboundDispatcher;
+import wiz.project.janbot.game.TableId;
 import wiz.project.janbot.game.exception.BoneheadException;
+import wiz.project.janbot.game.exception.InvalidInputException;
 import wiz.project.janbot.game.exception.JanException;
 
 
@@ -34,6 +42,8 @@ final class MessageListener<T extends PircBotX> extends ListenerAdapter<T> {
      * コンストラクタ
      */
     public MessageListener() {
+        _openCommandTable = createOpenCommandTable();
+        _talkCommandTable = createTalkCommandTable();
     }
     
     
@@ -51,26 +61,61 @@ final class MessageListener<T extends PircBotX> extends ListenerAdapter<T> {
         }
         
         // メッセージ解析
+        final Command command = Command.parse(event.getMessage());
+        if (command == null) {
+            // 「jan hoge」以外全て無視
+            return;
+        }
+        final CommandHandler handler = _openCommandTable.get(command.getName());
+        if (handler == null) {
+            // 不明なコマンドは全て無視
+            return;
+        }
+        
         final String playerName = event.getUser().getNick();
-        try {
-            final String message = event.getMessage().replaceAll(" +", " ");  // 連続する半角スペースを削除
-            if (!message.startsWith(COMMAND_PREFIX)) {
-                // 「jan hoge」以外全て無視
-                return;
+        final String channel = event.getChannel().getName();
+        
+        // ゲーム処理はワーカースレッドに任せる
+        final boolean accepted = _dispatcher.dispatch(playerName, new Runnable() {
+            public void run() {
+                executeCommandOpen(handler, channel, playerName, command);
             }
-            
-            final List<String> commandList = Arrays.asList(message.substring(COMMAND_PREFIX.length()).split(" "));  // 半角スペースで分解
-            onCommandOpen(playerName, commandList);
-        }
-        catch (final BoneheadException e) {
-            IRCBOT.getInstance().println("(  ´∀｀) ＜ チョンボ");
+        });
+        if (!accepted) {
+            OutboundDispatcher.getInstance().println("(  ´∀｀) ＜ 混雑中", MessagePriority.PROMPT);
         }
-        catch (final JanException e) {
-            IRCBOT.getInstance().println("(  ´∀｀) ＜ " + e.getMessage());
+    }
+    
+    /**
+     * ニックネーム変更時の処理
+     * 
+     * @param event イベント情報。
+     * @throws Exception 処理に失敗。
+     */
+    @Override
+    public void onNickChange(final NickChangeEvent<T> event) throws Exception {
+        if (event == null) {
+            throw new NullPointerException("Event information is null.");
         }
-        catch (final Throwable e) {
-            IRCBOT.getInstance().println("(  ´∀｀) ＜ " + e.getMessage());
-            throw e;
+        
+        final String oldName = event.getOldNick();
+        final String newName = event.getNewNick();
+        
+        final Runnable task = new Runnable() {
+            public void run() {
+                try {
+                    GameMaster.getInstance().onNickChange(oldName, newName);
+                }
+                catch (final JanException e) {
+                    OutboundDispatcher.getInstance().talk(newName, "(  ´∀｀) ＜ " + e.getMessage(), MessagePriority.PROMPT);
+                }
+            }
+        };
+        
+        // 変更前の名前で受け付けたコマンドの後に処理する
+        if (!_dispatcher.dispatch(oldName, task)) {
+            // 名前の付け替えは取りこぼせないため、混雑中はその場で処理
+            task.run();
         }
     }
     
@@ -87,165 +132,321 @@ final class MessageListener<T extends PircBotX> extends ListenerAdapter<T> {
         }
         
         // メッセージ解析
-        final String playerName = event.getUser().getNick();
-        try {
-            final String message = event.getMessage().replaceAll(" +", " ");  // 連続する半角スペースを削除
-            if (!message.startsWith(COMMAND_PREFIX)) {
-                // 「jan hoge」以外全て無視
-                return;
-            }
-            
-            final List<String> commandList = Arrays.asList(message.substring(COMMAND_PREFIX.length()).split(" "));  // 半角スペースで分解
-            onCommandTalk(playerName, commandList);
-        }
-        catch (final BoneheadException e) {
-            IRCBOT.getInstance().talk(playerName, "(  ´∀｀) ＜ チョンボ");
+        final Command command = Command.parse(event.getMessage());
+        if (command == null) {
+            // 「jan hoge」以外全て無視
+            return;
         }
-        catch (final JanException e) {
-            IRCBOT.getInstance().talk(playerName, "(  ´∀｀) ＜ " + e.getMessage());
+        final CommandHandler handler = _talkCommandTable.get(command.getName());
+        if (handler == null) {
+            // 不明なコマンドは全て無視
+            return;
         }
-        catch (final Throwable e) {
-            IRCBOT.getInstance().talk(playerName, "(  ´∀｀) ＜ " + e.getMessage());
-            throw e;
+        
+        final String playerName = event.getUser().getNick();
+        
+        // ゲーム処理はワーカースレッドに任せる
+        final boolean accepted = _dispatcher.dispatch(playerName, new Runnable() {
+            public void run() {
+                executeCommandTalk(handler, playerName, command);
+            }
+        });
+        if (!accepted) {
+            OutboundDispatcher.getInstance().talk(playerName, "(  ´∀｀) ＜ 混雑中", MessagePriority.PROMPT);
         }
     }
     
     
     
     /**
-     * コマンド処理 (オープン)
+     * 卓番号を卓IDに変換
      * 
-     * @param playerName 発言者のニックネーム。
-     * @param commandList コマンドリスト。先頭要素はコマンド種類、以降はパラメータ。
-     * @throws JanException 麻雀ゲーム中の例外。
+     * @param channel チャンネル名。
+     * @param source 卓番号の文字列。
+     * @return 卓ID。
+     * @throws InvalidInputException 不正な卓番号。
      */
-    private void onCommandOpen(final String playerName, final List<String> commandList) throws JanException {
-        final String command = commandList.get(0);
-        switch (command) {
-        case "--close":
-            if (commandList.size() == 1) {
-                IRCBOT.getInstance().println("(  ；∀；)");
-                IRCBOT.getInstance().disconnect();
-            }
-            break;
-        case "s":
-            if (commandList.size() == 1) {
-                GameMaster.getInstance().onStart();
-            }
-            break;
-        case "e":
-            if (commandList.size() == 1) {
-                GameMaster.getInstance().onEnd();
-            }
-            break;
-        case "entry":
-            GameMaster.getInstance().onEntry(commandList.subList(1, commandList.size()));
-            break;
-        case "h":
-        case "help":
-            if (commandList.size() == 1) {
-                GameMaster.getInstance().onHelpOpen();
-            }
-            break;
-        default:
-            // 不明なコマンドは全て無視
-            break;
+    private TableId convertStringToTableId(final String channel, final String source) throws InvalidInputException {
+        try {
+            return new TableId(channel, Integer.parseInt(source));
+        }
+        catch (final IllegalArgumentException e) {
+            // NumberFormatExceptionも含む
+            throw new InvalidInputException("Invalid table number - " + source);
         }
     }
     
     /**
-     * コマンド処理 (トーク)
+     * オープンコマンドの処理テーブルを生成
      * 
-     * @param playerName 発言者のニックネーム。
-     * @param commandList コマンドリスト。先頭要素はコマンド種類、以降はパラメータ。
-     * @throws JanException 麻雀ゲーム中の例外。
+     * @return オープンコマンドの処理テーブル。
      */
-    private void onCommandTalk(final String playerName, final List<String> commandList) throws JanException {
-        final String command = commandList.get(0);
-        switch (command) {
-        case "d":
-            if (!GameMaster.getInstance().getStatus().isIdleCall()) {
-                switch (commandList.size()) {
-                case 1:
-                    GameMaster.getInstance().onDiscard(playerName);
+    private Map<String, CommandHandler> createOpenCommandTable() {
+        final Map<String, CommandHandler> table = new HashMap<>();
+        table.put("--close", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) {
+                if (command.getParameterCount() == 0) {
+                    IRCBOT.getInstance().println("(  ；∀；)");
+                    IRCBOT.getInstance().disconnect();
+                }
+            }
+        });
+        table.put("--stat", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) {
+                if (command.getParameterCount() == 0) {
+                    final List<String> messageList = Arrays.asList(_dispatcher.getStatistics(),
+                                                                   HandCheckCache.getInstance().getStatistics(),
+                                                                   OutboundDispatcher.getInstance().getStatistics());
+                    OutboundDispatcher.getInstance().println(messageList, MessagePriority.PROMPT);
+                }
+            }
+        });
+        table.put("s", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                switch (command.getParameterCount()) {
+                case 0:
+                    GameMaster.getInstance().onStart(new TableId(channel, TableId.DEFAULT_NUMBER), playerName);
                     break;
-                case 2:
-                    GameMaster.getInstance().onDiscard(playerName, commandList.get(1));
+                case 1:
+                    GameMaster.getInstance().onStart(convertStringToTableId(channel, command.getParameter(0)), playerName);
                     break;
                 default:
                     // 不正な指定を無視
                     break;
                 }
             }
-            else {
-                if (commandList.size() == 1) {
-                    GameMaster.getInstance().onCall(playerName);
+        });
+        table.put("e", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                switch (command.getParameterCount()) {
+                case 0:
+                    GameMaster.getInstance().onEnd(GameMaster.getInstance().getTableId(channel, playerName));
+                    break;
+                case 1:
+                    GameMaster.getInstance().onEnd(convertStringToTableId(channel, command.getParameter(0)));
+                    break;
+                default:
+                    // 不正な指定を無視
+                    break;
                 }
             }
-            break;
-        case "tsumo":
-            if (commandList.size() == 1) {
-                GameMaster.getInstance().onCompleteTsumo(playerName);
+        });
+        table.put("entry", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                GameMaster.getInstance().onEntry(GameMaster.getInstance().getTableId(channel, playerName),
+                                                 command.getParameterList());
             }
-            break;
-        case "ron":
-            if (commandList.size() == 1) {
-                GameMaster.getInstance().onCall(playerName, CallType.RON);
+        });
+        final CommandHandler helpHandler = new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) {
+                if (command.getParameterCount() == 0) {
+                    GameMaster.getInstance().onHelpOpen();
+                }
             }
-            break;
-        case "hu":
-            if (commandList.size() == 1) {
-                if (!GameMaster.getInstance().getStatus().isIdleCall()) {
-                    GameMaster.getInstance().onCompleteTsumo(playerName);
+        };
+        table.put("h", helpHandler);
+        table.put("help", helpHandler);
+        return table;
+    }
+    
+    /**
+     * トークコマンドの処理テーブルを生成
+     * 
+     * @return トークコマンドの処理テーブル。
+     */
+    private Map<String, CommandHandler> createTalkCommandTable() {
+        final Map<String, CommandHandler> table = new HashMap<>();
+        table.put("d", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                if (!GameMaster.getInstance().getStatus(playerName).isIdleCall()) {
+                    switch (command.getParameterCount()) {
+                    case 0:
+                        GameMaster.getInstance().onDiscard(playerName);
+                        break;
+                    case 1:
+                        GameMaster.getInstance().onDiscard(playerName, command.getParameter(0));
+                        break;
+                    default:
+                        // 不正な指定を無視
+                        break;
+                    }
                 }
                 else {
+                    if (command.getParameterCount() == 0) {
+                        GameMaster.getInstance().onCall(playerName);
+                    }
+                }
+            }
+        });
+        table.put("tsumo", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                if (command.getParameterCount() == 0) {
+                    GameMaster.getInstance().onCompleteTsumo(playerName);
+                }
+            }
+        });
+        table.put("ron", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                if (command.getParameterCount() == 0) {
                     GameMaster.getInstance().onCall(playerName, CallType.RON);
                 }
             }
-        case "chi":
-            if (commandList.size() == 2) {
-                GameMaster.getInstance().onCall(playerName, CallType.CHI, commandList.get(1));
+        });
+        table.put("hu", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                if (command.getParameterCount() == 0) {
+                    if (!GameMaster.getInstance().getStatus(playerName).isIdleCall()) {
+                        GameMaster.getInstance().onCompleteTsumo(playerName);
+                    }
+                    else {
+                        GameMaster.getInstance().onCall(playerName, CallType.RON);
+                    }
+                }
             }
-            break;
-        case "pon":
-            if (commandList.size() == 1) {
-                GameMaster.getInstance().onCall(playerName, CallType.PON);
+        });
+        table.put("compact", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                if (command.getParameterCount() == 1) {
+                    final String mode = command.getParameter(0);
+                    if (mode.equals("on")) {
+                        GameMaster.getInstance().onCompactMode(playerName, true);
+                    }
+                    else if (mode.equals("off")) {
+                        GameMaster.getInstance().onCompactMode(playerName, false);
+                    }
+                }
             }
-            break;
-        case "kan":
-            if (commandList.size() == 2) {
-                if (!GameMaster.getInstance().getStatus().isIdleCall()) {
-                    // この時点では手牌を確認できないので、加槓も KAN_DARK ルートから入る
-                    GameMaster.getInstance().onCall(playerName, CallType.KAN_DARK, commandList.get(1));
+        });
+        table.put("full", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                if (command.getParameterCount() == 0) {
+                    GameMaster.getInstance().onFullRender(playerName);
                 }
-                else {
-                    GameMaster.getInstance().onCall(playerName, CallType.KAN_LIGHT, commandList.get(1));
+            }
+        });
+        table.put("chi", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                if (command.getParameterCount() == 1) {
+                    GameMaster.getInstance().onCall(playerName, CallType.CHI, command.getParameter(0));
                 }
             }
-            break;
-        case "h":
-        case "help":
-            if (commandList.size() == 1) {
-                GameMaster.getInstance().onHelpTalk(playerName);
+        });
+        table.put("pon", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                if (command.getParameterCount() == 0) {
+                    GameMaster.getInstance().onCall(playerName, CallType.PON);
+                }
             }
-            break;
-        case "debug":
-            if (commandList.size() == 3) {
-                GameMaster.getInstance().onDebugInfo(playerName);
+        });
+        table.put("kan", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) throws JanException {
+                if (command.getParameterCount() == 1) {
+                    if (!GameMaster.getInstance().getStatus(playerName).isIdleCall()) {
+                        // この時点では手牌を確認できないので、加槓も KAN_DARK ルートから入る
+                        GameMaster.getInstance().onCall(playerName, CallType.KAN_DARK, command.getParameter(0));
+                    }
+                    else {
+                        GameMaster.getInstance().onCall(playerName, CallType.KAN_LIGHT, command.getParameter(0));
+                    }
+                }
             }
-            break;
-        default:
-            // 不明なコマンドは全て無視
-            break;
+        });
+        final CommandHandler helpHandler = new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) {
+                if (command.getParameterCount() == 0) {
+                    GameMaster.getInstance().onHelpTalk(playerName);
+                }
+            }
+        };
+        table.put("h", helpHandler);
+        table.put("help", helpHandler);
+        table.put("debug", new CommandHandler() {
+            public void execute(final String channel, final String playerName, final Command command) {
+                if (command.getParameterCount() == 2) {
+                    GameMaster.getInstance().onDebugInfo(playerName);
+                }
+            }
+        });
+        return table;
+    }
+    
+    /**
+     * コマンドを実行し、例外を発言者に通知 (オープン)
+     * 
+     * @param handler コマンド処理。
+     * @param channel 発言されたチャンネル名。
+     * @param playerName 発言者のニックネーム。
+     * @param command コマンド。
+     */
+    private void executeCommandOpen(final CommandHandler handler, final String channel, final String playerName, final Command command) {
+        try {
+            handler.execute(channel, playerName, command);
+        }
+        catch (final BoneheadException e) {
+            OutboundDispatcher.getInstance().println("(  ´∀｀) ＜ チョンボ", MessagePriority.PROMPT);
+        }
+        catch (final JanException e) {
+            OutboundDispatcher.getInstance().println("(  ´∀｀) ＜ " + e.getMessage(), MessagePriority.PROMPT);
+        }
+        catch (final RuntimeException e) {
+            // ワーカースレッドに投げ直すと後続のコマンドが止まるため、ここで通知して終える
+            OutboundDispatcher.getInstance().println("(  ´∀｀) ＜ " + e.getMessage(), MessagePriority.PROMPT);
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * コマンドを実行し、例外を発言者に通知 (トーク)
+     * 
+     * @param handler コマンド処理。
+     * @param playerName 発言者のニックネーム。
+     * @param command コマンド。
+     */
+    private void executeCommandTalk(final CommandHandler handler, final String playerName, final Command command) {
+        try {
+            handler.execute(null, playerName, command);
+        }
+        catch (final BoneheadException e) {
+            OutboundDispatcher.getInstance().talk(playerName, "(  ´∀｀) ＜ チョンボ", MessagePriority.PROMPT);
+        }
+        catch (final JanException e) {
+            OutboundDispatcher.getInstance().talk(playerName, "(  ´∀｀) ＜ " + e.getMessage(), MessagePriority.PROMPT);
+        }
+        catch (final RuntimeException e) {
+            // ワーカースレッドに投げ直すと後続のコマンドが止まるため、ここで通知して終える
+            OutboundDispatcher.getInstance().talk(playerName, "(  ´∀｀) ＜ " + e.getMessage(), MessagePriority.PROMPT);
+            e.printStackTrace();
         }
     }
     
     
     
     /**
-     * BOTコマンドのプレフィックス
+     * コマンド実行スレッド数
+     */
+    private static final int DISPATCHER_THREAD_COUNT = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    
+    /**
+     * 同時に受け付けるコマンド数の上限
+     */
+    private static final int DISPATCHER_MAX_IN_FLIGHT = 256;
+    
+    
+    
+    /**
+     * コマンド実行スレッドへの振り分け
+     */
+    private final CommandDispatcher _dispatcher = new CommandDispatcher(DISPATCHER_THREAD_COUNT, DISPATCHER_MAX_IN_FLIGHT);
+    
+    /**
+     * オープンコマンドの処理テーブル
+     */
+    private final Map<String, CommandHandler> _openCommandTable;
+    
+    /**
+     * トークコマンドの処理テーブル
      */
-    private static final String COMMAND_PREFIX = "jan ";
+    private final Map<String, CommandHandler> _talkCommandTable;
     
 }
 
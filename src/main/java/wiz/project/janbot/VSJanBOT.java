@@ -7,7 +7,10 @@
 
 package wiz.project.janbot;
 
+import java.util.Arrays;
+
 import wiz.project.ircbot.IRCBOT;
+import wiz.project.janbot.game.HeadlessSimulator;
 
 
 
@@ -33,6 +36,11 @@ public final class VSJanBOT {
         if (paramList == null) {
             throw new NullPointerException("Parameter list is null.");
         }
+        if (paramList.length > 0 && paramList[0].equals(PARAM_SIMULATE)) {
+            // IRCに接続せず、COMのみの対局を繰り返して集計する
+            HeadlessSimulator.main(Arrays.copyOfRange(paramList, 1, paramList.length));
+            return;
+        }
         if (paramList.length < PARAM_SIZE) {
             System.out.println("Call with parameter. (ex.: java -jar janbot.vs.jar \"foo.irc.net\" \"1234\" \"#your-channel\")");
             return;
@@ -68,5 +76,10 @@ public final class VSJanBOT {
     private static final int PARAM_INDEX_SERVER_PORT  = 1;
     private static final int PARAM_INDEX_CHANNEL_NAME = 2;
     
+    /**
+     * シミュレーション実行の指定 (以降の実行引数は局数、並列数、乱数の種)
+     */
+    private static final String PARAM_SIMULATE = "--simulate";
+    
 }
 
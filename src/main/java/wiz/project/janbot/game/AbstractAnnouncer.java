@@ -27,6 +27,24 @@ abstract class AbstractAnnouncer implements Announcer {
      * コンストラクタ
      */
     public AbstractAnnouncer() {
+        this(new CompactViewState(), new RenderCache());
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param compactViewState 差分表示の状態。(卓の実況者どうしで共有)
+     * @param renderCache 描画結果のキャッシュ。(卓の実況者どうしで共有)
+     */
+    public AbstractAnnouncer(final CompactViewState compactViewState, final RenderCache renderCache) {
+        if (compactViewState == null) {
+            throw new NullPointerException("Compact view state is null.");
+        }
+        if (renderCache == null) {
+            throw new NullPointerException("Render cache is null.");
+        }
+        _compactViewState = compactViewState;
+        _renderCache = renderCache;
     }
     
     
@@ -42,11 +60,7 @@ abstract class AbstractAnnouncer implements Announcer {
             throw new NullPointerException("Source janpai is null.");
         }
         
-        final StringBuilder buf = new StringBuilder();
-        buf.append(COLOR_FLAG).append("14");  // 灰色
-        buf.append(pai);
-        buf.append(COLOR_FLAG);
-        return buf.toString();
+        return JanPaiGlyph.getCalled(pai);
     }
     
     /**
@@ -68,7 +82,8 @@ abstract class AbstractAnnouncer implements Announcer {
         }
         
         final StringBuilder buf = new StringBuilder();
-        buf.append(convertJanPaiToString(discard)).append(" <- ");
+        JanPaiGlyph.append(buf, discard);
+        buf.append(" <- ");
         if (callableList.contains(CallType.RON)) {
             buf.append("ロン可能です：  ");
         }
@@ -90,6 +105,29 @@ abstract class AbstractAnnouncer implements Announcer {
         return buf.toString();
     }
     
+    /**
+     * まとめた打牌を文字列に変換
+     * 
+     * @param discardList 打牌のリスト。
+     * @return 変換結果。
+     */
+    protected final String convertDiscardListToString(final List<DiscardRecord> discardList) {
+        if (discardList == null) {
+            throw new NullPointerException("Source discard list is null.");
+        }
+        
+        final StringBuilder buf = new StringBuilder();
+        for (final DiscardRecord record : discardList) {
+            if (buf.length() > 0) {
+                buf.append("  ");
+            }
+            buf.append(record.getDiscarder().getName()).append("：");
+            JanPaiGlyph.append(buf, record.getDiscard());
+        }
+        buf.append(" 捨牌");
+        return buf.toString();
+    }
+    
     /**
      * 場情報を文字列に変換
      * 
@@ -130,22 +168,53 @@ abstract class AbstractAnnouncer implements Announcer {
         }
         
         final StringBuilder buf = new StringBuilder();
-        if (hand.getFixedMenTsuCount() == 0) {
-            return buf.toString();
+        appendFixedMenTsu(buf, hand);
+        return buf.toString();
+    }
+    
+    /**
+     * 手牌を文字列に変換 (差分表示)
+     * 
+     * 差分表示を選んだプレイヤーには、前回の手牌表示からの変化 (ツモ牌、捨て牌、新しい副露) のみを返す。
+     * 基準が無い場合や、送り直す間隔に達した場合は全体を返す。
+     * 
+     * @param info ゲーム情報。
+     * @param player 対象プレイヤー。
+     * @param param 実況パラメータ。
+     * @return 変換結果。
+     */
+    protected final String convertHandToCompactString(final JanInfo info, final Player player, final AnnounceParam param) {
+        if (!_compactViewState.isCompact(player)) {
+            return convertHandToString(info, player, param);
         }
         
-        buf.append(" ");
+        final Hand hand = info.getHandView(player);
+        final JanPaiCount count = new JanPaiCount();
+        for (final JanPai pai : hand.getMenZenList()) {
+            count.add(pai);
+        }
+        if (param.hasFlag(AnnounceFlag.ACTIVE_TSUMO)) {
+            count.add(info.getActiveTsumo());
+        }
+        final CompactViewState.HandBase base = _compactViewState.takeBase(player);
+        _compactViewState.updateBase(player, new CompactViewState.HandBase(count, hand.getFixedMenTsuCount()), base == null);
+        if (base == null) {
+            return convertHandToString(info, player, param);
+        }
+        
+        final JanPaiCount baseCount = base.getCount();
+        final StringBuilder buf = new StringBuilder(RENDER_CAPACITY);
+        buf.append("手牌");
+        final int start = buf.length();
+        appendCountDiff(buf, " +", baseCount, count);
+        appendCountDiff(buf, " -", count, baseCount);
         final List<MenTsu> fixedMenTsuList = hand.getFixedMenTsuList();
-        Collections.reverse(fixedMenTsuList);
-        for (final MenTsu fixedMenTsu : fixedMenTsuList) {
-            buf.append(" ");
-            final List<JanPai> sourceList = fixedMenTsu.getSource();
-            if (fixedMenTsu.getMenTsuType() == MenTsuType.KAN_DARK) {
-                buf.append(convertKanDarkToString(sourceList.get(0)));
-            }
-            else {
-                buf.append(convertJanPaiToString(sourceList));
-            }
+        for (int i = base.getFixedMenTsuCount(); i < fixedMenTsuList.size(); i++) {
+            buf.append(" 副露");
+            appendMenTsu(buf, fixedMenTsuList.get(i));
+        }
+        if (buf.length() == start) {
+            buf.append(" 変化なし");
         }
         return buf.toString();
     }
@@ -153,6 +222,8 @@ abstract class AbstractAnnouncer implements Announcer {
     /**
      * 手牌を文字列に変換
      * 
+     * 手牌の版と表示の種類が同じであれば、前回の描画結果を返す。
+     * 
      * @param info ゲーム情報。
      * @param player 対象プレイヤー。
      * @param param 実況パラメータ。
@@ -169,17 +240,48 @@ abstract class AbstractAnnouncer implements Announcer {
             throw new NullPointerException("Source parameter is null.");
         }
         
-        final Hand hand = info.getHand(player.getName());
-        final StringBuilder buf = new StringBuilder();
-        buf.append(convertMenzenHandToString(hand));
+        Wind wind = null;
+        try {
+            wind = info.getWind(player);
+        }
+        catch (final IllegalArgumentException e) {
+            // 席に着いていないプレイヤーの手牌は空として描画し、キャッシュしない
+        }
+        final long version = info.getHandVersion(wind);
+        final int variant;
         if (param.hasFlag(AnnounceFlag.ACTIVE_TSUMO)) {
-            buf.append(" ").append(convertJanPaiToString(info.getActiveTsumo()));
+            variant = RenderCache.getTsumoVariant(info.getActiveTsumo());
         }
         else if (param.hasFlag(AnnounceFlag.ACTIVE_DISCARD)) {
-            buf.append(" ").append(convertJanPaiToString(info.getActiveDiscard()));
+            variant = RenderCache.getDiscardVariant(info.getActiveDiscard());
         }
-        buf.append(convertFixedMenTsuToString(hand));
-        return buf.toString();
+        else {
+            variant = RenderCache.PLAIN_VARIANT;
+        }
+        if (wind != null) {
+            final String cached = _renderCache.getHand(wind, version, variant);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
+        final Hand hand = info.getHandView(wind);
+        final StringBuilder buf = new StringBuilder(RENDER_CAPACITY);
+        appendMenzenHand(buf, hand);
+        if (param.hasFlag(AnnounceFlag.ACTIVE_TSUMO)) {
+            buf.append(" ");
+            JanPaiGlyph.append(buf, info.getActiveTsumo());
+        }
+        else if (param.hasFlag(AnnounceFlag.ACTIVE_DISCARD)) {
+            buf.append(" ");
+            JanPaiGlyph.append(buf, info.getActiveDiscard());
+        }
+        appendFixedMenTsu(buf, hand);
+        final String rendered = buf.toString();
+        if (wind != null) {
+            _renderCache.putHand(wind, version, variant, rendered);
+        }
+        return rendered;
     }
     
     /**
@@ -193,11 +295,7 @@ abstract class AbstractAnnouncer implements Announcer {
             throw new NullPointerException("Source janpai is null.");
         }
         
-        final StringBuilder buf = new StringBuilder();
-        buf.append(COLOR_FLAG).append(getColorCode(pai));
-        buf.append(pai);
-        buf.append(COLOR_FLAG);
-        return buf.toString();
+        return JanPaiGlyph.get(pai);
     }
     
     /**
@@ -215,11 +313,7 @@ abstract class AbstractAnnouncer implements Announcer {
         }
         
         final StringBuilder buf = new StringBuilder();
-        buf.append(COLOR_FLAG).append(getColorCode(paiList.get(0)));
-        for (final JanPai pai : paiList) {
-            buf.append(pai);
-        }
-        buf.append(COLOR_FLAG);
+        JanPaiGlyph.append(buf, paiList);
         return buf.toString();
     }
     
@@ -234,10 +328,32 @@ abstract class AbstractAnnouncer implements Announcer {
             throw new NullPointerException("Source janpai is null.");
         }
         
+        return JanPaiGlyph.getKanDark(pai);
+    }
+    
+    /**
+     * 直前の捨て牌を文字列に変換 (差分表示)
+     * 
+     * @param info ゲーム情報。
+     * @param param 実況パラメータ。
+     * @return 変換結果。
+     */
+    protected final String convertLastDiscardToString(final JanInfo info, final AnnounceParam param) {
+        if (info == null) {
+            throw new NullPointerException("Source info is null.");
+        }
+        if (param == null) {
+            throw new NullPointerException("Source parameter is null.");
+        }
+        
+        final Wind playerWind = info.getWind(param.getPlayer());
+        final List<JanPai> river = info.getRiver(playerWind).get();
+        if (river.isEmpty()) {
+            return convertRiverToString(info, param);
+        }
         final StringBuilder buf = new StringBuilder();
-        buf.append(COLOR_FLAG).append(getColorCode(pai));
-        buf.append("[■]" + pai + pai + "[■]");
-        buf.append(COLOR_FLAG);
+        buf.append(playerWind).append("：").append(info.getPlayer(playerWind).getName()).append("打");
+        JanPaiGlyph.append(buf, river.get(river.size() - 1));
         return buf.toString();
     }
     
@@ -252,16 +368,16 @@ abstract class AbstractAnnouncer implements Announcer {
             throw new NullPointerException("Source hand is null.");
         }
         
-        final StringBuilder buf = new StringBuilder();
-        for (final JanPai pai : hand.getMenZenList()) {
-            buf.append(convertJanPaiToString(pai));
-        }
+        final StringBuilder buf = new StringBuilder(RENDER_CAPACITY);
+        appendMenzenHand(buf, hand);
         return buf.toString();
     }
     
     /**
      * 捨て牌リストを文字列に変換
      * 
+     * 捨て牌の版が同じであれば、前回の描画結果を返す。
+     * 
      * @param info ゲーム情報。
      * @param param 実況パラメータ。
      * @return 変換結果。
@@ -274,87 +390,148 @@ abstract class AbstractAnnouncer implements Announcer {
             throw new NullPointerException("Source parameter is null.");
         }
         
-        final String playerName = param.getPlayer().getName();
-        final Wind playerWind = info.getWind(playerName);
+        final Wind playerWind = info.getWind(param.getPlayer());
+        final long version = info.getRiverVersion(playerWind);
+        final String cached = _renderCache.getRiver(playerWind, version);
+        if (cached != null) {
+            return cached;
+        }
+        
         final River river = info.getRiver(playerWind);
-        final StringBuilder buf = new StringBuilder();
+        final StringBuilder buf = new StringBuilder(RENDER_CAPACITY);
         int count = 1;
         int calledIndex = 0;
-        buf.append(playerWind + "：" + playerName + "捨牌：");
+        buf.append(playerWind).append("：").append(info.getPlayer(playerWind).getName()).append("捨牌：");
         for (final JanPai pai : river.get()) {
             if (calledIndex < river.getCalledIndexList().size() && count == river.getCalledIndexList().get(calledIndex)) {
-                buf.append(convertCalledJanPaiToString(pai));
+                buf.append(JanPaiGlyph.getCalled(pai));
                 calledIndex++;
             }
             else {
-                buf.append(convertJanPaiToString(pai));
+                JanPaiGlyph.append(buf, pai);
             }
             if (count % 6 == 0) {
                 buf.append("  ");
             }
             count++;
         }
-        return buf.toString();
+        final String rendered = buf.toString();
+        _renderCache.putRiver(playerWind, version, rendered);
+        return rendered;
+    }
+    
+    /**
+     * 差分表示の状態を取得
+     * 
+     * @return 差分表示の状態。
+     */
+    protected final CompactViewState getCompactViewState() {
+        return _compactViewState;
+    }
+    
+    /**
+     * 指定プレイヤーにメッセージを送信
+     * 
+     * 差分表示を選んだプレイヤー宛ての行には、送信時に通し番号が付く。
+     * 通し番号が飛んでいれば、受け取り損ねた行があると分かる。
+     * 
+     * @param receiver 送信先のプレイヤー。
+     * @param messageList メッセージリスト。
+     * @param priority 優先度。
+     */
+    protected final void talk(final Player receiver, final List<String> messageList, final MessagePriority priority) {
+        OutboundDispatcher.getInstance().talk(receiver.getName(), messageList, priority, _compactViewState.getLineCounter(receiver));
     }
     
     
     
     /**
-     * 色コードを取得
+     * 枚数の増えた雀牌を連結
      * 
-     * @param pai 雀牌。
-     * @return 対応する色コード。
+     * @param buf 連結先。
+     * @param label 増えた雀牌がある場合に前に付ける表記。
+     * @param baseCount 比較元の枚数。
+     * @param count 比較先の枚数。
+     */
+    private void appendCountDiff(final StringBuilder buf, final String label, final JanPaiCount baseCount, final JanPaiCount count) {
+        boolean isFirst = true;
+        for (final JanPai pai : JanPai.values()) {
+            for (int i = baseCount.get(pai); i < count.get(pai); i++) {
+                if (isFirst) {
+                    buf.append(label);
+                    isFirst = false;
+                }
+                JanPaiGlyph.append(buf, pai);
+            }
+        }
+    }
+    
+    /**
+     * 副露牌を連結
+     * 
+     * @param buf 連結先。
+     * @param hand 手牌。
+     */
+    private void appendFixedMenTsu(final StringBuilder buf, final Hand hand) {
+        if (hand.getFixedMenTsuCount() == 0) {
+            return;
+        }
+        
+        buf.append(" ");
+        final List<MenTsu> fixedMenTsuList = hand.getFixedMenTsuList();
+        Collections.reverse(fixedMenTsuList);
+        for (final MenTsu fixedMenTsu : fixedMenTsuList) {
+            buf.append(" ");
+            appendMenTsu(buf, fixedMenTsu);
+        }
+    }
+    
+    /**
+     * 面子を連結
+     * 
+     * @param buf 連結先。
+     * @param menTsu 面子。
      */
-    private String getColorCode(final JanPai pai) {
-        switch (pai) {
-        case MAN_1:
-        case MAN_2:
-        case MAN_3:
-        case MAN_4:
-        case MAN_5:
-        case MAN_6:
-        case MAN_7:
-        case MAN_8:
-        case MAN_9:
-        case CHUN:
-            return "04";  // 赤
-        case PIN_1:
-        case PIN_2:
-        case PIN_3:
-        case PIN_4:
-        case PIN_5:
-        case PIN_6:
-        case PIN_7:
-        case PIN_8:
-        case PIN_9:
-            return "12";  // 青
-        case SOU_1:
-        case SOU_2:
-        case SOU_3:
-        case SOU_4:
-        case SOU_5:
-        case SOU_6:
-        case SOU_7:
-        case SOU_8:
-        case SOU_9:
-        case HATU:
-            return "03";  // 緑
-        case TON:
-        case NAN:
-        case SHA:
-        case PEI:
-            return "06";  // 紫
-        default:
-            return "01";  // 黒
+    private void appendMenTsu(final StringBuilder buf, final MenTsu menTsu) {
+        final List<JanPai> sourceList = menTsu.getSource();
+        if (menTsu.getMenTsuType() == MenTsuType.KAN_DARK) {
+            buf.append(JanPaiGlyph.getKanDark(sourceList.get(0)));
+        }
+        else {
+            JanPaiGlyph.append(buf, sourceList);
+        }
+    }
+    
+    /**
+     * 面前手牌を連結
+     * 
+     * @param buf 連結先。
+     * @param hand 手牌。
+     */
+    private void appendMenzenHand(final StringBuilder buf, final Hand hand) {
+        for (final JanPai pai : hand.getMenZenList()) {
+            JanPaiGlyph.append(buf, pai);
         }
     }
     
     
     
     /**
-     * 色付けフラグ
+     * 手牌や捨て牌を描画するバッファの初期容量
+     */
+    private static final int RENDER_CAPACITY = 256;
+    
+    
+    
+    /**
+     * 差分表示の状態
+     */
+    private final CompactViewState _compactViewState;
+    
+    /**
+     * 描画結果のキャッシュ
      */
-    private static final char COLOR_FLAG = 3;
+    private final RenderCache _renderCache;
     
 }
 
@@ -129,6 +129,11 @@ public enum AnnounceFlag {
      */
     RIVER_ALL,
     
+    /**
+     * 連続した打牌のまとめ (COMのツモ切り)
+     */
+    DISCARD_DIGEST,
+    
     /**
      * 裏ドラ
      */
@@ -149,6 +154,21 @@ public enum AnnounceFlag {
      */
     SCORE,
     
+    /**
+     * 差分表示に切り替え
+     */
+    COMPACT_ON,
+    
+    /**
+     * 全体表示に切り替え
+     */
+    COMPACT_OFF,
+    
+    /**
+     * 全体表示を要求 (差分表示中でも手牌全体を送る)
+     */
+    FULL_RENDER,
+    
     /**
      * 中国麻雀の実装済みの役
      */
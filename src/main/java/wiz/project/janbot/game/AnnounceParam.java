@@ -7,14 +7,16 @@
 
 package wiz.project.janbot.game;
 
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 
 
 
 /**
  * 実況パラメータ (immutable)
  */
-final class AnnounceParam {
+final class AnnounceParam implements JanEvent {
     
     // TODO 手抜き実装を直す
     
@@ -41,6 +43,25 @@ final class AnnounceParam {
         _flagSet = flagSet;
     }
     
+    /**
+     * コンストラクタ
+     */
+    public AnnounceParam(final Player player, final EnumSet<AnnounceFlag> flagSet, final List<DiscardRecord> discardList) {
+        _player = player;
+        _flagSet = flagSet;
+        _discardList = discardList;
+    }
+    
+    /**
+     * コンストラクタ
+     */
+    public AnnounceParam(final Player player, final EnumSet<AnnounceFlag> flagSet, final List<DiscardRecord> discardList, final MessagePriority priority) {
+        _player = player;
+        _flagSet = flagSet;
+        _discardList = discardList;
+        _priority = priority;
+    }
+    
     
     
     /**
@@ -50,6 +71,13 @@ final class AnnounceParam {
         return _flagSet.contains(source);
     }
     
+    /**
+     * まとめて実況する打牌のリストを取得
+     */
+    public List<DiscardRecord> getDiscardList() {
+        return _discardList;
+    }
+    
     /**
      * プレイヤーを取得
      */
@@ -57,6 +85,30 @@ final class AnnounceParam {
         return _player;
     }
     
+    /**
+     * 送信の優先度を取得
+     * 
+     * 指定が無ければ、ツモ後の手牌や鳴き確認など、プレイヤーの入力を待つ実況を優先する。
+     */
+    public MessagePriority getPriority() {
+        if (_priority != null) {
+            return _priority;
+        }
+        if (hasFlag(AnnounceFlag.PLAYER_TURN) ||
+            hasFlag(AnnounceFlag.CONFIRM_CALL) ||
+            hasFlag(AnnounceFlag.AFTER_CALL)) {
+            return MessagePriority.PROMPT;
+        }
+        return MessagePriority.BULK;
+    }
+    
+    /**
+     * イベントの種類を取得
+     */
+    public JanEventType<AnnounceParam> getType() {
+        return JanEventType.ANNOUNCE;
+    }
+    
     
     
     /**
@@ -69,5 +121,15 @@ final class AnnounceParam {
      */
     private EnumSet<AnnounceFlag> _flagSet = null;
     
+    /**
+     * まとめて実況する打牌のリスト
+     */
+    private List<DiscardRecord> _discardList = Collections.emptyList();
+    
+    /**
+     * 送信の優先度 (実況フラグから決める場合はnull)
+     */
+    private MessagePriority _priority = null;
+    
 }
 
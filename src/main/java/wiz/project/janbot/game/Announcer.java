@@ -7,13 +7,11 @@
 
 package wiz.project.janbot.game;
 
-import java.util.Observer;
-
 
 
 /**
  * ゲーム実況者
  */
-public interface Announcer extends Observer {
+public interface Announcer extends JanEventListener<AnnounceParam> {
 }
 
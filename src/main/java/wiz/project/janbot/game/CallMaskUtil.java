@@ -0,0 +1,116 @@
+/**
+ * CallMaskUtil.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 鳴き可能な牌の集合を算出するユーティリティ
+ * 
+ * 牌の集合は序数をビット位置とした34ビットのlongで表す。
+ * チーは手牌にある数牌の集合をずらしてANDを取るだけで求まるが、
+ * 種類をまたいだ順子にならないよう、基準の牌の位置でマスクする。
+ */
+final class CallMaskUtil {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private CallMaskUtil() {
+    }
+    
+    
+    
+    /**
+     * チー可能な牌の集合を取得
+     * 
+     * @param hand 手牌の枚数。
+     * @return チー可能な牌の集合。(序数のビット)
+     */
+    public static long getChiMask(final JanPaiCount hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        
+        final long mask = hand.getMask() & NUMBER_MASK;
+        final long lowerSide = (mask >>> 1) & (mask >>> 2) & RANK_1_7_MASK;
+        final long middle = (mask << 1) & (mask >>> 1) & RANK_2_8_MASK;
+        final long upperSide = (mask << 1) & (mask << 2) & RANK_3_9_MASK;
+        return lowerSide | middle | upperSide;
+    }
+    
+    /**
+     * 明槓可能な牌の集合を取得
+     * 
+     * @param hand 手牌の枚数。
+     * @return 明槓可能な牌の集合。(序数のビット)
+     */
+    public static long getKanLightMask(final JanPaiCount hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        return hand.getMask(3);
+    }
+    
+    /**
+     * ポン可能な牌の集合を取得
+     * 
+     * @param hand 手牌の枚数。
+     * @return ポン可能な牌の集合。(序数のビット)
+     */
+    public static long getPonMask(final JanPaiCount hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        return hand.getMask(2);
+    }
+    
+    
+    
+    /**
+     * 指定範囲の数牌の集合を生成
+     * 
+     * @param first 最初の数字。(1～9)
+     * @param last 最後の数字。(1～9)
+     * @return 数牌の集合。(萬子、筒子、索子の全て)
+     */
+    private static long createRankMask(final int first, final int last) {
+        final long suitMask = ((1L << (last - first + 1)) - 1) << (first - 1);
+        return suitMask | (suitMask << SUIT_SIZE) | (suitMask << (SUIT_SIZE * 2));
+    }
+    
+    
+    
+    /**
+     * 数牌1種類の牌の数
+     */
+    private static final int SUIT_SIZE = 9;
+    
+    /**
+     * 数牌の集合
+     */
+    private static final long NUMBER_MASK = (1L << JanPai.TON.ordinal()) - 1;
+    
+    /**
+     * 1～7の数牌の集合 (後ろ2枚で順子になる位置)
+     */
+    private static final long RANK_1_7_MASK = createRankMask(1, 7);
+    
+    /**
+     * 2～8の数牌の集合 (前後1枚ずつで順子になる位置)
+     */
+    private static final long RANK_2_8_MASK = createRankMask(2, 8);
+    
+    /**
+     * 3～9の数牌の集合 (前2枚で順子になる位置)
+     */
+    private static final long RANK_3_9_MASK = createRankMask(3, 9);
+    
+}
@@ -0,0 +1,101 @@
+/**
+ * CallWindowParam.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 鳴き確認の開始イベント (immutable)
+ */
+final class CallWindowParam implements JanEvent {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param discarder 打牌したプレイヤー。
+     * @param discard 捨て牌。
+     * @param callerList 鳴きを確認するプレイヤーのリスト。
+     */
+    public CallWindowParam(final Player discarder, final JanPai discard, final List<Player> callerList) {
+        if (discarder == null) {
+            throw new NullPointerException("Discarder is null.");
+        }
+        if (discard == null) {
+            throw new NullPointerException("Discard is null.");
+        }
+        if (callerList == null) {
+            throw new NullPointerException("Caller list is null.");
+        }
+        
+        _discarder = discarder;
+        _discard = discard;
+        _callerList = Collections.unmodifiableList(new ArrayList<>(callerList));
+    }
+    
+    
+    
+    /**
+     * 鳴きを確認するプレイヤーのリストを取得
+     * 
+     * @return 鳴きを確認するプレイヤーのリスト。(変更不可)
+     */
+    public List<Player> getCallerList() {
+        return _callerList;
+    }
+    
+    /**
+     * 捨て牌を取得
+     * 
+     * @return 捨て牌。
+     */
+    public JanPai getDiscard() {
+        return _discard;
+    }
+    
+    /**
+     * 打牌したプレイヤーを取得
+     * 
+     * @return 打牌したプレイヤー。
+     */
+    public Player getDiscarder() {
+        return _discarder;
+    }
+    
+    /**
+     * イベントの種類を取得
+     * 
+     * @return イベントの種類。
+     */
+    public JanEventType<CallWindowParam> getType() {
+        return JanEventType.CALL_WINDOW;
+    }
+    
+    
+    
+    /**
+     * 打牌したプレイヤー
+     */
+    private final Player _discarder;
+    
+    /**
+     * 捨て牌
+     */
+    private final JanPai _discard;
+    
+    /**
+     * 鳴きを確認するプレイヤーのリスト
+     */
+    private final List<Player> _callerList;
+    
+}
@@ -0,0 +1,333 @@
+/**
+ * ChmHandCheckTable.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.List;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 中国麻雀の和了判定
+ * 
+ * 一般形はHandCheckTableの参照テーブルで判定し、七対子、十三么九、全不靠、組合龍といった
+ * 特殊形は牌の集合 (序数のビット) の演算で判定する。(ChmHandCheckUtilと同じ範囲)
+ */
+final class ChmHandCheckTable {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private ChmHandCheckTable() {
+    }
+    
+    
+    
+    /**
+     * 和了牌リストを取得
+     * 
+     * 手牌に既に4枚ある牌は5枚目が存在しないため含めない。
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @return 和了牌リスト。
+     */
+    public static List<JanPai> getCompletableJanPaiList(final JanPaiCount hand) {
+        return HandCheckTable.convertMaskToList(getCompletableMask(hand));
+    }
+    
+    /**
+     * 和了形か
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @return 判定結果。
+     */
+    public static boolean isComplete(final JanPaiCount hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        
+        if (HandCheckTable.isRegularComplete(hand)) {
+            return true;
+        }
+        
+        final int total = hand.getTotal();
+        final long handMask = hand.getMask();
+        if (total == 14) {
+            if (isSevenPairs(hand) || isThirteenOrphans(handMask) || isHonorsAndKnitted(handMask)) {
+                return true;
+            }
+        }
+        if (total == 14 || total == 11) {
+            return isKnittedStraight(hand, handMask);
+        }
+        return false;
+    }
+    
+    
+    
+    /**
+     * 和了牌の集合を取得
+     * 
+     * 手牌に既に4枚ある牌は5枚目が存在しないため含めない。
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @return 和了牌の集合。(序数のビット)
+     */
+    static long getCompletableMask(final JanPaiCount hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        
+        final int total = hand.getTotal();
+        long mask = HandCheckTable.getRegularCompletableMask(hand);
+        if (total % 3 != 1) {
+            return mask;
+        }
+        
+        final long handMask = hand.getMask();
+        if (total == 13) {
+            mask |= getSevenPairsWaitMask(hand);
+            mask |= getThirteenOrphansWaitMask(handMask);
+            mask |= getHonorsAndKnittedWaitMask(handMask);
+        }
+        if (total >= 10) {
+            mask |= getKnittedStraightWaitMask(hand, handMask);
+        }
+        return mask & ~getFullMask(hand);
+    }
+    
+    
+    
+    /**
+     * 4枚ある牌の集合を取得
+     * 
+     * @param hand 手牌の枚数。
+     * @return 牌の集合。
+     */
+    private static long getFullMask(final JanPaiCount hand) {
+        long mask = 0L;
+        for (int ordinal = 0; ordinal < JanPaiCount.JANPAI_COUNT; ordinal++) {
+            if (hand.get(ordinal) >= JanPaiCount.MAX_COUNT) {
+                mask |= 1L << ordinal;
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * 全不靠の和了牌の集合を取得
+     * 
+     * @param handMask 手牌の集合。
+     * @return 和了牌の集合。
+     */
+    private static long getHonorsAndKnittedWaitMask(final long handMask) {
+        if (Long.bitCount(handMask) != 13) {
+            // 重複する牌がある
+            return 0L;
+        }
+        
+        long mask = 0L;
+        for (final long knittedMask : KNITTED_MASK_ARRAY) {
+            final long allowedMask = knittedMask | JI_MASK;
+            if ((handMask & ~allowedMask) == 0) {
+                mask |= allowedMask & ~handMask;
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * 組合龍の和了牌の集合を取得
+     * 
+     * @param hand 手牌の枚数。
+     * @param handMask 手牌の集合。
+     * @return 和了牌の集合。
+     */
+    private static long getKnittedStraightWaitMask(final JanPaiCount hand, final long handMask) {
+        long mask = 0L;
+        for (final long knittedMask : KNITTED_MASK_ARRAY) {
+            final long missingMask = knittedMask & ~handMask;
+            if (missingMask == 0) {
+                // 組合龍が揃っているので、残りの牌の待ち
+                mask |= HandCheckTable.getRegularCompletableMask(removeMask(hand, knittedMask));
+            }
+            else if (Long.bitCount(missingMask) == 1) {
+                // 組合龍の1枚待ち
+                if (HandCheckTable.isRegularComplete(removeMask(hand, knittedMask & ~missingMask))) {
+                    mask |= missingMask;
+                }
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * 七対子の和了牌の集合を取得
+     * 
+     * 中国麻雀では同じ牌4枚を2組の対子とみなす。
+     * 
+     * @param hand 手牌の枚数。
+     * @return 和了牌の集合。
+     */
+    private static long getSevenPairsWaitMask(final JanPaiCount hand) {
+        long oddMask = 0L;
+        for (int ordinal = 0; ordinal < JanPaiCount.JANPAI_COUNT; ordinal++) {
+            if ((hand.get(ordinal) & 1) != 0) {
+                oddMask |= 1L << ordinal;
+            }
+        }
+        return Long.bitCount(oddMask) == 1 ? oddMask : 0L;
+    }
+    
+    /**
+     * 十三么九の和了牌の集合を取得
+     * 
+     * @param handMask 手牌の集合。
+     * @return 和了牌の集合。
+     */
+    private static long getThirteenOrphansWaitMask(final long handMask) {
+        if ((handMask & ~YAO_MASK) != 0) {
+            return 0L;
+        }
+        
+        final long missingMask = YAO_MASK & ~handMask;
+        if (missingMask == 0) {
+            // 13面待ち
+            return YAO_MASK;
+        }
+        return Long.bitCount(missingMask) == 1 ? missingMask : 0L;
+    }
+    
+    /**
+     * 全不靠か
+     * 
+     * @param handMask 手牌の集合。
+     * @return 判定結果。
+     */
+    private static boolean isHonorsAndKnitted(final long handMask) {
+        if (Long.bitCount(handMask) != 14) {
+            return false;
+        }
+        for (final long knittedMask : KNITTED_MASK_ARRAY) {
+            if ((handMask & ~(knittedMask | JI_MASK)) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 組合龍か
+     * 
+     * @param hand 手牌の枚数。
+     * @param handMask 手牌の集合。
+     * @return 判定結果。
+     */
+    private static boolean isKnittedStraight(final JanPaiCount hand, final long handMask) {
+        for (final long knittedMask : KNITTED_MASK_ARRAY) {
+            if ((handMask & knittedMask) == knittedMask) {
+                if (HandCheckTable.isRegularComplete(removeMask(hand, knittedMask))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 七対子か
+     * 
+     * @param hand 手牌の枚数。
+     * @return 判定結果。
+     */
+    private static boolean isSevenPairs(final JanPaiCount hand) {
+        for (int ordinal = 0; ordinal < JanPaiCount.JANPAI_COUNT; ordinal++) {
+            if ((hand.get(ordinal) & 1) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 十三么九か
+     * 
+     * @param handMask 手牌の集合。
+     * @return 判定結果。
+     */
+    private static boolean isThirteenOrphans(final long handMask) {
+        // 14枚で13種全てが揃っていれば、残り1枚は必ず雀頭になる
+        return handMask == YAO_MASK;
+    }
+    
+    /**
+     * 牌の集合を1枚ずつ取り除いた手牌を取得
+     * 
+     * @param hand 手牌の枚数。
+     * @param mask 取り除く牌の集合。
+     * @return 取り除いた後の手牌の枚数。
+     */
+    private static JanPaiCount removeMask(final JanPaiCount hand, final long mask) {
+        final JanPaiCount result = hand.clone();
+        long rest = mask;
+        while (rest != 0) {
+            result.remove(VALUES[Long.numberOfTrailingZeros(rest)]);
+            rest &= rest - 1;
+        }
+        return result;
+    }
+    
+    
+    
+    /**
+     * 全ての牌 (序数順)
+     */
+    private static final JanPai[] VALUES = JanPai.values();
+    
+    /**
+     * 字牌の集合
+     */
+    private static final long JI_MASK = ((1L << JanPaiCount.JANPAI_COUNT) - 1) & ~((1L << JanPai.TON.ordinal()) - 1);
+    
+    /**
+     * 么九牌の集合
+     */
+    private static final long YAO_MASK;
+    
+    /**
+     * 組合龍の集合 (147/258/369 と萬子/筒子/索子の組み合わせ6通り)
+     */
+    private static final long[] KNITTED_MASK_ARRAY;
+    
+    static {
+        long yaoMask = JI_MASK;
+        for (int suit = 0; suit < 3; suit++) {
+            yaoMask |= 1L << (suit * 9);
+            yaoMask |= 1L << (suit * 9 + 8);
+        }
+        YAO_MASK = yaoMask;
+        
+        final int[][] permutationArray = {
+            { 0, 1, 2 }, { 0, 2, 1 }, { 1, 0, 2 }, { 1, 2, 0 }, { 2, 0, 1 }, { 2, 1, 0 },
+        };
+        KNITTED_MASK_ARRAY = new long[permutationArray.length];
+        for (int i = 0; i < permutationArray.length; i++) {
+            long mask = 0L;
+            for (int suit = 0; suit < 3; suit++) {
+                // suit の種類に 1+offset, 4+offset, 7+offset を割り当てる
+                final int offset = permutationArray[i][suit];
+                for (int k = 0; k < 3; k++) {
+                    mask |= 1L << (suit * 9 + offset + k * 3);
+                }
+            }
+            KNITTED_MASK_ARRAY[i] = mask;
+        }
+    }
+    
+}
@@ -0,0 +1,230 @@
+/**
+ * CompactViewState.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * 差分表示の状態
+ * 
+ * 差分表示を選んだプレイヤーごとに、最後に全体を送った手牌と送信済みの行の通し番号を保持する。
+ * 卓の実況者どうしで共有し、実況の配信スレッドからのみ読み書きする。(通し番号のカウンタを除き同期しない)
+ */
+final class CompactViewState {
+    
+    /**
+     * コンストラクタ
+     */
+    public CompactViewState() {
+        this(DEFAULT_FULL_INTERVAL);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param fullInterval 手牌の全体を送り直す間隔。(手牌表示の回数)
+     */
+    public CompactViewState(final int fullInterval) {
+        if (fullInterval <= 0) {
+            throw new IllegalArgumentException("Invalid full render interval : " + fullInterval);
+        }
+        _fullInterval = fullInterval;
+    }
+    
+    
+    
+    /**
+     * 差分表示を選んでいるか
+     * 
+     * @param player プレイヤー。
+     * @return 判定結果。
+     */
+    public boolean isCompact(final Player player) {
+        return _entryMap.containsKey(player.getId());
+    }
+    
+    /**
+     * 行の通し番号のカウンタを取得
+     * 
+     * 番号は送信時にOutboundDispatcherが進める。
+     * 
+     * @param player プレイヤー。
+     * @return 行の通し番号のカウンタ。(差分表示でない場合はnull)
+     */
+    public AtomicInteger getLineCounter(final Player player) {
+        final Entry entry = _entryMap.get(player.getId());
+        return entry != null ? entry._lineCounter : null;
+    }
+    
+    /**
+     * 手牌の基準を破棄し、次の手牌表示を全体表示にする
+     */
+    public void resetBase() {
+        for (final Entry entry : _entryMap.values()) {
+            entry._baseHand = null;
+        }
+    }
+    
+    /**
+     * 手牌の基準を破棄し、次の手牌表示を全体表示にする
+     * 
+     * @param player プレイヤー。
+     */
+    public void resetBase(final Player player) {
+        final Entry entry = _entryMap.get(player.getId());
+        if (entry != null) {
+            entry._baseHand = null;
+        }
+    }
+    
+    /**
+     * 差分表示を選択
+     * 
+     * @param player プレイヤー。
+     * @param isCompact 差分表示にするか。
+     */
+    public void setCompact(final Player player, final boolean isCompact) {
+        if (isCompact) {
+            if (!_entryMap.containsKey(player.getId())) {
+                _entryMap.put(player.getId(), new Entry());
+            }
+        }
+        else {
+            _entryMap.remove(player.getId());
+        }
+    }
+    
+    /**
+     * 手牌の基準を取得
+     * 
+     * 全体表示が必要な場合 (基準が無い、または送り直す間隔に達した) はnullを返す。
+     * 
+     * @param player プレイヤー。
+     * @return 手牌の基準。
+     */
+    public HandBase takeBase(final Player player) {
+        final Entry entry = _entryMap.get(player.getId());
+        if (entry._baseHand == null || ++entry._deltaCount >= _fullInterval) {
+            return null;
+        }
+        return entry._baseHand;
+    }
+    
+    /**
+     * 手牌の基準を更新
+     * 
+     * @param player プレイヤー。
+     * @param base 手牌の基準。
+     * @param isFull 全体を送った場合はtrue。
+     */
+    public void updateBase(final Player player, final HandBase base, final boolean isFull) {
+        final Entry entry = _entryMap.get(player.getId());
+        entry._baseHand = base;
+        if (isFull) {
+            entry._deltaCount = 0;
+        }
+    }
+    
+    
+    
+    /**
+     * 差分の基準となる手牌 (immutable)
+     */
+    static final class HandBase {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param count 門前の牌とツモ牌の枚数。
+         * @param fixedMenTsuCount 副露数。
+         */
+        public HandBase(final JanPaiCount count, final int fixedMenTsuCount) {
+            _count = count.clone();
+            _fixedMenTsuCount = fixedMenTsuCount;
+        }
+        
+        
+        
+        /**
+         * 門前の牌とツモ牌の枚数を取得
+         * 
+         * @return 門前の牌とツモ牌の枚数。
+         */
+        public JanPaiCount getCount() {
+            return _count.clone();
+        }
+        
+        /**
+         * 副露数を取得
+         * 
+         * @return 副露数。
+         */
+        public int getFixedMenTsuCount() {
+            return _fixedMenTsuCount;
+        }
+        
+        
+        
+        /**
+         * 門前の牌とツモ牌の枚数
+         */
+        private final JanPaiCount _count;
+        
+        /**
+         * 副露数
+         */
+        private final int _fixedMenTsuCount;
+        
+    }
+    
+    /**
+     * プレイヤーごとの状態
+     */
+    private static final class Entry {
+        
+        /**
+         * 送信済みの行の通し番号 (送信スレッドから進める)
+         */
+        private final AtomicInteger _lineCounter = new AtomicInteger();
+        
+        /**
+         * 最後に全体を送ってから差分を送った回数
+         */
+        private int _deltaCount = 0;
+        
+        /**
+         * 差分の基準となる手牌 (全体表示が必要な場合はnull)
+         */
+        private HandBase _baseHand = null;
+        
+    }
+    
+    
+    
+    /**
+     * 手牌の全体を送り直す間隔の既定値 (手牌表示の回数)
+     */
+    private static final int DEFAULT_FULL_INTERVAL = 6;
+    
+    
+    
+    /**
+     * 手牌の全体を送り直す間隔
+     */
+    private final int _fullInterval;
+    
+    /**
+     * プレイヤーIDごとの状態 (差分表示を選んだプレイヤーのみ)
+     */
+    private final Map<Integer, Entry> _entryMap = new HashMap<>();
+    
+}
@@ -0,0 +1,69 @@
+/**
+ * DiscardRecord.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 打牌の記録 (immutable)
+ */
+final class DiscardRecord {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param discarder 打牌したプレイヤー。
+     * @param discard 捨て牌。
+     */
+    public DiscardRecord(final Player discarder, final JanPai discard) {
+        if (discarder == null) {
+            throw new NullPointerException("Discarder is null.");
+        }
+        if (discard == null) {
+            throw new NullPointerException("Discard is null.");
+        }
+        
+        _discarder = discarder;
+        _discard = discard;
+    }
+    
+    
+    
+    /**
+     * 捨て牌を取得
+     * 
+     * @return 捨て牌。
+     */
+    public JanPai getDiscard() {
+        return _discard;
+    }
+    
+    /**
+     * 打牌したプレイヤーを取得
+     * 
+     * @return 打牌したプレイヤー。
+     */
+    public Player getDiscarder() {
+        return _discarder;
+    }
+    
+    
+    
+    /**
+     * 打牌したプレイヤー
+     */
+    private final Player _discarder;
+    
+    /**
+     * 捨て牌
+     */
+    private final JanPai _discard;
+    
+}
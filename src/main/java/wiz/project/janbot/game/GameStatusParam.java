@@ -12,7 +12,7 @@ package wiz.project.janbot.game;
 /**
  * ゲーム状態通知パラメータ
  */
-final class GameStatusParam {
+final class GameStatusParam implements JanEvent {
     
     // TODO 手抜き実装を直す
     
@@ -47,6 +47,13 @@ final class GameStatusParam {
         return _status;
     }
     
+    /**
+     * イベントの種類を取得
+     */
+    public JanEventType<GameStatusParam> getType() {
+        return JanEventType.STATUS;
+    }
+    
     
     
     /**
@@ -0,0 +1,940 @@
+/**
+ * GameTable.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import wiz.project.ircbot.IRCBOT;
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.janbot.game.exception.InvalidInputException;
+import wiz.project.janbot.game.exception.InvalidStateException;
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * 卓
+ * 
+ * 1卓分のゲーム状態を保持する。卓同士は状態を共有しない。
+ * 
+ * 卓はアクターとして動作する。コマンドはロックフリーのキューに積まれ、
+ * 卓ごとに高々1つの実行タスクが順番に処理するため、JanInfoとコントローラは
+ * 常に単一スレッドから操作される。(ロック不要)
+ */
+final class GameTable {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param id 卓ID。
+     */
+    public GameTable(final TableId id) {
+        if (id == null) {
+            throw new NullPointerException("Table ID is null.");
+        }
+        
+        _id = id;
+    }
+    
+    
+    
+    /**
+     * 内部状態を初期化
+     */
+    public void clear() {
+        try {
+            execute(new TableTask() {
+                public void run() {
+                    _playerNameSet.clear();
+                    _callBuf.clear();
+                    _janInfo = new JanInfo();
+                    _status = GameStatus.CLOSE;
+                }
+            });
+        }
+        catch (final JanException e) {
+            // 初期化処理は例外を投げない
+            throw new InternalError();
+        }
+    }
+    
+    /**
+     * 卓IDを取得
+     * 
+     * @return 卓ID。
+     */
+    public TableId getId() {
+        return _id;
+    }
+    
+    /**
+     * 参加プレイヤー名リストを取得
+     * 
+     * @return 参加プレイヤー名リスト。
+     */
+    public List<String> getPlayerNameList() {
+        return new ArrayList<>(_playerNameSet);
+    }
+    
+    /**
+     * ゲームの状態を取得
+     * 
+     * @return ゲームの状態。
+     */
+    public GameStatus getStatus() {
+        return _status;
+    }
+    
+    /**
+     * ツモ和了処理
+     * 
+     * @param playerName プレイヤー名。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public void onCompleteTsumo(final String playerName) throws JanException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        
+        execute(new TableTask() {
+            public void run() throws JanException {
+                if (!_status.isIdleDiscard()) {
+                    // 入力待機状態ではない場合、コマンド実行を無視
+                    return;
+                }
+                if (!playerName.equals(_janInfo.getActivePlayer().getName())) {
+                    // アクティブ状態ではない場合、コマンド実行を無視
+                    return;
+                }
+                
+                final JanController controller = createJanController();
+                controller.completeTsumo(_janInfo);
+            }
+        });
+    }
+    
+    /**
+     * 鳴き処理 (パス)
+     * 
+     * @param playerName プレイヤー名。
+     * @throws JanException ゲーム処理例外。
+     */
+    public void onCall(final String playerName) throws JanException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        if (!_playerNameSet.contains(playerName)) {
+            throw new IllegalArgumentException("Player is not entry : " + playerName);
+        }
+        
+        execute(new TableTask() {
+            public void run() throws JanException {
+                if (!_status.isIdleCall()) {
+                    // 鳴き待機状態ではない場合、コマンド実行を無視
+                    return;
+                }
+                
+                onCall(new CallInfo(playerName));
+            }
+        });
+    }
+    
+    /**
+     * 鳴き処理 (牌指定無し)
+     * 
+     * @param playerName プレイヤー名。
+     * @param type 鳴きの種類。
+     * @throws JanException ゲーム処理例外。
+     */
+    public void onCall(final String playerName, final CallType type) throws JanException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        if (!_playerNameSet.contains(playerName)) {
+            throw new IllegalArgumentException("Player is not entry : " + playerName);
+        }
+        if (type == null) {
+            throw new NullPointerException("Call type is null.");
+        }
+        
+        execute(new TableTask() {
+            public void run() throws JanException {
+                if (!_status.isIdleCall()) {
+                    // 鳴き待機状態ではない場合、コマンド実行を無視
+                    return;
+                }
+                
+                onCall(new CallInfo(playerName, type));
+            }
+        });
+    }
+    
+    /**
+     * 鳴き処理 (牌指定あり)
+     * 
+     * @param playerName プレイヤー名。
+     * @param type 鳴きの種類。
+     * @param target 対象牌。
+     * @throws JanException ゲーム処理例外。
+     */
+    public void onCall(final String playerName, final CallType type, final String target) throws JanException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        if (!_playerNameSet.contains(playerName)) {
+            throw new IllegalArgumentException("Player is not entry : " + playerName);
+        }
+        if (type == null) {
+            throw new NullPointerException("Call type is null.");
+        }
+        if (target == null) {
+            throw new NullPointerException("Target janpai is null.");
+        }
+        if (target.isEmpty()) {
+            throw new IllegalArgumentException("Target janpai is empty.");
+        }
+        
+        execute(new TableTask() {
+            public void run() throws JanException {
+                switch (_status) {
+                case IDLE_DISCARD:
+                    // 暗槓/加槓
+                    {
+                        final JanController controller = createJanController();
+                        controller.kanHand(_janInfo, JanPaiParser.parse(target));
+                    }
+                    break;
+                case IDLE_CALL:
+                    onCall(new CallInfo(playerName, type, JanPaiParser.parse(target)));
+                    break;
+                default:
+                    break;
+                }
+            }
+        });
+    }
+    
+    /**
+     * デバッグ情報出力処理
+     */
+    public void onDebugInfo(final String playerName) {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        
+        try {
+            execute(new TableTask() {
+                public void run() {
+                    final List<String> messageList = Arrays.asList("status : " + _status,
+                                                                   "your callable list : " + _janInfo.getCallableList(playerName),
+                                                                   "callable players : " + _janInfo.getCallablePlayerNameList(),
+                                                                   "call buffer : " + _callBuf);
+                    OutboundDispatcher.getInstance().talk(playerName, messageList, MessagePriority.PROMPT);
+                }
+            });
+        }
+        catch (final JanException e) {
+            // デバッグ情報出力は例外を投げない
+            throw new InternalError();
+        }
+    }
+    
+    /**
+     * 表示形式の切り替え処理
+     * 
+     * @param playerName プレイヤー名。
+     * @param isCompact 差分表示にするか。
+     * @throws JanException ゲーム処理例外。
+     */
+    public void onCompactMode(final String playerName, final boolean isCompact) throws JanException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        if (!_playerNameSet.contains(playerName)) {
+            throw new IllegalArgumentException("Player is not entry : " + playerName);
+        }
+        
+        execute(new TableTask() {
+            public void run() {
+                if (!_janInfo.isValidPlayer(playerName)) {
+                    // 開始前は無視
+                    return;
+                }
+                
+                final AnnounceFlag flag = isCompact ? AnnounceFlag.COMPACT_ON : AnnounceFlag.COMPACT_OFF;
+                _janInfo.publish(new AnnounceParam(_janInfo.getPlayer(playerName), flag));
+            }
+        });
+    }
+    
+    /**
+     * 打牌処理 (ツモ切り)
+     * 
+     * @param playerName プレイヤー名。
+     * @throws JanException ゲーム処理例外。
+     */
+    public void onDiscard(final String playerName) throws JanException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        if (!_playerNameSet.contains(playerName)) {
+            throw new IllegalArgumentException("Player is not entry : " + playerName);
+        }
+        
+        execute(new TableTask() {
+            public void run() {
+                if (!_status.isIdleDiscard()) {
+                    // 入力待機状態ではない場合、コマンド実行を無視
+                    return;
+                }
+                if (!playerName.equals(_janInfo.getActivePlayer().getName())) {
+                    // アクティブ状態ではない場合、コマンド実行を無視
+                    return;
+                }
+                
+                final JanController controller = createJanController();
+                controller.discard(_janInfo);
+            }
+        });
+    }
+    
+    /**
+     * 打牌処理 (手出し)
+     * 
+     * @param playerName プレイヤー名。
+     * @param target 牌の指定。
+     * @throws JanException ゲーム処理例外。
+     */
+    public void onDiscard(final String playerName, final String target) throws JanException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        if (target == null) {
+            throw new NullPointerException("Discard target is null.");
+        }
+        if (target.isEmpty()) {
+            throw new IllegalArgumentException("Discard target is empty.");
+        }
+        if (!_playerNameSet.contains(playerName)) {
+            throw new IllegalArgumentException("Player is not entry : " + playerName);
+        }
+        
+        execute(new TableTask() {
+            public void run() throws JanException {
+                final boolean afterCall = _status.isAfterCall();
+                if (!_status.isIdleDiscard() && !afterCall) {
+                    // 入力待機状態ではない場合、コマンド実行を無視
+                    return;
+                }
+                if (!playerName.equals(_janInfo.getActivePlayer().getName())) {
+                    // アクティブ状態ではない場合、コマンド実行を無視
+                    return;
+                }
+                
+                if (afterCall) {
+                    _status = GameStatus.IDLE_DISCARD;
+                }
+                try {
+                    final JanController controller = createJanController();
+                    final JanPai pai = JanPaiParser.parse(target);
+                    controller.discard(_janInfo, pai, afterCall);
+                }
+                catch (final JanException e) {
+                    // 入力情報に不備があった場合、鳴き直後状態を継続
+                    if (afterCall) {
+                        _status = GameStatus.AFTER_CALL;
+                    }
+                    throw e;
+                }
+            }
+        });
+    }
+    
+    /**
+     * ゲーム終了処理
+     */
+    public void onEnd() {
+        if (_status.isClose()) {
+            return;
+        }
+        
+        // TODO プレイヤーに確認後に消したい
+        clear();
+        // 局の結果など、送信待ちの実況の後に出す
+        OutboundDispatcher.getInstance().println("--- 卓" + _id.getNumber() + " 終了 ---", MessagePriority.BULK);
+    }
+    
+    /**
+     * 参加プレイヤー登録処理
+     * 
+     * @param playerNameList プレイヤー名のリスト。
+     * @throws JanException ゲーム処理例外。
+     */
+    public void onEntry(final List<String> playerNameList) throws JanException {
+        if (playerNameList == null) {
+            throw new NullPointerException("Player name list is null.");
+        }
+        if (playerNameList.isEmpty()) {
+            throw new IllegalArgumentException("Player name list is empty.");
+        }
+        if (playerNameList.size() == 1) {
+            throw new IllegalArgumentException("ぼっち");
+        }
+        
+        execute(new TableTask() {
+            public void run() throws JanException {
+                if (_status.isClose()) {
+                    throw new InvalidStateException("--- Not started ---");
+                }
+                if (!_status.isEntryable()) {
+                    throw new InvalidStateException("--- Already started ---");
+                }
+                
+                for (final String playerName : playerNameList) {
+                    if (!IRCBOT.getInstance().exists(playerName)) {
+                        // 存在しないプレイヤーが指定された
+                        throw new InvalidInputException("Player is not found : " + playerName);
+                    }
+                }
+                _playerNameSet.addAll(playerNameList);
+                _status = GameStatus.IDLE_DISCARD;
+                
+                final JanEventBus eventBus = _janInfo.getEventBus();
+                eventBus.subscribe(JanEventType.STATUS, new JanEventListener<GameStatusParam>() {
+                    public void onEvent(final JanInfo info, final GameStatusParam param) {
+                        onStatusChanged(param.getStatus());
+                    }
+                });
+                eventBus.subscribe(JanEventType.CALL_WINDOW, new JanEventListener<CallWindowParam>() {
+                    public void onEvent(final JanInfo info, final CallWindowParam param) {
+                        onStatusChanged(GameStatus.IDLE_CALL);
+                    }
+                });
+                
+                // IRCへの出力はイベントループの外で行う
+                final CompactViewState compactViewState = new CompactViewState();
+                final RenderCache renderCache = new RenderCache();
+                eventBus.subscribeAsync(JanEventType.ANNOUNCE, new OpenAnnouncer(compactViewState, renderCache));
+                eventBus.subscribeAsync(JanEventType.ANNOUNCE, new TalkAnnouncer(compactViewState, renderCache));
+                
+                final JanController controller = createJanController();
+                controller.startGame(_janInfo, playerNameList);
+                
+                controller.startRound(_janInfo);
+            }
+        });
+    }
+    
+    /**
+     * 全体表示の要求処理
+     * 
+     * 差分表示中でも、場と手牌の全体を送り直す。
+     * 
+     * @param playerName プレイヤー名。
+     * @throws JanException ゲーム処理例外。
+     */
+    public void onFullRender(final String playerName) throws JanException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        if (!_playerNameSet.contains(playerName)) {
+            throw new IllegalArgumentException("Player is not entry : " + playerName);
+        }
+        
+        execute(new TableTask() {
+            public void run() {
+                if (!_janInfo.isValidPlayer(playerName)) {
+                    // 開始前は無視
+                    return;
+                }
+                
+                final EnumSet<AnnounceFlag> flagSet = EnumSet.of(AnnounceFlag.FULL_RENDER, AnnounceFlag.FIELD_TALK, AnnounceFlag.HAND_TALK);
+                if (_status.isIdleDiscard() && _janInfo.isActivePlayer(playerName)) {
+                    // ツモ牌も含めて表示
+                    flagSet.add(AnnounceFlag.ACTIVE_TSUMO);
+                }
+                _janInfo.publish(new AnnounceParam(_janInfo.getPlayer(playerName), flagSet));
+            }
+        });
+    }
+    
+    /**
+     * ヘルプ表示処理 (トーク)
+     * 
+     * @param playerName プレイヤー名。
+     */
+    public void onHelpTalk(final String playerName) {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        if (!_playerNameSet.contains(playerName)) {
+            throw new IllegalArgumentException("Player is not entry : " + playerName);
+        }
+        
+        // TODO 内部状態によって表示内容を変えたい
+        final List<String> messageList = Arrays.asList("適当にどうぞ");
+        OutboundDispatcher.getInstance().talk(playerName, messageList, MessagePriority.PROMPT);
+    }
+    
+    /**
+     * ニックネーム変更処理
+     * 
+     * 席やプレイヤーIDは変えずに名前だけを差し替えるため、進行中のゲームには影響しない。
+     * 
+     * @param oldName 変更前のプレイヤー名。
+     * @param newName 変更後のプレイヤー名。
+     * @return 変更したか。(参加していない場合はfalse)
+     * @throws JanException ゲーム処理例外。
+     */
+    public boolean onNickChange(final String oldName, final String newName) throws JanException {
+        if (oldName == null) {
+            throw new NullPointerException("Old player name is null.");
+        }
+        if (newName == null) {
+            throw new NullPointerException("New player name is null.");
+        }
+        if (!_playerNameSet.contains(oldName)) {
+            return false;
+        }
+        
+        execute(new TableTask() {
+            public void run() {
+                if (!_playerNameSet.contains(oldName)) {
+                    return;
+                }
+                _janInfo.renamePlayer(oldName, newName);
+                _playerNameSet.remove(oldName);
+                _playerNameSet.add(newName);
+                
+                // 入力済みの鳴き情報も新しい名前で置き換える
+                for (final Map.Entry<Wind, CallInfo> entry : _callBuf.entrySet()) {
+                    final CallInfo source = entry.getValue();
+                    if (source.getPlayerName().equals(oldName)) {
+                        entry.setValue(new CallInfo(newName, source.getCallType(), source.getTargetPai()));
+                    }
+                }
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * ゲーム開始処理
+     * 
+     * @throws JanException ゲーム処理例外。
+     */
+    public void onStart() throws JanException {
+        execute(new TableTask() {
+            public void run() throws JanException {
+                if (!_status.isClose()) {
+                    throw new InvalidStateException("--- Already started ---");
+                }
+                _status = GameStatus.PLAYER_ENTRY;
+            }
+        });
+        
+        final List<String> messageList = Arrays.asList("--- 卓" + _id.getNumber() + " 参加プレイヤーを登録してください ---",
+                                                       "----- IRCで現在使用しているニックネームで登録すること",
+                                                       "----- 区切り文字には半角スペースを使用すること",
+                                                       "ex.) jan entry  Mr.A  Mr.B  Mr.C  Mr.D");
+        OutboundDispatcher.getInstance().println(messageList, MessagePriority.PROMPT);
+    }
+    
+    
+    
+    /**
+     * 麻雀コントローラを生成
+     * 
+     * @return 麻雀コントローラ。
+     */
+    private JanController createJanController() {
+        return new VSChmJanController();
+    }
+    
+    /**
+     * マップをディープコピー
+     * 
+     * @param source 複製元。
+     * @return 複製結果。
+     */
+    private <S, T> Map<S, T> deepCopyMap(final Map<S, T> source) {
+        return new HashMap<>(source);
+    }
+    
+    /**
+     * ゲームの状態変化時の処理
+     * 
+     * JanInfoからの通知は卓のイベントループ上でのみ発生する。
+     * 
+     * @param status 変化後のゲームの状態。
+     */
+    private void onStatusChanged(final GameStatus status) {
+        _status = status;
+        
+        // 鳴き確認バッファをクリア
+        _callBuf.clear();
+        
+        // TODO 状態が END_ROUND になったら次局開始操作が必要
+    }
+    
+    /**
+     * イベントループのキューを処理
+     */
+    private void drain() {
+        _loopThread = Thread.currentThread();
+        try {
+            for (int i = 0; i < MAX_DRAIN_COUNT; i++) {
+                final Runnable task = _taskQueue.poll();
+                if (task == null) {
+                    break;
+                }
+                task.run();
+            }
+        }
+        finally {
+            _loopThread = null;
+            _scheduled.set(false);
+        }
+        
+        if (!_taskQueue.isEmpty()) {
+            // 処理中に積まれたタスク、または処理上限を超えたタスクを再スケジュール
+            schedule();
+        }
+    }
+    
+    /**
+     * イベントループ上で処理を実行し、完了を待つ
+     * 
+     * @param task 処理。
+     * @throws JanException ゲーム処理例外。
+     */
+    private void execute(final TableTask task) throws JanException {
+        if (Thread.currentThread() == _loopThread) {
+            // イベントループ上からの呼び出しはそのまま実行
+            task.run();
+            return;
+        }
+        
+        final FutureTask<Void> future = new FutureTask<>(new Callable<Void>() {
+            public Void call() throws JanException {
+                task.run();
+                return null;
+            }
+        });
+        _taskQueue.offer(future);
+        schedule();
+        
+        try {
+            future.get();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvalidStateException("Interrupted.", e);
+        }
+        catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof JanException) {
+                throw (JanException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new JanException(cause);
+        }
+    }
+    
+    /**
+     * 優先度が最も高い鳴き情報を取得
+     * 
+     * @return 優先度が最も高い鳴き情報。(全員が鳴き放棄した場合はnullを返す)
+     */
+    private CallInfo getHighPriorityCall() {
+        CallInfo highest = null;
+        Wind highestWind = null;
+        for (final Map.Entry<Wind, CallInfo> entry : _callBuf.entrySet()) {
+            final CallInfo target = entry.getValue();
+            final Wind targetWind = entry.getKey();
+            if (highest == null) {
+                highest = target;
+                highestWind = targetWind;
+                continue;
+            }
+            
+            // 鳴き放棄の確認
+            final CallType targetCallType = target.getCallType();
+            final CallType highestCallType = highest.getCallType();
+            if (targetCallType == null) {
+                continue;
+            }
+            if (highestCallType == null) {
+                highest = target;
+                highestWind = targetWind;
+                continue;
+            }
+            
+            // 鳴きタイプの優先度確認
+            final int targetPriority =targetCallType.getPriority();
+            final int highestPriority = highestCallType.getPriority();
+            if (targetPriority < highestPriority) {
+                continue;
+            }
+            if (targetPriority > highestPriority) {
+                highest = target;
+                highestWind = targetWind;
+                continue;
+            }
+            
+            // 頭ハネの優先度確認
+            // TODO 雑すぎるからそのうち直したい...
+            final Wind activeWind = _janInfo.getActiveWind();
+            
+            int targetCount = 0;
+            int highestCount = 0;
+            int count = 3;
+            for (Wind wind = activeWind.getNext(); wind != activeWind; wind = wind.getNext()) {
+                if (wind == targetWind) {
+                    targetCount = count;
+                }
+                else if (wind == highestWind) {
+                    highestCount = count;
+                }
+                count--;
+            }
+            
+            if (targetCount > highestCount) {
+                highest = target;
+                highestWind = targetWind;
+            }
+        }
+        
+        if (highest != null && highest.getCallType() == null) {
+            // CallTypeが null であるオブジェクトを返さないための処置
+            return null;
+        }
+        return highest;
+    }
+    
+    /**
+     * 鳴き処理
+     * 
+     * @param info 鳴き情報。
+     * @throws JanException ゲーム処理例外。
+     */
+    private void onCall(final CallInfo info) throws JanException {
+        final String playerName = info.getPlayerName();
+        if (!_janInfo.isValidPlayer(playerName)) {
+            // 席に着いていないプレイヤーの入力は無視
+            return;
+        }
+        final Wind wind = _janInfo.getWind(playerName);
+        if (_callBuf.containsKey(wind)) {
+            // 一度入力した内容は覆せない
+            return;
+        }
+        
+        final CallType type = info.getCallType();
+        if (type != null && !_janInfo.getCallableList(wind).contains(type)) {
+            // パス(null)ではなく、鳴き可能リストにも入っていない
+            OutboundDispatcher.getInstance().talk(playerName, "(　´∀｀) ＜ チョンボ", MessagePriority.PROMPT);
+            return;
+        }
+        
+        _callBuf.put(wind, info);
+        
+        for (final Wind target : Wind.values()) {
+            if (!_callBuf.containsKey(target) && !_janInfo.getCallableList(target).isEmpty()) {
+                // 全員の入力が終わるまでは先の処理に進まない
+                OutboundDispatcher.getInstance().println("(　´∀｀) ＜ 待ってます", MessagePriority.PROMPT);
+                return;
+            }
+        }
+        
+        // 全員の入力が終わったので、最も優先度の高い処理を判定
+        final CallInfo targetCallInfo = getHighPriorityCall();
+        
+        // 鳴き待機状態を解除
+        final Map<Wind, CallInfo> callBufBackup = deepCopyMap(_callBuf);
+        _status = GameStatus.IDLE_DISCARD;
+        _callBuf.clear();
+        
+        final JanController controller = createJanController();
+        if (targetCallInfo == null) {
+            // 全員が鳴き放棄
+            controller.next(_janInfo);
+            return;
+        }
+        
+        switch (targetCallInfo.getCallType()) {
+        case RON:
+            controller.completeRon(_janInfo, targetCallInfo);
+            break;
+        case PON:
+            OutboundDispatcher.getInstance().println("(　´∀｀) ＜ ポン", MessagePriority.PROMPT);
+            controller.pon(_janInfo, targetCallInfo);
+            break;
+        case KAN_LIGHT:
+            OutboundDispatcher.getInstance().println("(　´∀｀) ＜ カン", MessagePriority.PROMPT);
+            controller.kanCall(_janInfo, targetCallInfo);
+            break;
+        case CHI:
+            OutboundDispatcher.getInstance().println("(　´∀｀) ＜ チー", MessagePriority.PROMPT);
+            try {
+                controller.chi(_janInfo, targetCallInfo);
+            }
+            catch (final JanException e) {
+                // 入力情報に不備があった場合、鳴き待機状態を継続
+                // チー処理に進んだ場合は鳴き宣言をしたプレイヤーが1名なので、この方式でOK
+                _status = GameStatus.IDLE_CALL;
+                _callBuf.putAll(callBufBackup);
+                _callBuf.remove(_janInfo.getWind(targetCallInfo.getPlayerName()));
+                throw e;
+            }
+            break;
+        default:
+            throw new InternalError();
+        }
+    }
+    
+    /**
+     * イベントループの実行をスケジュール
+     */
+    private void schedule() {
+        if (_scheduled.compareAndSet(false, true)) {
+            LOOP_EXECUTOR.execute(new Runnable() {
+                public void run() {
+                    drain();
+                }
+            });
+        }
+    }
+    
+    
+    
+    /**
+     * 1回の実行タスクで処理するコマンドの上限 (他の卓に実行スレッドを譲るため)
+     */
+    private static final int MAX_DRAIN_COUNT = 64;
+    
+    /**
+     * 全卓のイベントループを実行するスレッドプール
+     */
+    private static final ExecutorService LOOP_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(task, "GameTable-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    
+    /**
+     * 生成したスレッド数
+     */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    
+    
+    
+    /**
+     * 卓ID
+     */
+    private final TableId _id;
+    
+    /**
+     * コマンドキュー (複数生産者/単一消費者)
+     */
+    private final Queue<Runnable> _taskQueue = new ConcurrentLinkedQueue<>();
+    
+    /**
+     * イベントループの実行がスケジュール済みか
+     */
+    private final AtomicBoolean _scheduled = new AtomicBoolean(false);
+    
+    /**
+     * イベントループを実行中のスレッド
+     */
+    private volatile Thread _loopThread = null;
+    
+    
+    
+    /**
+     * ゲームの状態
+     * 
+     * 更新はイベントループ上のみ。ルーティング用に他スレッドから参照される。
+     */
+    private volatile GameStatus _status = GameStatus.CLOSE;
+    
+    /**
+     * 参加プレイヤー名の集合
+     * 
+     * 他スレッドから参加確認のために参照される。
+     */
+    private final Set<String> _playerNameSet = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    
+    /**
+     * 麻雀ゲーム情報
+     */
+    private JanInfo _janInfo = new JanInfo();
+    
+    /**
+     * 確認結果バッファ (鳴きを確認したプレイヤーの風ごと)
+     */
+    private final Map<Wind, CallInfo> _callBuf = new EnumMap<>(Wind.class);
+    
+}
@@ -0,0 +1,530 @@
+/**
+ * HandCheckCache.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 和了判定結果のキャッシュ
+ * 
+ * 手牌の枚数を詰めた値をキーに、ChmHandCheckTableの判定結果を全卓で共有する。
+ * キーのハッシュでセグメントに分けてロックし、セグメントごとに件数の上限を持つ。
+ * 上限に達した場合は、最も長く参照されていない結果と新しい結果の参照頻度を比較し、
+ * 新しい結果の方が多く参照されている場合のみ入れ替える。(TinyLFU)
+ */
+public final class HandCheckCache {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param capacity 保持する結果の上限数。
+     */
+    HandCheckCache(final int capacity) {
+        if (capacity < SEGMENT_COUNT) {
+            throw new IllegalArgumentException("Invalid capacity : " + capacity);
+        }
+        
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            _segmentArray[i] = new Segment(capacity / SEGMENT_COUNT);
+        }
+        _capacity = capacity / SEGMENT_COUNT * SEGMENT_COUNT;
+    }
+    
+    
+    
+    /**
+     * インスタンスを取得
+     * 
+     * @return インスタンス。
+     */
+    public static HandCheckCache getInstance() {
+        return INSTANCE;
+    }
+    
+    
+    
+    /**
+     * 保持している結果を全て消去
+     */
+    public void clear() {
+        for (final Segment segment : _segmentArray) {
+            segment.clear();
+        }
+    }
+    
+    /**
+     * 和了牌リストを取得
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @return 和了牌リスト。
+     */
+    public List<JanPai> getCompletableJanPaiList(final JanPaiCount hand) {
+        return HandCheckTable.convertMaskToList(getCompletableMask(hand));
+    }
+    
+    /**
+     * 統計情報を取得
+     * 
+     * @return 統計情報。
+     */
+    public String getStatistics() {
+        final long hitCount = _hitCount.get();
+        final long missCount = _missCount.get();
+        final long total = hitCount + missCount;
+        final long hitPercent = total > 0 ? hitCount * 100 / total : 0;
+        
+        final StringBuilder buf = new StringBuilder();
+        buf.append("判定キャッシュ：").append(size()).append("/").append(_capacity).append("   ");
+        buf.append("ヒット率：").append(hitPercent).append("%").append("   ");
+        buf.append("ヒット数：").append(hitCount).append("   ");
+        buf.append("ミス数：").append(missCount).append("   ");
+        buf.append("追い出し数：").append(_evictionCount.get()).append("   ");
+        buf.append("不採用数：").append(_rejectionCount.get());
+        return buf.toString();
+    }
+    
+    /**
+     * 和了形か
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @return 判定結果。
+     */
+    public boolean isComplete(final JanPaiCount hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        return get(hand, TYPE_COMPLETE) != 0;
+    }
+    
+    /**
+     * 保持している結果の数を取得
+     * 
+     * @return 結果の数。
+     */
+    public int size() {
+        int size = 0;
+        for (final Segment segment : _segmentArray) {
+            size += segment.size();
+        }
+        return size;
+    }
+    
+    
+    
+    /**
+     * 和了牌の集合を取得
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @return 和了牌の集合。(序数のビット)
+     */
+    long getCompletableMask(final JanPaiCount hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        return get(hand, TYPE_WAIT);
+    }
+    
+    /**
+     * 追い出し数を取得
+     * 
+     * @return 追い出し数。
+     */
+    long getEvictionCount() {
+        return _evictionCount.get();
+    }
+    
+    /**
+     * ヒット数を取得
+     * 
+     * @return ヒット数。
+     */
+    long getHitCount() {
+        return _hitCount.get();
+    }
+    
+    /**
+     * ミス数を取得
+     * 
+     * @return ミス数。
+     */
+    long getMissCount() {
+        return _missCount.get();
+    }
+    
+    
+    
+    /**
+     * 判定結果を計算
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @param type 結果の種類。
+     * @return 判定結果。
+     */
+    private static long compute(final JanPaiCount hand, final int type) {
+        switch (type) {
+        case TYPE_WAIT:
+            return ChmHandCheckTable.getCompletableMask(hand);
+        case TYPE_COMPLETE:
+            return ChmHandCheckTable.isComplete(hand) ? 1L : 0L;
+        default:
+            throw new IllegalArgumentException("Invalid type : " + type);
+        }
+    }
+    
+    /**
+     * 判定結果を取得
+     * 
+     * 計算はロックの外で行うため、同じ手牌を同時に計算することがある。(結果は同じ)
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @param type 結果の種類。
+     * @return 判定結果。
+     */
+    private long get(final JanPaiCount hand, final int type) {
+        final Key key = new Key(hand.getLowBits(), hand.getHighBits(), type);
+        final Segment segment = _segmentArray[key.hashCode() & (SEGMENT_COUNT - 1)];
+        
+        final Long cached = segment.get(key);
+        if (cached != null) {
+            _hitCount.incrementAndGet();
+            return cached;
+        }
+        _missCount.incrementAndGet();
+        
+        final long result = compute(hand, type);
+        segment.put(key, result);
+        return result;
+    }
+    
+    
+    
+    /**
+     * キャッシュのキー
+     */
+    private static final class Key {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param low 萬子と筒子の枚数。
+         * @param high 索子と字牌の枚数。
+         * @param type 結果の種類。
+         */
+        public Key(final long low, final long high, final int type) {
+            _low = low;
+            _high = high;
+            _type = type;
+            
+            // 上位ビットもセグメントと頻度表の添字に効くよう混ぜる
+            long mixed = (low * 0x9E3779B97F4A7C15L) ^ (high * 0xC2B2AE3D27D4EB4FL) ^ type;
+            mixed ^= mixed >>> 31;
+            _hash = (int)(mixed ^ (mixed >>> 32));
+        }
+        
+        /**
+         * 等価なオブジェクトか
+         * 
+         * @param target 比較対象。
+         * @return 比較結果。
+         */
+        @Override
+        public boolean equals(final Object target) {
+            if (this == target) {
+                return true;
+            }
+            if (!(target instanceof Key)) {
+                return false;
+            }
+            
+            final Key targetKey = (Key)target;
+            return _low == targetKey._low &&
+                   _high == targetKey._high &&
+                   _type == targetKey._type;
+        }
+        
+        /**
+         * ハッシュコードを取得
+         * 
+         * @return ハッシュコード。
+         */
+        @Override
+        public int hashCode() {
+            return _hash;
+        }
+        
+        /**
+         * 萬子と筒子の枚数
+         */
+        private final long _low;
+        
+        /**
+         * 索子と字牌の枚数
+         */
+        private final long _high;
+        
+        /**
+         * 結果の種類
+         */
+        private final int _type;
+        
+        /**
+         * ハッシュコード
+         */
+        private final int _hash;
+        
+    }
+    
+    /**
+     * セグメント
+     * 
+     * 参照順のLinkedHashMapと参照頻度表を自身のロックで保護する。
+     */
+    private final class Segment {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param capacity 保持する結果の上限数。
+         */
+        public Segment(final int capacity) {
+            _segmentCapacity = capacity;
+            _map = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true);
+            
+            int width = MIN_SKETCH_WIDTH;
+            while (width < capacity * 2) {
+                width <<= 1;
+            }
+            _sketch = new byte[SKETCH_DEPTH * width];
+            _sketchMask = width - 1;
+            _sampleSize = capacity * 10;
+        }
+        
+        /**
+         * 保持している結果を全て消去
+         */
+        public synchronized void clear() {
+            _map.clear();
+            for (int i = 0; i < _sketch.length; i++) {
+                _sketch[i] = 0;
+            }
+            _additionCount = 0;
+        }
+        
+        /**
+         * 結果を取得
+         * 
+         * @param key キー。
+         * @return 結果。(無い場合はnull)
+         */
+        public synchronized Long get(final Key key) {
+            increment(key);
+            return _map.get(key);
+        }
+        
+        /**
+         * 結果を追加
+         * 
+         * @param key キー。
+         * @param result 結果。
+         */
+        public synchronized void put(final Key key, final long result) {
+            if (_map.containsKey(key)) {
+                return;
+            }
+            if (_map.size() >= _segmentCapacity) {
+                // 最も長く参照されていない結果と参照頻度を比較して入れ替えるか決める
+                final Iterator<Map.Entry<Key, Long>> iterator = _map.entrySet().iterator();
+                final Key victim = iterator.next().getKey();
+                if (estimate(key) <= estimate(victim)) {
+                    _rejectionCount.incrementAndGet();
+                    return;
+                }
+                iterator.remove();
+                _evictionCount.incrementAndGet();
+            }
+            _map.put(key, result);
+        }
+        
+        /**
+         * 保持している結果の数を取得
+         * 
+         * @return 結果の数。
+         */
+        public synchronized int size() {
+            return _map.size();
+        }
+        
+        /**
+         * 参照頻度を推定
+         * 
+         * @param key キー。
+         * @return 参照頻度。
+         */
+        private int estimate(final Key key) {
+            int frequency = Integer.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                frequency = Math.min(frequency, _sketch[getSketchIndex(key, row)]);
+            }
+            return frequency;
+        }
+        
+        /**
+         * 参照頻度表の添字を取得
+         * 
+         * @param key キー。
+         * @param row 行。
+         * @return 添字。
+         */
+        private int getSketchIndex(final Key key, final int row) {
+            final int hash = key.hashCode() * SKETCH_SEED_ARRAY[row];
+            return row * (_sketchMask + 1) + ((hash ^ (hash >>> 16)) & _sketchMask);
+        }
+        
+        /**
+         * 参照頻度を加算
+         * 
+         * 加算回数が一定に達したら全ての頻度を半分にし、古い参照の影響を減らす。
+         * 
+         * @param key キー。
+         */
+        private void increment(final Key key) {
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                final int index = getSketchIndex(key, row);
+                if (_sketch[index] < MAX_FREQUENCY) {
+                    _sketch[index]++;
+                }
+            }
+            
+            if (++_additionCount >= _sampleSize) {
+                for (int i = 0; i < _sketch.length; i++) {
+                    _sketch[i] >>= 1;
+                }
+                _additionCount = 0;
+            }
+        }
+        
+        /**
+         * 保持する結果の上限数
+         */
+        private final int _segmentCapacity;
+        
+        /**
+         * 結果マップ (参照順)
+         */
+        private final LinkedHashMap<Key, Long> _map;
+        
+        /**
+         * 参照頻度表 (Count-Min Sketch)
+         */
+        private final byte[] _sketch;
+        
+        /**
+         * 参照頻度表の1行分のマスク
+         */
+        private final int _sketchMask;
+        
+        /**
+         * 参照頻度を半分にするまでの加算回数
+         */
+        private final int _sampleSize;
+        
+        /**
+         * 前回半分にしてからの加算回数
+         */
+        private int _additionCount = 0;
+        
+    }
+    
+    
+    
+    /**
+     * 結果の種類 (和了牌)
+     */
+    private static final int TYPE_WAIT = 0;
+    
+    /**
+     * 結果の種類 (和了形か)
+     */
+    private static final int TYPE_COMPLETE = 1;
+    
+    /**
+     * セグメント数 (2のべき乗)
+     */
+    private static final int SEGMENT_COUNT = 16;
+    
+    /**
+     * 保持する結果の上限数 (既定値)
+     */
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    
+    /**
+     * 参照頻度表の行数
+     */
+    private static final int SKETCH_DEPTH = 4;
+    
+    /**
+     * 参照頻度表の1行分の最小幅
+     */
+    private static final int MIN_SKETCH_WIDTH = 64;
+    
+    /**
+     * 参照頻度の上限
+     */
+    private static final int MAX_FREQUENCY = 15;
+    
+    /**
+     * 参照頻度表の行ごとの乗数
+     */
+    private static final int[] SKETCH_SEED_ARRAY = { 0x97CB3127, 0xB492B66F, 0x9AE16A3B, 0xC3A5C85D };
+    
+    /**
+     * 自分自身のインスタンス
+     */
+    private static final HandCheckCache INSTANCE = new HandCheckCache(DEFAULT_CAPACITY);
+    
+    
+    
+    /**
+     * セグメント
+     */
+    private final Segment[] _segmentArray = new Segment[SEGMENT_COUNT];
+    
+    /**
+     * 保持する結果の上限数
+     */
+    private final int _capacity;
+    
+    /**
+     * ヒット数
+     */
+    private final AtomicLong _hitCount = new AtomicLong();
+    
+    /**
+     * ミス数
+     */
+    private final AtomicLong _missCount = new AtomicLong();
+    
+    /**
+     * 追い出し数
+     */
+    private final AtomicLong _evictionCount = new AtomicLong();
+    
+    /**
+     * 不採用数
+     */
+    private final AtomicLong _rejectionCount = new AtomicLong();
+    
+}
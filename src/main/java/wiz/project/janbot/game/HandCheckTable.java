@@ -0,0 +1,309 @@
+/**
+ * HandCheckTable.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 参照テーブルによる一般形 (4面子1雀頭) の和了判定
+ * 
+ * 数牌は種類ごとの枚数を5進数のキーに変換し、事前に列挙した
+ * 「面子のみ」「面子+雀頭」の形に一致するかをテーブル参照で判定する。
+ * 字牌は順子が無いため、枚数だけで直接判定する。
+ * 七対子などの特殊形は扱わない。(中国麻雀の判定はChmHandCheckTableが行う)
+ */
+final class HandCheckTable {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private HandCheckTable() {
+    }
+    
+    
+    
+    /**
+     * 牌の集合を牌リストに変換
+     * 
+     * @param mask 牌の集合。(序数のビット)
+     * @return 牌リスト。(序数順)
+     */
+    static List<JanPai> convertMaskToList(final long mask) {
+        final List<JanPai> resultList = new ArrayList<>(Long.bitCount(mask));
+        long rest = mask;
+        while (rest != 0) {
+            resultList.add(VALUES[Long.numberOfTrailingZeros(rest)]);
+            rest &= rest - 1;
+        }
+        return resultList;
+    }
+    
+    /**
+     * 一般形 (4面子1雀頭) の和了牌の集合を取得
+     * 
+     * 手牌に既に4枚ある牌は含めない。
+     * 
+     * @param hand 手牌の枚数。
+     * @return 和了牌の集合。(序数のビット)
+     */
+    static long getRegularCompletableMask(final JanPaiCount hand) {
+        if (hand.getTotal() % 3 != 1) {
+            return 0L;
+        }
+        
+        // 種類ごとのキーと判定結果を先に求め、牌を1枚足した種類だけを引き直す
+        final int[] keyArray = new int[NUMBER_SUIT_COUNT];
+        final int[] shapeArray = new int[NUMBER_SUIT_COUNT + 1];
+        for (int suit = 0; suit < NUMBER_SUIT_COUNT; suit++) {
+            keyArray[suit] = getSuitKey(hand.getSuitBits(suit));
+            shapeArray[suit] = getNumberShape(keyArray[suit]);
+        }
+        shapeArray[NUMBER_SUIT_COUNT] = getJiShape(hand, -1);
+        
+        long mask = 0L;
+        for (int ordinal = 0; ordinal < JanPaiCount.JANPAI_COUNT; ordinal++) {
+            if (hand.get(ordinal) >= JanPaiCount.MAX_COUNT) {
+                continue;
+            }
+            
+            final boolean isComplete;
+            if (ordinal < JI_OFFSET) {
+                final int suit = ordinal / 9;
+                final int shape = getNumberShape(keyArray[suit] + POW5[ordinal % 9]);
+                isComplete = isCompleteShape(shapeArray, suit, shape);
+            }
+            else {
+                isComplete = isCompleteShape(shapeArray, NUMBER_SUIT_COUNT, getJiShape(hand, ordinal));
+            }
+            if (isComplete) {
+                mask |= 1L << ordinal;
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * 種類ごとの枚数を5進数キーに変換
+     * 
+     * @param suitBits 1種3ビットで詰めた種類ごとの枚数。
+     * @return 5進数キー。
+     */
+    static int getSuitKey(final int suitBits) {
+        int key = 0;
+        for (int rank = 0; rank < 9; rank++) {
+            key += ((suitBits >>> (rank * 3)) & 7) * POW5[rank];
+        }
+        return key;
+    }
+    
+    /**
+     * 一般形 (4面子1雀頭) の和了形か
+     * 
+     * @param hand 手牌の枚数。
+     * @return 判定結果。
+     */
+    static boolean isRegularComplete(final JanPaiCount hand) {
+        if (hand.getTotal() % 3 != 2) {
+            return false;
+        }
+        
+        final int[] shapeArray = new int[NUMBER_SUIT_COUNT + 1];
+        for (int suit = 0; suit < NUMBER_SUIT_COUNT; suit++) {
+            shapeArray[suit] = getNumberShape(getSuitKey(hand.getSuitBits(suit)));
+        }
+        shapeArray[NUMBER_SUIT_COUNT] = getJiShape(hand, -1);
+        return isCompleteShape(shapeArray, NUMBER_SUIT_COUNT, shapeArray[NUMBER_SUIT_COUNT]);
+    }
+    
+    
+    
+    /**
+     * 数牌1種類で取り得る全ての面子の組み合わせを列挙
+     * 
+     * @param key 現在までの5進数キー。
+     * @param countArray 現在までの枚数。
+     * @param meldIndex 次に追加する面子のインデックス。(同じ組み合わせを重複して数えないため昇順に追加)
+     * @param meldCount 現在までの面子数。
+     */
+    private static void enumerateMeld(final int key, final int[] countArray, final int meldIndex, final int meldCount) {
+        MELD_TABLE.set(key);
+        for (int rank = 0; rank < 9; rank++) {
+            if (countArray[rank] + 2 <= JanPaiCount.MAX_COUNT) {
+                PAIR_TABLE.set(key + POW5[rank] * 2);
+            }
+        }
+        
+        if (meldCount == MAX_MELD_COUNT) {
+            return;
+        }
+        
+        // 0-8 は刻子、9-15 は順子
+        for (int index = meldIndex; index < 9 + 7; index++) {
+            if (index < 9) {
+                if (countArray[index] + 3 > JanPaiCount.MAX_COUNT) {
+                    continue;
+                }
+                countArray[index] += 3;
+                enumerateMeld(key + POW5[index] * 3, countArray, index, meldCount + 1);
+                countArray[index] -= 3;
+            }
+            else {
+                final int rank = index - 9;
+                if (countArray[rank] == JanPaiCount.MAX_COUNT ||
+                    countArray[rank + 1] == JanPaiCount.MAX_COUNT ||
+                    countArray[rank + 2] == JanPaiCount.MAX_COUNT) {
+                    continue;
+                }
+                countArray[rank]++;
+                countArray[rank + 1]++;
+                countArray[rank + 2]++;
+                enumerateMeld(key + POW5[rank] + POW5[rank + 1] + POW5[rank + 2], countArray, index, meldCount + 1);
+                countArray[rank]--;
+                countArray[rank + 1]--;
+                countArray[rank + 2]--;
+            }
+        }
+    }
+    
+    /**
+     * 字牌の形を判定
+     * 
+     * @param hand 手牌の枚数。
+     * @param extra 追加で1枚あるとみなす牌の序数。(無い場合は-1)
+     * @return 形の判定結果。
+     */
+    private static int getJiShape(final JanPaiCount hand, final int extra) {
+        int pairCount = 0;
+        for (int ordinal = JI_OFFSET; ordinal < JanPaiCount.JANPAI_COUNT; ordinal++) {
+            final int count = ordinal == extra ? hand.get(ordinal) + 1 : hand.get(ordinal);
+            switch (count) {
+            case 0:
+            case 3:
+                break;
+            case 2:
+                pairCount++;
+                break;
+            default:
+                return SHAPE_NONE;
+            }
+        }
+        
+        switch (pairCount) {
+        case 0:
+            return SHAPE_MELD;
+        case 1:
+            return SHAPE_PAIR;
+        default:
+            return SHAPE_NONE;
+        }
+    }
+    
+    /**
+     * 数牌1種類の形を判定
+     * 
+     * @param key 5進数キー。
+     * @return 形の判定結果。
+     */
+    private static int getNumberShape(final int key) {
+        if (MELD_TABLE.get(key)) {
+            return SHAPE_MELD;
+        }
+        if (PAIR_TABLE.get(key)) {
+            return SHAPE_PAIR;
+        }
+        return SHAPE_NONE;
+    }
+    
+    /**
+     * 種類ごとの形の組み合わせが和了形か
+     * 
+     * @param shapeArray 種類ごとの形の判定結果。
+     * @param replaceSuit 判定結果を差し替える種類。
+     * @param replaceShape 差し替える判定結果。
+     * @return 判定結果。
+     */
+    private static boolean isCompleteShape(final int[] shapeArray, final int replaceSuit, final int replaceShape) {
+        int pairCount = 0;
+        for (int suit = 0; suit < shapeArray.length; suit++) {
+            final int shape = suit == replaceSuit ? replaceShape : shapeArray[suit];
+            switch (shape) {
+            case SHAPE_MELD:
+                break;
+            case SHAPE_PAIR:
+                pairCount++;
+                break;
+            default:
+                return false;
+            }
+        }
+        return pairCount == 1;
+    }
+    
+    
+    
+    /**
+     * 形の判定結果 (面子のみ)
+     */
+    private static final int SHAPE_MELD = 0;
+    
+    /**
+     * 形の判定結果 (面子+雀頭)
+     */
+    private static final int SHAPE_PAIR = 1;
+    
+    /**
+     * 形の判定結果 (和了形の一部にならない)
+     */
+    private static final int SHAPE_NONE = 2;
+    
+    /**
+     * 数牌の種類数
+     */
+    private static final int NUMBER_SUIT_COUNT = 3;
+    
+    /**
+     * 1種類に含まれる最大面子数
+     */
+    private static final int MAX_MELD_COUNT = 4;
+    
+    /**
+     * 字牌の序数オフセット
+     */
+    private static final int JI_OFFSET = JanPai.TON.ordinal();
+    
+    /**
+     * 全ての牌 (序数順)
+     */
+    private static final JanPai[] VALUES = JanPai.values();
+    
+    /**
+     * 5のべき乗 (0-9乗)
+     */
+    private static final int[] POW5 = { 1, 5, 25, 125, 625, 3125, 15625, 78125, 390625, 1953125 };
+    
+    /**
+     * 面子のみで構成される形のテーブル (5進数キーでアクセス)
+     */
+    private static final BitSet MELD_TABLE = new BitSet(POW5[9]);
+    
+    /**
+     * 面子+雀頭で構成される形のテーブル (5進数キーでアクセス)
+     */
+    private static final BitSet PAIR_TABLE = new BitSet(POW5[9]);
+    
+    static {
+        enumerateMeld(0, new int[9], 0, 0);
+    }
+    
+}
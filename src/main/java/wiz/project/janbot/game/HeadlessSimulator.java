@@ -0,0 +1,293 @@
+/**
+ * HeadlessSimulator.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import wiz.project.jan.Wind;
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * COMのみの対局シミュレーション
+ * 
+ * IRCと実況者を使わずに、VSChmJanControllerのルールで局を繰り返す。
+ * 局はForkJoinPoolで区間ごとに分割して並列に処理し、スレッドごとに卓 (JanInfo) を使い回す。
+ * 区間ごとの乱数の種は全体の種と区間の開始位置から決まるため、並列数に関わらず同じ種なら同じ結果になる。
+ */
+public final class HeadlessSimulator {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param parallelism 並列数。
+     * @param seed 乱数の種。
+     */
+    public HeadlessSimulator(final int parallelism, final long seed) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Invalid parallelism : " + parallelism);
+        }
+        _parallelism = parallelism;
+        _seed = seed;
+    }
+    
+    
+    
+    /**
+     * エントリポイント
+     * 
+     * @param paramList 実行引数リスト。(局数、並列数、乱数の種。いずれも省略可)
+     */
+    public static void main(final String[] paramList) {
+        if (paramList == null) {
+            throw new NullPointerException("Parameter list is null.");
+        }
+        
+        try {
+            final long roundCount = paramList.length > 0 ? Long.parseLong(paramList[0]) : DEFAULT_ROUND_COUNT;
+            final int parallelism = paramList.length > 1 ? Integer.parseInt(paramList[1]) : Runtime.getRuntime().availableProcessors();
+            final long seed = paramList.length > 2 ? Long.parseLong(paramList[2]) : System.nanoTime();
+            System.out.println(String.format("局数：%d   並列数：%d   乱数の種：%d", roundCount, parallelism, seed));
+            
+            final SimulationResult result = new HeadlessSimulator(parallelism, seed).run(roundCount);
+            System.out.print(result.getStatistics());
+        }
+        catch (final NumberFormatException e) {
+            System.out.println("Call with numeric parameter. (ex.: java -jar janbot.vs.jar --simulate 1000000 8 12345)");
+        }
+    }
+    
+    
+    
+    /**
+     * シミュレーションを実行
+     * 
+     * @param roundCount 局数。
+     * @return 集計結果。
+     */
+    public SimulationResult run(final long roundCount) {
+        if (roundCount < 0) {
+            throw new IllegalArgumentException("Invalid round count : " + roundCount);
+        }
+        
+        final ForkJoinPool pool = new ForkJoinPool(_parallelism);
+        try {
+            final ThreadLocal<Worker> workerTable = new ThreadLocal<Worker>() {
+                @Override
+                protected Worker initialValue() {
+                    return new Worker();
+                }
+            };
+            final long startTime = System.nanoTime();
+            final SimulationResult result = pool.invoke(new ShardTask(workerTable, 0, roundCount));
+            result.setElapsedNanos(System.nanoTime() - startTime);
+            return result;
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+    
+    
+    
+    /**
+     * 局の区間を処理するタスク
+     */
+    private final class ShardTask extends RecursiveTask<SimulationResult> {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param workerTable スレッドごとの卓。
+         * @param start 区間の開始位置。
+         * @param count 区間の局数。
+         */
+        public ShardTask(final ThreadLocal<Worker> workerTable, final long start, final long count) {
+            _workerTable = workerTable;
+            _start = start;
+            _count = count;
+        }
+        
+        
+        
+        /**
+         * 区間を処理
+         * 
+         * @return 区間の集計結果。
+         */
+        @Override
+        protected SimulationResult compute() {
+            if (_count > SHARD_ROUND_COUNT) {
+                final long half = _count / 2;
+                final ShardTask first = new ShardTask(_workerTable, _start, half);
+                final ShardTask second = new ShardTask(_workerTable, _start + half, _count - half);
+                first.fork();
+                final SimulationResult result = second.compute();
+                result.merge(first.join());
+                return result;
+            }
+            
+            final VSChmJanController controller = new VSChmJanController(new Random(_seed ^ (_start * SEED_MULTIPLIER)));
+            final Worker worker = _workerTable.get();
+            final SimulationResult result = new SimulationResult();
+            for (long i = 0; i < _count; i++) {
+                worker.playRound(controller, result);
+            }
+            return result;
+        }
+        
+        
+        
+        /**
+         * シリアルバージョンUID
+         */
+        private static final long serialVersionUID = 1L;
+        
+        
+        
+        /**
+         * スレッドごとの卓
+         */
+        private final ThreadLocal<Worker> _workerTable;
+        
+        /**
+         * 区間の開始位置
+         */
+        private final long _start;
+        
+        /**
+         * 区間の局数
+         */
+        private final long _count;
+        
+    }
+    
+    /**
+     * スレッドごとの卓
+     * 
+     * 実況者は登録せず、和了の検出に必要な状態の変化のみ受け取る。
+     */
+    private static final class Worker implements JanEventListener<GameStatusParam> {
+        
+        /**
+         * コンストラクタ
+         */
+        public Worker() {
+            _info.getEventBus().subscribe(JanEventType.STATUS, this);
+        }
+        
+        
+        
+        /**
+         * 状態の変化時の処理
+         * 
+         * @param info ゲーム情報。
+         * @param param 状態の変化。
+         */
+        public void onEvent(final JanInfo info, final GameStatusParam param) {
+            if (param.getStatus() == GameStatus.END_ROUND) {
+                _winner = info.getWind(param.getPlayer());
+            }
+        }
+        
+        /**
+         * 1局を処理
+         * 
+         * @param controller コントローラ。
+         * @param result 集計結果の格納先。
+         */
+        public void playRound(final VSChmJanController controller, final SimulationResult result) {
+            _info.clear();
+            _info.setFieldWind(Wind.TON);
+            _info.setPlayerTable(PLAYER_TABLE);
+            _winner = null;
+            try {
+                controller.startRound(_info);
+            }
+            catch (final JanException e) {
+                throw new IllegalStateException("Failed to start round.", e);
+            }
+            
+            if (_winner != null) {
+                result.addWin(_winner, _info.getRemainCount());
+                return;
+            }
+            
+            int tenpaiBits = 0;
+            for (final Wind wind : Wind.values()) {
+                if (_info.getWaitMask(wind, CallType.RON) != 0L) {
+                    tenpaiBits |= 1 << wind.ordinal();
+                }
+            }
+            result.addDraw(tenpaiBits);
+        }
+        
+        
+        
+        /**
+         * 使い回す卓
+         */
+        private final JanInfo _info = new JanInfo();
+        
+        /**
+         * 和了した席の風 (流局の場合はnull)
+         */
+        private Wind _winner = null;
+        
+    }
+    
+    
+    
+    /**
+     * 局数の既定値
+     */
+    private static final long DEFAULT_ROUND_COUNT = 100000L;
+    
+    /**
+     * 分割をやめる区間の局数
+     */
+    private static final long SHARD_ROUND_COUNT = 256L;
+    
+    /**
+     * 区間ごとの乱数の種を散らす係数
+     */
+    private static final long SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    
+    /**
+     * COMのみの席 (変更不可)
+     */
+    private static final Map<Wind, Player> PLAYER_TABLE;
+    
+    static {
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        for (final Wind wind : Wind.values()) {
+            final int id = wind.ordinal();
+            playerTable.put(wind, new Player(id, "COM_0" + (id + 1), PlayerType.COM));
+        }
+        PLAYER_TABLE = Collections.unmodifiableMap(playerTable);
+    }
+    
+    
+    
+    /**
+     * 並列数
+     */
+    private final int _parallelism;
+    
+    /**
+     * 乱数の種
+     */
+    private final long _seed;
+    
+}
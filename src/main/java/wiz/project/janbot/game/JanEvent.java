@@ -0,0 +1,24 @@
+/**
+ * JanEvent.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * ゲームの進行を通知するイベント
+ */
+interface JanEvent {
+    
+    /**
+     * イベントの種類を取得
+     * 
+     * @return イベントの種類。
+     */
+    public JanEventType<?> getType();
+    
+}
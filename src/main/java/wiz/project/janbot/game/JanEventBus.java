@@ -0,0 +1,284 @@
+/**
+ * JanEventBus.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * ゲームイベントの配信
+ * 
+ * 受信者はイベントの種類ごとの配列で保持し、登録時に配列ごと差し替える。
+ * 配信時は配列を読むだけなので、ロックも配列のコピーも発生しない。
+ * 非同期の受信者には発行時点のJanInfoの複製を渡し、登録順・発行順に1つずつ実行する。
+ */
+final class JanEventBus {
+    
+    /**
+     * コンストラクタ
+     */
+    public JanEventBus() {
+        final Subscriber[][] subscriberTable = new Subscriber[JanEventType.COUNT][];
+        for (int i = 0; i < subscriberTable.length; i++) {
+            subscriberTable[i] = EMPTY_SUBSCRIBER_ARRAY;
+        }
+        _subscriberTable = subscriberTable;
+    }
+    
+    
+    
+    /**
+     * イベントを発行
+     * 
+     * 同期の受信者はその場で呼び出し、非同期の受信者は配信キューに積む。
+     * 
+     * @param source 発行元のゲーム情報。
+     * @param event イベント。
+     */
+    public void publish(final JanInfo source, final JanEvent event) {
+        if (source == null) {
+            throw new NullPointerException("Source is null.");
+        }
+        if (event == null) {
+            throw new NullPointerException("Event is null.");
+        }
+        
+        final Subscriber[] subscriberArray = _subscriberTable[event.getType().getIndex()];
+        JanInfo snapshot = null;
+        for (final Subscriber subscriber : subscriberArray) {
+            if (subscriber.isAsync()) {
+                if (snapshot == null) {
+                    // 複製は1回の発行につき1つだけ作成して共有する
+                    snapshot = source.clone();
+                }
+                _asyncQueue.offer(subscriber, snapshot, event);
+            }
+            else {
+                subscriber.deliver(source, event);
+            }
+        }
+    }
+    
+    /**
+     * 受信者を登録 (同期)
+     * 
+     * 受信者は発行元のスレッド上で呼び出される。
+     * 
+     * @param type イベントの種類。
+     * @param listener 受信者。
+     */
+    public <E extends JanEvent> void subscribe(final JanEventType<E> type, final JanEventListener<? super E> listener) {
+        addSubscriber(type, listener, false);
+    }
+    
+    /**
+     * 受信者を登録 (非同期)
+     * 
+     * 受信者は配信スレッド上で、発行時点のJanInfoの複製を受け取る。
+     * 
+     * @param type イベントの種類。
+     * @param listener 受信者。
+     */
+    public <E extends JanEvent> void subscribeAsync(final JanEventType<E> type, final JanEventListener<? super E> listener) {
+        addSubscriber(type, listener, true);
+    }
+    
+    
+    
+    /**
+     * 受信者を追加
+     * 
+     * @param type イベントの種類。
+     * @param listener 受信者。
+     * @param isAsync 非同期で配信するか。
+     */
+    private synchronized void addSubscriber(final JanEventType<?> type, final JanEventListener<?> listener, final boolean isAsync) {
+        if (type == null) {
+            throw new NullPointerException("Event type is null.");
+        }
+        if (listener == null) {
+            throw new NullPointerException("Listener is null.");
+        }
+        
+        final Subscriber[][] subscriberTable = _subscriberTable.clone();
+        final Subscriber[] source = subscriberTable[type.getIndex()];
+        final Subscriber[] target = new Subscriber[source.length + 1];
+        System.arraycopy(source, 0, target, 0, source.length);
+        target[source.length] = new Subscriber(listener, isAsync);
+        subscriberTable[type.getIndex()] = target;
+        _subscriberTable = subscriberTable;
+    }
+    
+    
+    
+    /**
+     * 受信者の登録情報 (immutable)
+     */
+    private static final class Subscriber {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param listener 受信者。
+         * @param isAsync 非同期で配信するか。
+         */
+        public Subscriber(final JanEventListener<?> listener, final boolean isAsync) {
+            _listener = listener;
+            _isAsync = isAsync;
+        }
+        
+        
+        
+        /**
+         * イベントを配信
+         * 
+         * 登録時に種類と受信者の型を一致させているため、キャストは失敗しない。
+         * 
+         * @param info ゲーム情報。
+         * @param event イベント。
+         */
+        @SuppressWarnings("unchecked")
+        public void deliver(final JanInfo info, final JanEvent event) {
+            ((JanEventListener<JanEvent>)_listener).onEvent(info, event);
+        }
+        
+        /**
+         * 非同期で配信するか
+         * 
+         * @return 判定結果。
+         */
+        public boolean isAsync() {
+            return _isAsync;
+        }
+        
+        
+        
+        /**
+         * 受信者
+         */
+        private final JanEventListener<?> _listener;
+        
+        /**
+         * 非同期で配信するか
+         */
+        private final boolean _isAsync;
+        
+    }
+    
+    /**
+     * 非同期配信キュー
+     * 
+     * 同じバスのイベントを発行順に1つずつ配信する。
+     */
+    private static final class AsyncQueue implements Runnable {
+        
+        /**
+         * 配信を追加
+         * 
+         * @param subscriber 受信者の登録情報。
+         * @param info ゲーム情報の複製。
+         * @param event イベント。
+         */
+        public void offer(final Subscriber subscriber, final JanInfo info, final JanEvent event) {
+            _deliveryQueue.offer(new Runnable() {
+                public void run() {
+                    subscriber.deliver(info, event);
+                }
+            });
+            schedule();
+        }
+        
+        /**
+         * キューを処理
+         */
+        public void run() {
+            try {
+                Runnable delivery;
+                while ((delivery = _deliveryQueue.poll()) != null) {
+                    try {
+                        delivery.run();
+                    }
+                    catch (final RuntimeException e) {
+                        // 1つの実況の失敗で後続の配信を止めない
+                        e.printStackTrace();
+                    }
+                }
+            }
+            finally {
+                _scheduled.set(false);
+            }
+            
+            if (!_deliveryQueue.isEmpty()) {
+                schedule();
+            }
+        }
+        
+        /**
+         * 実行をスケジュール
+         */
+        private void schedule() {
+            if (_scheduled.compareAndSet(false, true)) {
+                DELIVERY_EXECUTOR.execute(this);
+            }
+        }
+        
+        /**
+         * 配信キュー
+         */
+        private final Queue<Runnable> _deliveryQueue = new ConcurrentLinkedQueue<>();
+        
+        /**
+         * 実行がスケジュール済みか
+         */
+        private final AtomicBoolean _scheduled = new AtomicBoolean(false);
+        
+    }
+    
+    
+    
+    /**
+     * 空の受信者配列
+     */
+    private static final Subscriber[] EMPTY_SUBSCRIBER_ARRAY = new Subscriber[0];
+    
+    /**
+     * 非同期配信スレッド (全てのバスで共有)
+     */
+    private static final ExecutorService DELIVERY_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(task, "JanEventBus-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    
+    /**
+     * 生成したスレッド数
+     */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    
+    
+    
+    /**
+     * イベントの種類ごとの受信者 (登録時に差し替える)
+     */
+    private volatile Subscriber[][] _subscriberTable;
+    
+    /**
+     * 非同期配信キュー
+     */
+    private final AsyncQueue _asyncQueue = new AsyncQueue();
+    
+}
@@ -0,0 +1,27 @@
+/**
+ * JanEventListener.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * イベントの受信者
+ * 
+ * @param <E> 受信するイベントの型。
+ */
+interface JanEventListener<E extends JanEvent> {
+    
+    /**
+     * イベント受信時の処理
+     * 
+     * @param info ゲーム情報。(非同期配信の場合は発行時点の複製)
+     * @param event イベント。
+     */
+    public void onEvent(final JanInfo info, final E event);
+    
+}
@@ -0,0 +1,89 @@
+/**
+ * JanEventType.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * イベントの種類
+ * 
+ * 型引数でイベントの型を表すため、購読時に受信者の型を検査できる。
+ * 
+ * @param <E> イベントの型。
+ */
+final class JanEventType<E extends JanEvent> {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     * 
+     * @param index 種類ごとの添字。
+     * @param name 名前。
+     */
+    private JanEventType(final int index, final String name) {
+        _index = index;
+        _name = name;
+    }
+    
+    
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return _name;
+    }
+    
+    
+    
+    /**
+     * 種類ごとの添字を取得
+     * 
+     * @return 種類ごとの添字。(0 ～ COUNT - 1)
+     */
+    int getIndex() {
+        return _index;
+    }
+    
+    
+    
+    /**
+     * ゲームの状態の変化
+     */
+    public static final JanEventType<GameStatusParam> STATUS = new JanEventType<>(0, "STATUS");
+    
+    /**
+     * 実況
+     */
+    public static final JanEventType<AnnounceParam> ANNOUNCE = new JanEventType<>(1, "ANNOUNCE");
+    
+    /**
+     * 鳴き確認の開始
+     */
+    public static final JanEventType<CallWindowParam> CALL_WINDOW = new JanEventType<>(2, "CALL_WINDOW");
+    
+    /**
+     * 種類の数
+     */
+    static final int COUNT = 3;
+    
+    
+    
+    /**
+     * 種類ごとの添字
+     */
+    private final int _index;
+    
+    /**
+     * 名前
+     */
+    private final String _name;
+    
+}
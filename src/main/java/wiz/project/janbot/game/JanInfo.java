@@ -10,23 +10,31 @@ package wiz.project.janbot.game;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Observable;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import wiz.project.jan.ChmCompleteInfo;
 import wiz.project.jan.Hand;
 import wiz.project.jan.JanPai;
+import wiz.project.jan.MenTsu;
+import wiz.project.jan.MenTsuType;
 import wiz.project.jan.Wind;
 
 
 
 /**
  * 麻雀ゲームの情報
+ * 
+ * 席ごとの値は風の序数を添字とした配列で保持する。
+ * 読み書きは卓のイベントループ (GameTable) の単一スレッドからのみ行う前提のため、
+ * 内部では同期しない。他スレッドへ渡す場合はclone()で複製してから渡すこと。
+ * イベントの受信者は複製に引き継がない。
  */
-public final class JanInfo extends Observable implements Cloneable {
+public final class JanInfo implements Cloneable {
     
     /**
      * コンストラクタ
@@ -43,33 +51,34 @@ public final class JanInfo extends Observable implements Cloneable {
     public JanInfo(final JanInfo source) {
         if (source != null) {
             _status = source._status;
-            setPlayerTable(source._playerTable);
-            _deck = deepCopyList(source._deck);
+            System.arraycopy(source._playerArray, 0, _playerArray, 0, SEAT_COUNT);
+            _nameIndex = source._nameIndex;
+            _deck = source._deck;
             _deckIndex = source._deckIndex;
             _deckWallIndex = source._deckWallIndex;
-            _wanPai = source._wanPai.clone();
+            _wanPai = source._wanPai;
             _fieldWind = source._fieldWind;
             _activeWind = source._activeWind;
             _remainCount = source._remainCount;
             _activeTsumo = source._activeTsumo;
             _activeDiscard = source._activeDiscard;
             _completeInfo = source._completeInfo;
+            _pendingDiscardList = new ArrayList<>(source._pendingDiscardList);  // 追記するため共有しない
             
-            for (final Map.Entry<JanPai, Integer> entry : source._riverOuts.entrySet()) {
-                _riverOuts.put(entry.getKey(), new Integer(entry.getValue()));
-            }
-            for (final Map.Entry<Wind, Hand> entry : source._handTable.entrySet()) {
-                _handTable.put(entry.getKey(), entry.getValue().clone());
-            }
-            for (final Map.Entry<Wind, River> entry : source._riverTable.entrySet()) {
-                _riverTable.put(entry.getKey(), entry.getValue().clone());
-            }
-            for (final Map.Entry<Wind, Map<CallType, List<JanPai>>> entry : source._waitTable.entrySet()) {
-                _waitTable.put(entry.getKey(), deepCopyWaitTable(entry.getValue()));
-            }
-            for (final Map.Entry<Wind, List<CallType>> entry : source._callableTable.entrySet()) {
-                _callableTable.put(entry.getKey(), deepCopyList(entry.getValue()));
-            }
+            // 各要素は格納後に変更しないため、参照をそのまま共有する
+            _outsTargetMask = source._outsTargetMask;
+            System.arraycopy(source._handArray, 0, _handArray, 0, SEAT_COUNT);
+            System.arraycopy(source._handCountArray, 0, _handCountArray, 0, SEAT_COUNT);
+            System.arraycopy(source._riverArray, 0, _riverArray, 0, SEAT_COUNT);
+            System.arraycopy(source._handVersionArray, 0, _handVersionArray, 0, SEAT_COUNT);
+            System.arraycopy(source._riverVersionArray, 0, _riverVersionArray, 0, SEAT_COUNT);
+            System.arraycopy(source._waitMaskArray, 0, _waitMaskArray, 0, _waitMaskArray.length);
+            System.arraycopy(source._callerIndex, 0, _callerIndex, 0, _callerIndex.length);
+            _humanCallerMask = source._humanCallerMask;
+            System.arraycopy(source._callableBitsArray, 0, _callableBitsArray, 0, SEAT_COUNT);
+            System.arraycopy(source._openCountArray, 0, _openCountArray, 0, SEAT_COUNT);
+            System.arraycopy(source._visibleCountArray, 0, _visibleCountArray, 0, _visibleCountArray.length);
+            System.arraycopy(source._riverCountArray, 0, _riverCountArray, 0, _riverCountArray.length);
         }
     }
     
@@ -84,52 +93,71 @@ public final class JanInfo extends Observable implements Cloneable {
     public void addDiscard(final Wind wind, final JanPai discard) {
         if (wind != null) {
             if (discard != null) {
-                _riverTable.get(wind).add(discard);
+                _riverArray[wind.ordinal()] = _riverArray[wind.ordinal()].add(discard);
+                _riverVersionArray[wind.ordinal()] = nextVersion();
+                addRiverCount(discard, 1);
             }
         }
     }
     
+    /**
+     * まとめて実況する打牌を追加
+     * 
+     * @param discarder 打牌したプレイヤー。
+     * @param discard 捨て牌。
+     */
+    public void addPendingDiscard(final Player discarder, final JanPai discard) {
+        _pendingDiscardList.add(new DiscardRecord(discarder, discard));
+    }
+    
     /**
      * フィールドを全消去
      */
     public void clear() {
         _status = GameStatus.CLOSE;
-        _deck.clear();
+        _deck = Collections.emptyList();
         _deckIndex = 0;
         _deckWallIndex = 0;
         _wanPai = new WanPai();
         _fieldWind = Wind.TON;
         _activeWind = Wind.TON;
         _remainCount = 0;
-        _riverOuts.clear();
+        _outsTargetMask = 0L;
         _activeTsumo = JanPai.HAKU;
         _activeDiscard = JanPai.HAKU;
         _completeInfo = null;
+        _pendingDiscardList.clear();
         clearCallableTable();
         
-        for (final Wind wind : Wind.values()) {
-            _playerTable.put(wind, new Player());
-            _handTable.put(wind, new Hand());
-            _riverTable.put(wind, new River());
-            final Map<CallType, List<JanPai>> waitTable = Collections.synchronizedMap(new TreeMap<CallType, List<JanPai>>());
-            for (final CallType type : CallType.values()) {
-                waitTable.put(type, Collections.synchronizedList(new ArrayList<JanPai>()));
-            }
-            _waitTable.put(wind, waitTable);
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            _playerArray[i] = new Player();
+            _handArray[i] = EMPTY_HAND;
+            _handCountArray[i] = EMPTY_HAND_COUNT;
+            _riverArray[i] = EMPTY_RIVER;
+            _openCountArray[i] = EMPTY_HAND_COUNT;
+            _handVersionArray[i] = nextVersion();
+            _riverVersionArray[i] = nextVersion();
         }
+        updateNameIndex();
+        updateHumanCallerMask();
+        Arrays.fill(_visibleCountArray, 0);
+        Arrays.fill(_riverCountArray, 0);
+        Arrays.fill(_waitMaskArray, 0L);
+        Arrays.fill(_callerIndex, 0);
     }
     
     /**
      * 鳴き可能テーブルを消去
      */
     public void clearCallableTable() {
-        for (final Wind wind : Wind.values()) {
-            _callableTable.put(wind, Collections.synchronizedList(new ArrayList<CallType>()));
-        }
+        Arrays.fill(_callableBitsArray, 0);
     }
     
     /**
-     * オブジェクトを複製 (ディープコピー)
+     * オブジェクトを複製
+     * 
+     * 手牌や捨て牌は格納後に変更しないため、複製元と共有する。
+     * 複製後にどちらかを更新しても、変更した席の値が差し替わるだけで互いに影響しない。
      * 
      * @return 複製結果。
      */
@@ -209,11 +237,10 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public List<CallType> getCallableList(final String playerName) {
         if (playerName != null) {
-            final Wind wind = getWind(playerName);
-            return deepCopyList(_callableTable.get(wind));
+            return getCallableList(getWind(playerName));
         }
         else {
-            return Collections.synchronizedList(new ArrayList<CallType>());
+            return Collections.emptyList();
         }
     }
     
@@ -224,12 +251,38 @@ public final class JanInfo extends Observable implements Cloneable {
      * @return 鳴き可能リスト。
      */
     public List<CallType> getCallableList(final Wind wind) {
-        if (wind != null) {
-            return deepCopyList(_callableTable.get(wind));
+        if (wind == null) {
+            return Collections.emptyList();
         }
-        else {
-            return Collections.synchronizedList(new ArrayList<CallType>());
+        
+        final int callableBits = _callableBitsArray[wind.ordinal()];
+        if (callableBits == 0) {
+            return Collections.emptyList();
+        }
+        
+        final List<CallType> resultList = new ArrayList<>();
+        for (final CallType type : CALL_TYPE_VALUES) {
+            if ((callableBits & (1 << type.ordinal())) != 0) {
+                resultList.add(type);
+            }
         }
+        return resultList;
+    }
+    
+    /**
+     * 指定牌を鳴ける鳴きタイプの集合を取得
+     * 
+     * 待ち牌の集合から逆引きするため、牌1枚につき配列参照1回で済む。
+     * 
+     * @param target 対象牌。
+     * @param wind 風。
+     * @return 鳴きタイプの集合。(序数のビット)
+     */
+    public int getCallTypeBits(final JanPai target, final Wind wind) {
+        if (target == null || wind == null) {
+            return 0;
+        }
+        return (_callerIndex[target.ordinal()] >>> getCallerShift(wind)) & CALL_TYPE_MASK;
     }
     
     /**
@@ -239,9 +292,9 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public List<String> getCallablePlayerNameList() {
         final List<String> resultList = new ArrayList<>();
-        for (final Map.Entry<Wind, List<CallType>> entry : _callableTable.entrySet()) {
-            if (!entry.getValue().isEmpty()) {
-                resultList.add(_playerTable.get(entry.getKey()).getName());
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            if (_callableBitsArray[i] != 0) {
+                resultList.add(_playerArray[i].getName());
             }
         }
         return resultList;
@@ -259,19 +312,21 @@ public final class JanInfo extends Observable implements Cloneable {
     /**
      * 和了牌の残り枚数を取得
      * 
+     * 河に見えている牌だけを数えるため、誰かの手牌や副露に含まれる枚数も含む。
+     * 
      * @param isRon ロン和了か。
      * @return 和了牌の残り枚数。
      */
     public int getCompleteOuts(boolean isRon) {
         if (isRon) {
-            return _riverOuts.get(getActiveDiscard());
+            return getRiverOuts(getActiveDiscard());
         }
         else {
-            final Map<JanPai, Integer> outs = deepCopyMap(_riverOuts);
-            if (getActiveTsumo() != null && outs.get(getActiveTsumo()) != null) {
-                outs.put(getActiveTsumo(), outs.get(getActiveTsumo()) - 1);
+            final JanPai activeTsumo = getActiveTsumo();
+            if (activeTsumo == null) {
+                return 0;
             }
-            return outs.get(getActiveTsumo());
+            return getRiverOuts(activeTsumo) - 1;
         }
     }
     
@@ -281,7 +336,7 @@ public final class JanInfo extends Observable implements Cloneable {
      * @return 牌山。
      */
     public List<JanPai> getDeck() {
-        return deepCopyList(_deck);
+        return _deck;
     }
     
     /**
@@ -321,7 +376,7 @@ public final class JanInfo extends Observable implements Cloneable {
         if (playerName != null) {
             try {
                 final Wind wind = getWind(playerName);
-                return _handTable.get(wind).clone();
+                return _handArray[wind.ordinal()].clone();
             }
             catch (final IllegalArgumentException e) {
                 // 指定のプレイヤーが存在しなかった場合のエラーを無視
@@ -338,13 +393,45 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public Hand getHand(final Wind wind) {
         if (wind != null) {
-            return _handTable.get(wind).clone();
+            return _handArray[wind.ordinal()].clone();
         }
         else {
             return new Hand();
         }
     }
     
+    /**
+     * 門前の手牌の枚数を取得
+     * 
+     * @param wind 風。
+     * @return 門前の手牌の枚数。
+     */
+    public JanPaiCount getHandCount(final Wind wind) {
+        if (wind != null) {
+            return _handCountArray[wind.ordinal()].clone();
+        }
+        else {
+            return new JanPaiCount();
+        }
+    }
+    
+    /**
+     * 手牌の版を取得
+     * 
+     * 手牌を格納するたびに増加し、値が同じなら同じ手牌を指す。(全ての卓で一意)
+     * 
+     * @param wind 風。
+     * @return 手牌の版。
+     */
+    public long getHandVersion(final Wind wind) {
+        if (wind != null) {
+            return _handVersionArray[wind.ordinal()];
+        }
+        else {
+            return 0L;
+        }
+    }
+    
     /**
      * 牌山から牌を取得
      * 
@@ -380,16 +467,24 @@ public final class JanInfo extends Observable implements Cloneable {
     /**
      * 残り枚数テーブルを取得(確認メッセージ用)
      * 
+     * 河に見えている牌と、指定プレイヤーの手牌 (副露を含む) の枚数を引いて求める。
+     * 
      * @param wind 風。
      * @return 残り枚数テーブル。
      */
     public Map<JanPai, Integer> getOutsOnConfirm(final Wind wind) {
-        final Map<JanPai, Integer> outs = deepCopyMap(_riverOuts);
+        final Map<JanPai, Integer> outs = new TreeMap<>();
+        if (_outsTargetMask == 0L) {
+            return outs;
+        }
         
-        for (final JanPai pai : outs.keySet()) {
-            int visibleCount = 0;
-            visibleCount += getHand(wind).getAllJanPaiMap().get(pai);
-            outs.put(pai, outs.get(pai) - visibleCount);
+        final Map<JanPai, Integer> handMap = getHandView(wind).getAllJanPaiMap();
+        final JanPai[] values = JanPai.values();
+        long targetMask = _outsTargetMask;
+        while (targetMask != 0) {
+            final JanPai pai = values[Long.numberOfTrailingZeros(targetMask)];
+            outs.put(pai, getRiverOuts(pai) - handMap.get(pai));
+            targetMask &= targetMask - 1;
         }
         return outs;
     }
@@ -402,10 +497,9 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public Player getPlayer(final String playerName) {
         if (playerName != null) {
-            for (final Player player : _playerTable.values()) {
-                if (player.getName().equals(playerName)) {
-                    return player;
-                }
+            final Wind wind = _nameIndex.get(playerName);
+            if (wind != null) {
+                return _playerArray[wind.ordinal()];
             }
         }
         return new Player();
@@ -419,7 +513,7 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public Player getPlayer(final Wind wind) {
         if (wind != null) {
-            return _playerTable.get(wind);
+            return _playerArray[wind.ordinal()];
         }
         else {
             return new Player();
@@ -432,7 +526,13 @@ public final class JanInfo extends Observable implements Cloneable {
      * @return プレイヤーテーブル。
      */
     public Map<Wind, Player> getPlayerTable() {
-        return deepCopyMap(_playerTable);
+        final Map<Wind, Player> result = new EnumMap<>(Wind.class);
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            if (_playerArray[i] != null) {
+                result.put(WIND_VALUES[i], _playerArray[i]);
+            }
+        }
+        return result;
     }
     
     /**
@@ -452,26 +552,80 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public River getRiver(final Wind wind) {
         if (wind != null) {
-            return _riverTable.get(wind).clone();
+            return _riverArray[wind.ordinal()];
         }
         else {
-            return new River();
+            return EMPTY_RIVER;
         }
     }
     
     /**
-     * 待ち牌テーブルを取得
+     * 捨て牌の版を取得
+     * 
+     * 捨て牌か、その席のプレイヤー名が変わるたびに増加する。(全ての卓で一意)
      * 
      * @param wind 風。
-     * @return 待ち牌テーブル。
+     * @return 捨て牌の版。
      */
-    public Map<CallType, List<JanPai>> getWaitTable(final Wind wind) {
+    public long getRiverVersion(final Wind wind) {
         if (wind != null) {
-            return deepCopyWaitTable(_waitTable.get(wind));
+            return _riverVersionArray[wind.ordinal()];
         }
         else {
-            return deepCopyWaitTable(new HashMap<CallType, List<JanPai>>());
+            return 0L;
+        }
+    }
+    
+    /**
+     * 指定プレイヤーから見える牌の枚数を取得
+     * 
+     * 全員から見える牌 (捨て牌、暗槓以外の副露牌) に、
+     * 自分の門前手牌と暗槓を足したもの。
+     * 
+     * @param wind 風。
+     * @return 見える牌の枚数。
+     */
+    public JanPaiCount getVisibleCount(final Wind wind) {
+        final int[] countArray = _visibleCountArray.clone();
+        if (wind != null) {
+            final JanPaiCount handCount = _handCountArray[wind.ordinal()];
+            for (int i = 0; i < countArray.length; i++) {
+                countArray[i] += handCount.get(i);
+            }
+            
+            final Hand hand = _handArray[wind.ordinal()];
+            if (hand.getFixedMenTsuCount() > 0) {
+                for (final MenTsu menTsu : hand.getFixedMenTsuList()) {
+                    if (menTsu.getMenTsuType() == MenTsuType.KAN_DARK) {
+                        for (final JanPai pai : menTsu.getSource()) {
+                            countArray[pai.ordinal()]++;
+                        }
+                    }
+                }
+            }
+        }
+        
+        final JanPai[] values = JanPai.values();
+        final JanPaiCount result = new JanPaiCount();
+        for (int i = 0; i < countArray.length; i++) {
+            result.add(values[i], Math.min(countArray[i], JanPaiCount.MAX_COUNT));
         }
+        return result;
+    }
+    
+    /**
+     * 待ち牌の集合を取得
+     * 
+     * @param wind 風。
+     * @param type 鳴きタイプ。
+     * @return 待ち牌の集合。(序数のビット)
+     */
+    public long getWaitMask(final Wind wind, final CallType type) {
+        if (wind == null || type == null) {
+            return 0L;
+        }
+        
+        return _waitMaskArray[wind.ordinal() * CALL_TYPE_COUNT + type.ordinal()];
     }
     
     /**
@@ -491,15 +645,37 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public Wind getWind(final String playerName) {
         if (playerName != null) {
-            for (final Map.Entry<Wind, Player> entry : _playerTable.entrySet()) {
-                if (entry.getValue().getName().equals(playerName)) {
-                    return entry.getKey();
-                }
+            final Wind wind = _nameIndex.get(playerName);
+            if (wind != null) {
+                return wind;
             }
         }
         throw new IllegalArgumentException("Invalid player name : " + playerName);
     }
     
+    /**
+     * 風を取得
+     * 
+     * プレイヤーIDで照合するため、通知後に名前が変わったプレイヤーでも引ける。
+     * 
+     * @param player プレイヤー。
+     * @return 風。
+     */
+    public Wind getWind(final Player player) {
+        if (player == null) {
+            throw new NullPointerException("Player is null.");
+        }
+        
+        if (player.getId() != Player.NO_ID) {
+            for (int i = 0; i < SEAT_COUNT; i++) {
+                if (_playerArray[i] != null && _playerArray[i].getId() == player.getId()) {
+                    return WIND_VALUES[i];
+                }
+            }
+        }
+        return getWind(player.getName());
+    }
+    
     /**
      * 牌山インデックスを増加
      */
@@ -528,6 +704,21 @@ public final class JanInfo extends Observable implements Cloneable {
         return getActivePlayer().getName().equals(playerName);
     }
     
+    /**
+     * 指定牌を鳴ける人間のプレイヤーがいるか
+     * 
+     * COMの待ち牌の集合も逆引きに載るが、鳴き確認の対象外のため判定から除く。
+     * 
+     * @param target 対象牌。
+     * @return 判定結果。
+     */
+    public boolean isCallable(final JanPai target) {
+        if (target == null) {
+            return false;
+        }
+        return (_callerIndex[target.ordinal()] & _humanCallerMask) != 0;
+    }
+    
     /**
      * ゲームに参加中のプレイヤーか
      * 
@@ -538,12 +729,7 @@ public final class JanInfo extends Observable implements Cloneable {
         if (playerName == null) {
             return false;
         }
-        for (final Player player : _playerTable.values()) {
-            if (player.getName().equals(playerName)) {
-                return true;
-            }
-        }
-        return false;
+        return _nameIndex.containsKey(playerName);
     }
     
     /**
@@ -559,14 +745,17 @@ public final class JanInfo extends Observable implements Cloneable {
     }
     
     /**
-     * 監視者に状態を通知 (強制)
+     * イベントを発行
      * 
-     * @param param 通知パラメータ。
+     * @param event イベント。
      */
-    @Override
-    public void notifyObservers(final Object param) {
-        setChanged();
-        super.notifyObservers(param);
+    public void publish(final JanEvent event) {
+        if (event == null) {
+            throw new NullPointerException("Event is null.");
+        }
+        if (_eventBus != null) {
+            _eventBus.publish(this, event);
+        }
     }
     
     /**
@@ -583,6 +772,37 @@ public final class JanInfo extends Observable implements Cloneable {
         }
     }
     
+    /**
+     * プレイヤー名を変更
+     * 
+     * 席とプレイヤーIDは変えないため、ゲームの状態には影響しない。
+     * 
+     * @param oldName 変更前のプレイヤー名。
+     * @param newName 変更後のプレイヤー名。
+     * @return 変更したか。(参加していない場合はfalse)
+     */
+    public boolean renamePlayer(final String oldName, final String newName) {
+        if (oldName == null) {
+            throw new NullPointerException("Old player name is null.");
+        }
+        if (newName == null) {
+            throw new NullPointerException("New player name is null.");
+        }
+        
+        final Wind wind = _nameIndex.get(oldName);
+        if (wind == null) {
+            return false;
+        }
+        if (_nameIndex.containsKey(newName)) {
+            throw new IllegalArgumentException("Player name is already used : " + newName);
+        }
+        
+        _playerArray[wind.ordinal()] = _playerArray[wind.ordinal()].rename(newName);
+        _riverVersionArray[wind.ordinal()] = nextVersion();  // 捨て牌の表示にはプレイヤー名を含む
+        updateNameIndex();
+        return true;
+    }
+    
     /**
      * アクティブプレイヤーを設定
      * 
@@ -590,10 +810,9 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public void setActivePlayer(final String playerName) {
         if (playerName != null) {
-            for (final Map.Entry<Wind, Player> entry : _playerTable.entrySet()) {
-                if (entry.getValue().getName().equals(playerName)) {
-                    setActiveWind(entry.getKey());
-                }
+            final Wind wind = _nameIndex.get(playerName);
+            if (wind != null) {
+                setActiveWind(wind);
             }
         }
     }
@@ -636,12 +855,13 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public void setCallableList(final Wind wind, final List<CallType> callableList) {
         if (wind != null) {
+            int callableBits = 0;
             if (callableList != null) {
-                _callableTable.put(wind, deepCopyList(callableList));
-            }
-            else {
-                _callableTable.put(wind, Collections.synchronizedList(new ArrayList<CallType>()));
+                for (final CallType type : callableList) {
+                    callableBits |= 1 << type.ordinal();
+                }
             }
+            _callableBitsArray[wind.ordinal()] = callableBits;
         }
     }
     
@@ -652,7 +872,13 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public void setCalledIndex(final Wind wind) {
         if (wind != null) {
-            _riverTable.get(wind).setCalledIndex();
+            final River river = _riverArray[wind.ordinal()];
+            if (!river.get().isEmpty()) {
+                // 鳴かれた牌は河から副露へ移るため、河の枚数から除く
+                addRiverCount(river.get().get(river.get().size() - 1), -1);
+            }
+            _riverArray[wind.ordinal()] = river.addCalledIndex();
+            _riverVersionArray[wind.ordinal()] = nextVersion();
             // 副露後の捨て牌選択時の残り枚数確認で、
             // _activeTsumoをカウントしないようnullを設定
             setActiveTsumo(null);
@@ -675,10 +901,10 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public void setDeck(final List<JanPai> deck) {
         if (deck != null) {
-            _deck = deepCopyList(deck);
+            _deck = Collections.unmodifiableList(new ArrayList<>(deck));
         }
         else {
-            _deck.clear();
+            _deck = Collections.emptyList();
         }
     }
     
@@ -739,11 +965,16 @@ public final class JanInfo extends Observable implements Cloneable {
     public void setHand(final Wind wind, final Hand hand) {
         if (wind != null) {
             if (hand != null) {
-                _handTable.put(wind, hand.clone());
+                _handArray[wind.ordinal()] = hand.clone();
+                _handCountArray[wind.ordinal()] = JanPaiCount.valueOf(hand.getMenZenMap());
+                updateOpenCount(wind, createOpenCount(hand));
             }
             else {
-                _handTable.put(wind, new Hand());
+                _handArray[wind.ordinal()] = EMPTY_HAND;
+                _handCountArray[wind.ordinal()] = EMPTY_HAND_COUNT;
+                updateOpenCount(wind, EMPTY_HAND_COUNT);
             }
+            _handVersionArray[wind.ordinal()] = nextVersion();
         }
     }
     
@@ -753,10 +984,12 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param playerTable プレイヤーテーブル。
      */
     public void setPlayerTable(final Map<Wind, Player> playerTable) {
-        _playerTable.clear();
-        if (playerTable != null) {
-            _playerTable.putAll(deepCopyMap(playerTable));
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            _playerArray[i] = playerTable != null ? playerTable.get(WIND_VALUES[i]) : null;
+            _riverVersionArray[i] = nextVersion();
         }
+        updateNameIndex();
+        updateHumanCallerMask();
     }
     
     /**
@@ -781,36 +1014,30 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     public void setRiver(final Wind wind, final List<JanPai> river) {
         if (wind != null) {
+            addRiverCount(_riverArray[wind.ordinal()], -1);
             if (river != null) {
-                _riverTable.put(wind, new River(river));
+                _riverArray[wind.ordinal()] = new River(river);
             }
             else {
-                _riverTable.put(wind, new River());
+                _riverArray[wind.ordinal()] = EMPTY_RIVER;
             }
+            _riverVersionArray[wind.ordinal()] = nextVersion();
+            addRiverCount(_riverArray[wind.ordinal()], 1);
         }
     }
     
     /**
-     * 河での残り枚数テーブルを設定
+     * 残り枚数を確認したい牌を設定
+     * 
+     * 残り枚数は河の牌の枚数から都度求めるため、ここでは対象の牌だけを追加で記録する。
      * 
      * @param targetList 残り枚数を確認したい牌リスト。
      */
     public void setRiverOuts(final List<JanPai> targetList) {
-        for (final JanPai pai : targetList) {
-            final List<JanPai> paiList = Arrays.asList(pai);
-            int visibleCount = 0;
-            
-            for (final Wind wind : Wind.values()) {
-                final List<JanPai> river = getRiver(wind).get();
-                river.retainAll(paiList);
-                visibleCount += river.size();
-                for (final Integer index : getRiver(wind).getCalledIndexList()) {
-                    if (pai.equals(getRiver(wind).get().get(index - 1))) {
-                        visibleCount--;
-                    }
-                }
+        if (targetList != null) {
+            for (final JanPai pai : targetList) {
+                _outsTargetMask |= 1L << pai.ordinal();
             }
-            _riverOuts.put(pai, 4 - visibleCount);
         }
     }
     
@@ -826,23 +1053,29 @@ public final class JanInfo extends Observable implements Cloneable {
         else {
             _status = GameStatus.CLOSE;
         }
-        notifyObservers();
     }
     
     /**
-     * 待ち牌テーブルを設定
+     * 待ち牌の集合を設定
      * 
      * @param wind 風。
-     * @param table 待ち牌テーブル。
+     * @param type 鳴きタイプ。
+     * @param mask 待ち牌の集合。(序数のビット)
      */
-    public void setWaitTable(final Wind wind, final Map<CallType, List<JanPai>> table) {
-        if (wind != null) {
-            if (table != null) {
-                _waitTable.put(wind, deepCopyWaitTable(table));
-            }
-            else {
-                _waitTable.put(wind, deepCopyWaitTable(new HashMap<CallType, List<JanPai>>()));
-            }
+    public void setWaitMask(final Wind wind, final CallType type, final long mask) {
+        if (wind == null || type == null) {
+            return;
+        }
+        
+        final int index = wind.ordinal() * CALL_TYPE_COUNT + type.ordinal();
+        long diff = _waitMaskArray[index] ^ mask;
+        _waitMaskArray[index] = mask;
+        
+        // 変化した牌だけ逆引きを更新
+        final int callerBit = 1 << (getCallerShift(wind) + type.ordinal());
+        while (diff != 0) {
+            _callerIndex[Long.numberOfTrailingZeros(diff)] ^= callerBit;
+            diff &= diff - 1;
         }
     }
     
@@ -860,45 +1093,147 @@ public final class JanInfo extends Observable implements Cloneable {
         }
     }
     
+    /**
+     * まとめて実況する打牌を全て取り出す
+     * 
+     * 溜めていたリストをそのまま渡し、以降の打牌は新しいリストに溜める。
+     * 
+     * @return まとめて実況する打牌のリスト。(変更不可)
+     */
+    public List<DiscardRecord> takePendingDiscardList() {
+        if (_pendingDiscardList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        final List<DiscardRecord> resultList = Collections.unmodifiableList(_pendingDiscardList);
+        _pendingDiscardList = new ArrayList<>();
+        return resultList;
+    }
+    
+    
+    
+    /**
+     * イベントの配信を取得
+     * 
+     * 受信者を登録しない卓では生成しない。
+     * 
+     * @return イベントの配信。
+     */
+    JanEventBus getEventBus() {
+        if (_eventBus == null) {
+            _eventBus = new JanEventBus();
+        }
+        return _eventBus;
+    }
+    
+    /**
+     * 手牌を複製せずに取得
+     * 
+     * 格納中の手牌をそのまま返すため、読み込みにのみ使用すること。
+     * 
+     * @param player プレイヤー。
+     * @return 手牌。(変更不可)
+     */
+    Hand getHandView(final Player player) {
+        if (player != null) {
+            try {
+                return getHandView(getWind(player));
+            }
+            catch (final IllegalArgumentException e) {
+                // 指定のプレイヤーが存在しなかった場合のエラーを無視
+            }
+        }
+        return EMPTY_HAND;
+    }
+    
+    /**
+     * 手牌を複製せずに取得
+     * 
+     * 格納中の手牌をそのまま返すため、読み込みにのみ使用すること。
+     * 
+     * @param wind 風。
+     * @return 手牌。(変更不可)
+     */
+    Hand getHandView(final Wind wind) {
+        if (wind != null) {
+            return _handArray[wind.ordinal()];
+        }
+        else {
+            return EMPTY_HAND;
+        }
+    }
+    
     
     
     /**
-     * リストをディープコピー
+     * 逆引きの値で風に対応するシフト量を取得
      * 
-     * @param sourceList 複製元。
-     * @return 複製結果。
+     * @param wind 風。
+     * @return シフト量。
      */
-    private <E> List<E> deepCopyList(final List<E> sourceList) {
-        return Collections.synchronizedList(new ArrayList<E>(sourceList));
+    private static int getCallerShift(final Wind wind) {
+        return wind.ordinal() * CALL_TYPE_COUNT;
     }
     
     /**
-     * マップをディープコピー
+     * 次の版を取得
      * 
-     * @param source 複製元。
-     * @return 複製結果。
+     * @return 次の版。
      */
-    private <S, T> Map<S, T> deepCopyMap(final Map<S, T> source) {
-        return Collections.synchronizedMap(new TreeMap<S, T>(source));
+    private static long nextVersion() {
+        return VERSION_SEQUENCE.incrementAndGet();
     }
     
     /**
-     * 待ち牌テーブルをディープコピー
+     * 河の牌の枚数に加算
      * 
-     * @param source 複製元。
-     * @return 複製結果。
+     * 全員から見える牌の枚数にも同じだけ加算する。
+     * 
+     * @param pai 対象牌。
+     * @param count 加算する枚数。
      */
-    private Map<CallType, List<JanPai>> deepCopyWaitTable(final Map<CallType, List<JanPai>> source) {
-        final Map<CallType, List<JanPai>> result = Collections.synchronizedMap(new TreeMap<CallType, List<JanPai>>());
-        for (final CallType type : CallType.values()) {
-            if (source.containsKey(type)) {
-                result.put(type, deepCopyList(source.get(type)));
-            }
-            else {
-                result.put(type, Collections.synchronizedList(new ArrayList<JanPai>()));
+    private void addRiverCount(final JanPai pai, final int count) {
+        _riverCountArray[pai.ordinal()] += count;
+        _visibleCountArray[pai.ordinal()] += count;
+    }
+    
+    /**
+     * 河の牌の枚数に捨て牌を加算
+     * 
+     * @param river 捨て牌。
+     * @param sign 加算する向き。(1 または -1)
+     */
+    private void addRiverCount(final River river, final int sign) {
+        final List<JanPai> paiList = river.get();
+        for (final JanPai pai : paiList) {
+            addRiverCount(pai, sign);
+        }
+        for (final Integer index : river.getCalledIndexList()) {
+            // 被副露牌インデックスは鳴かれた牌の次の位置を指す
+            addRiverCount(paiList.get(index - 1), -sign);
+        }
+    }
+    
+    /**
+     * 公開された副露牌の枚数を生成
+     * 
+     * @param hand 手牌。
+     * @return 暗槓以外の副露牌の枚数。
+     */
+    private JanPaiCount createOpenCount(final Hand hand) {
+        if (hand.getFixedMenTsuCount() == 0) {
+            return EMPTY_HAND_COUNT;
+        }
+        
+        final JanPaiCount openCount = new JanPaiCount();
+        for (final MenTsu menTsu : hand.getFixedMenTsuList()) {
+            if (menTsu.getMenTsuType() != MenTsuType.KAN_DARK) {
+                for (final JanPai pai : menTsu.getSource()) {
+                    openCount.add(pai);
+                }
             }
         }
-        return result;
+        return openCount;
     }
     
     /**
@@ -935,6 +1270,108 @@ public final class JanInfo extends Observable implements Cloneable {
             return false;
         }
     }
+    /**
+     * 河に見えている牌を除いた残り枚数を取得
+     * 
+     * @param pai 対象牌。
+     * @return 残り枚数。
+     */
+    private int getRiverOuts(final JanPai pai) {
+        return JanPaiCount.MAX_COUNT - _riverCountArray[pai.ordinal()];
+    }
+    
+    /**
+     * 公開された副露牌の枚数を更新
+     * 
+     * @param wind 風。
+     * @param openCount 暗槓以外の副露牌の枚数。
+     */
+    private void updateOpenCount(final Wind wind, final JanPaiCount openCount) {
+        final JanPaiCount oldCount = _openCountArray[wind.ordinal()];
+        if (oldCount == openCount) {
+            return;
+        }
+        for (int i = 0; i < _visibleCountArray.length; i++) {
+            _visibleCountArray[i] += openCount.get(i) - oldCount.get(i);
+        }
+        _openCountArray[wind.ordinal()] = openCount;
+    }
+    
+    /**
+     * 逆引きのうち人間のプレイヤーの席のビットを作り直す
+     */
+    private void updateHumanCallerMask() {
+        int humanCallerMask = 0;
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            if (_playerArray[i] != null && _playerArray[i].getType() == PlayerType.HUMAN) {
+                humanCallerMask |= CALL_TYPE_MASK << getCallerShift(WIND_VALUES[i]);
+            }
+        }
+        _humanCallerMask = humanCallerMask;
+    }
+    
+    /**
+     * プレイヤー名から風への索引を作り直す
+     * 
+     * 索引は丸ごと差し替えるため、複製とは共有したままで良い。
+     */
+    private void updateNameIndex() {
+        final Map<String, Wind> nameIndex = new HashMap<>();
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            if (_playerArray[i] != null && !nameIndex.containsKey(_playerArray[i].getName())) {
+                nameIndex.put(_playerArray[i].getName(), WIND_VALUES[i]);
+            }
+        }
+        _nameIndex = nameIndex;
+    }
+    
+    
+    
+    
+    /**
+     * 全ての風 (序数順)
+     */
+    private static final Wind[] WIND_VALUES = Wind.values();
+    
+    /**
+     * 席の数
+     */
+    private static final int SEAT_COUNT = WIND_VALUES.length;
+    
+    /**
+     * 全ての鳴きタイプ (序数順)
+     */
+    private static final CallType[] CALL_TYPE_VALUES = CallType.values();
+    
+    /**
+     * 鳴きタイプの数
+     */
+    private static final int CALL_TYPE_COUNT = CALL_TYPE_VALUES.length;
+    
+    /**
+     * 風1人分の鳴きタイプの集合のマスク
+     */
+    private static final int CALL_TYPE_MASK = (1 << CALL_TYPE_COUNT) - 1;
+    
+    /**
+     * 手牌と捨て牌の版の採番 (全ての卓で共有し、異なる卓や複製の間でも版が重ならないようにする)
+     */
+    private static final AtomicLong VERSION_SEQUENCE = new AtomicLong();
+    
+    /**
+     * 空の手牌 (変更しないこと)
+     */
+    private static final Hand EMPTY_HAND = new Hand();
+    
+    /**
+     * 空の門前の手牌の枚数 (変更しないこと)
+     */
+    private static final JanPaiCount EMPTY_HAND_COUNT = new JanPaiCount();
+    
+    /**
+     * 空の捨て牌
+     */
+    private static final River EMPTY_RIVER = new River();
     
     
     
@@ -944,27 +1381,60 @@ public final class JanInfo extends Observable implements Cloneable {
     private GameStatus _status = GameStatus.CLOSE;
     
     /**
-     * プレイヤーテーブル
+     * プレイヤー (風の序数ごと)
+     */
+    private final Player[] _playerArray = new Player[SEAT_COUNT];
+    
+    /**
+     * プレイヤー名から風への索引 (格納後は変更しない)
      */
-    private final Map<Wind, Player> _playerTable = Collections.synchronizedMap(new TreeMap<Wind, Player>());
+    private Map<String, Wind> _nameIndex = Collections.emptyMap();
     
     /**
-     * 待ち牌テーブル
+     * 待ち牌の集合 (風の序数 * 鳴きタイプ数 + 鳴きタイプの序数ごと)
      */
-    private final Map<Wind, Map<CallType, List<JanPai>>> _waitTable = Collections.synchronizedMap(new TreeMap<Wind, Map<CallType, List<JanPai>>>());
+    private final long[] _waitMaskArray = new long[SEAT_COUNT * CALL_TYPE_COUNT];
     
     /**
-     * 鳴き可能テーブル
+     * 牌から鳴けるプレイヤーへの逆引き (牌の序数ごと、風と鳴きタイプの組のビット)
+     */
+    private final int[] _callerIndex = new int[JanPai.values().length];
+    
+    /**
+     * 逆引きのうち人間のプレイヤーの席のビット
+     */
+    private int _humanCallerMask = 0;
+    
+    /**
+     * 全員から見える牌の枚数 (牌の序数ごと)
      * 
-     * 待ち牌テーブルから算出可能だが、ロン可否の判定コストが重いため
+     * 捨て牌 (副露された牌を除く) と暗槓以外の副露牌を数える。
+     * 打牌、副露、カンのたびに差分だけ更新し、河を数え直さずに済ませる。
+     */
+    private final int[] _visibleCountArray = new int[JanPai.values().length];
+    
+    /**
+     * 河の牌の枚数 (牌の序数ごと、副露された牌を除く)
+     */
+    private final int[] _riverCountArray = new int[JanPai.values().length];
+    
+    /**
+     * 公開された副露牌の枚数 (風の序数ごと、格納後に変更しない)
+     */
+    private final JanPaiCount[] _openCountArray = new JanPaiCount[SEAT_COUNT];
+    
+    /**
+     * 鳴き可能な鳴きタイプの集合 (風の序数ごと、鳴きタイプの序数のビット)
+     * 
+     * 待ち牌の集合から算出可能だが、ロン可否の判定コストが重いため
      * キャッシュも兼ねて別メンバとして持つ
      */
-    private final Map<Wind, List<CallType>> _callableTable = Collections.synchronizedMap(new TreeMap<Wind, List<CallType>>());
+    private final int[] _callableBitsArray = new int[SEAT_COUNT];
     
     /**
-     * 牌山
+     * 牌山 (変更不可)
      */
-    private List<JanPai> _deck = new ArrayList<>();
+    private List<JanPai> _deck = Collections.emptyList();
     
     /**
      * 牌山インデックス
@@ -997,19 +1467,36 @@ public final class JanInfo extends Observable implements Cloneable {
     private int _remainCount = 0;
     
     /**
-     * 河での残り枚数テーブル
+     * 残り枚数を確認したい牌の集合 (序数のビット)
+     */
+    private long _outsTargetMask = 0L;
+    
+    /**
+     * 手牌 (風の序数ごと、格納後に変更しない)
+     */
+    private final Hand[] _handArray = new Hand[SEAT_COUNT];
+    
+    /**
+     * 門前の手牌の枚数 (風の序数ごと、格納後に変更しない)
+     * 
+     * 手牌と同時に更新し、待ち判定などで手牌マップを都度生成せずに済ませる
+     */
+    private final JanPaiCount[] _handCountArray = new JanPaiCount[SEAT_COUNT];
+    
+    /**
+     * 捨て牌 (風の序数ごと)
      */
-    private Map<JanPai, Integer> _riverOuts = new TreeMap<>();
+    private final River[] _riverArray = new River[SEAT_COUNT];
     
     /**
-     * 手牌テーブル
+     * 手牌の版 (風の序数ごと)
      */
-    private Map<Wind, Hand> _handTable = new TreeMap<>();
+    private final long[] _handVersionArray = new long[SEAT_COUNT];
     
     /**
-     * 捨て牌テーブル
+     * 捨て牌の版 (風の序数ごと)
      */
-    private Map<Wind, River> _riverTable = new TreeMap<>();
+    private final long[] _riverVersionArray = new long[SEAT_COUNT];
     
     /**
      * 直前のツモ牌
@@ -1026,5 +1513,15 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     private ChmCompleteInfo _completeInfo = null;
     
+    /**
+     * まとめて実況する打牌のリスト (取り出すまで追記する)
+     */
+    private List<DiscardRecord> _pendingDiscardList = new ArrayList<>();
+    
+    /**
+     * イベントの配信 (受信者の登録時に生成)
+     */
+    private JanEventBus _eventBus = null;
+    
 }
 
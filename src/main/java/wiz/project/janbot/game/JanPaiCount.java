@@ -0,0 +1,469 @@
+/**
+ * JanPaiCount.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 牌ごとの枚数
+ * 
+ * 34種の牌の枚数を1種3ビットで2つのlongに詰めて保持する。
+ * 萬子と筒子を1つ目、索子と字牌を2つ目のlongに格納するため、種類ごとの枚数を
+ * シフトとマスクだけで取り出せる。
+ */
+public final class JanPaiCount implements Cloneable {
+    
+    /**
+     * コンストラクタ
+     */
+    public JanPaiCount() {
+    }
+    
+    /**
+     * コピーコンストラクタ
+     * 
+     * @param source 複製元。
+     */
+    public JanPaiCount(final JanPaiCount source) {
+        if (source != null) {
+            _low = source._low;
+            _high = source._high;
+            _total = source._total;
+        }
+    }
+    
+    
+    
+    /**
+     * 牌ごとの枚数マップから生成
+     * 
+     * @param source 牌ごとの枚数マップ。
+     * @return 牌ごとの枚数。
+     */
+    public static JanPaiCount valueOf(final Map<JanPai, Integer> source) {
+        if (source == null) {
+            throw new NullPointerException("Source map is null.");
+        }
+        
+        final JanPaiCount result = new JanPaiCount();
+        for (final Map.Entry<JanPai, Integer> entry : source.entrySet()) {
+            final int count = entry.getValue();
+            if (count > 0) {
+                result.add(entry.getKey(), count);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 牌ごとの枚数の配列から生成
+     * 
+     * @param countArray 牌ごとの枚数。(JanPaiの序数でアクセス)
+     * @return 牌ごとの枚数。
+     */
+    public static JanPaiCount valueOf(final int[] countArray) {
+        if (countArray == null) {
+            throw new NullPointerException("Count array is null.");
+        }
+        if (countArray.length != JANPAI_COUNT) {
+            throw new IllegalArgumentException("Invalid count array size : " + countArray.length);
+        }
+        
+        final JanPaiCount result = new JanPaiCount();
+        for (int i = 0; i < countArray.length; i++) {
+            result.add(VALUES[i], countArray[i]);
+        }
+        return result;
+    }
+    
+    
+    
+    /**
+     * 牌を1枚追加
+     * 
+     * @param pai 追加する牌。
+     */
+    public void add(final JanPai pai) {
+        add(pai, 1);
+    }
+    
+    /**
+     * 牌を追加
+     * 
+     * @param pai 追加する牌。
+     * @param count 追加する枚数。
+     */
+    public void add(final JanPai pai, final int count) {
+        if (pai == null) {
+            throw new NullPointerException("Jan pai is null.");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count : " + count);
+        }
+        
+        final int ordinal = pai.ordinal();
+        if (get(ordinal) + count > MAX_COUNT) {
+            throw new IllegalStateException("Too many jan pai : " + pai);
+        }
+        if (ordinal < HIGH_OFFSET) {
+            _low += (long)count << getShift(ordinal);
+        }
+        else {
+            _high += (long)count << getShift(ordinal);
+        }
+        _total += count;
+    }
+    
+    /**
+     * 全ての牌を消去
+     */
+    public void clear() {
+        _low = 0;
+        _high = 0;
+        _total = 0;
+    }
+    
+    /**
+     * オブジェクトを複製
+     * 
+     * @return 複製結果。
+     */
+    @Override
+    public JanPaiCount clone() {
+        return new JanPaiCount(this);
+    }
+    
+    /**
+     * 指定牌を含むか
+     * 
+     * @param pai 確認対象牌。
+     * @return 判定結果。
+     */
+    public boolean contains(final JanPai pai) {
+        return get(pai) > 0;
+    }
+    
+    /**
+     * 等価なオブジェクトか
+     * 
+     * @param target 比較対象。
+     * @return 比較結果。
+     */
+    @Override
+    public boolean equals(final Object target) {
+        if (target == null) {
+            return false;
+        }
+        if (this == target) {
+            return true;
+        }
+        if (!(target instanceof JanPaiCount)) {
+            return false;
+        }
+        
+        final JanPaiCount targetCount = (JanPaiCount)target;
+        return _low == targetCount._low &&
+               _high == targetCount._high;
+    }
+    
+    /**
+     * 指定牌の枚数を取得
+     * 
+     * @param pai 対象牌。
+     * @return 枚数。
+     */
+    public int get(final JanPai pai) {
+        if (pai == null) {
+            throw new NullPointerException("Jan pai is null.");
+        }
+        return get(pai.ordinal());
+    }
+    
+    /**
+     * 指定牌の枚数を取得
+     * 
+     * @param ordinal 対象牌の序数。
+     * @return 枚数。
+     */
+    public int get(final int ordinal) {
+        if (ordinal < HIGH_OFFSET) {
+            return (int)(_low >>> getShift(ordinal)) & COUNT_MASK;
+        }
+        return (int)(_high >>> getShift(ordinal)) & COUNT_MASK;
+    }
+    
+    /**
+     * 1枚以上ある牌の集合を取得
+     * 
+     * @return 牌の集合。(序数のビット)
+     */
+    public long getMask() {
+        return getMask(1);
+    }
+    
+    /**
+     * 指定枚数以上ある牌の集合を取得
+     * 
+     * @param minCount 最小枚数。
+     * @return 牌の集合。(序数のビット)
+     */
+    public long getMask(final int minCount) {
+        long mask = 0L;
+        for (int i = 0; i < JANPAI_COUNT; i++) {
+            if (get(i) >= minCount) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * 種類ごとの枚数を取得
+     * 
+     * 戻り値は1から順に1種3ビットで詰めた値。(数牌は27ビット、字牌は21ビット)
+     * 
+     * @param suit 種類。(SUIT_MAN、SUIT_PIN、SUIT_SOU、SUIT_JI)
+     * @return 種類ごとの枚数。
+     */
+    public int getSuitBits(final int suit) {
+        switch (suit) {
+        case SUIT_MAN:
+            return (int)(_low & NUMBER_SUIT_MASK);
+        case SUIT_PIN:
+            return (int)((_low >>> NUMBER_SUIT_BITS) & NUMBER_SUIT_MASK);
+        case SUIT_SOU:
+            return (int)(_high & NUMBER_SUIT_MASK);
+        case SUIT_JI:
+            return (int)(_high >>> NUMBER_SUIT_BITS);
+        default:
+            throw new IllegalArgumentException("Invalid suit : " + suit);
+        }
+    }
+    
+    /**
+     * 合計枚数を取得
+     * 
+     * @return 合計枚数。
+     */
+    public int getTotal() {
+        return _total;
+    }
+    
+    /**
+     * ハッシュコードを取得
+     * 
+     * @return ハッシュコード。
+     */
+    @Override
+    public int hashCode() {
+        final long mixed = _low * 31 + _high;
+        return (int)(mixed ^ (mixed >>> 32));
+    }
+    
+    /**
+     * 牌が無いか
+     * 
+     * @return 判定結果。
+     */
+    public boolean isEmpty() {
+        return _total == 0;
+    }
+    
+    /**
+     * 牌を1枚削除
+     * 
+     * @param pai 削除する牌。
+     */
+    public void remove(final JanPai pai) {
+        remove(pai, 1);
+    }
+    
+    /**
+     * 牌を削除
+     * 
+     * @param pai 削除する牌。
+     * @param count 削除する枚数。
+     */
+    public void remove(final JanPai pai, final int count) {
+        if (pai == null) {
+            throw new NullPointerException("Jan pai is null.");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count : " + count);
+        }
+        
+        final int ordinal = pai.ordinal();
+        if (get(ordinal) < count) {
+            throw new IllegalStateException("Jan pai is not enough : " + pai);
+        }
+        if (ordinal < HIGH_OFFSET) {
+            _low -= (long)count << getShift(ordinal);
+        }
+        else {
+            _high -= (long)count << getShift(ordinal);
+        }
+        _total -= count;
+    }
+    
+    /**
+     * 牌ごとの枚数マップに変換
+     * 
+     * 枚数が0の牌は含まない。
+     * 
+     * @return 牌ごとの枚数マップ。
+     */
+    public Map<JanPai, Integer> toMap() {
+        final Map<JanPai, Integer> result = new TreeMap<>();
+        for (int i = 0; i < JANPAI_COUNT; i++) {
+            final int count = get(i);
+            if (count > 0) {
+                result.put(VALUES[i], count);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < JANPAI_COUNT; i++) {
+            final int count = get(i);
+            for (int j = 0; j < count; j++) {
+                buf.append(VALUES[i]);
+            }
+        }
+        return buf.toString();
+    }
+    
+    
+    
+    /**
+     * 索子と字牌の枚数を詰めた値を取得
+     * 
+     * 萬子と筒子の値と合わせて、枚数の組み合わせを一意に表す。
+     * 
+     * @return 索子と字牌の枚数。
+     */
+    long getHighBits() {
+        return _high;
+    }
+    
+    /**
+     * 萬子と筒子の枚数を詰めた値を取得
+     * 
+     * @return 萬子と筒子の枚数。
+     */
+    long getLowBits() {
+        return _low;
+    }
+    
+    
+    
+    /**
+     * 序数に対応するシフト量を取得
+     * 
+     * @param ordinal 牌の序数。
+     * @return シフト量。
+     */
+    private static int getShift(final int ordinal) {
+        if (ordinal < HIGH_OFFSET) {
+            return ordinal * COUNT_BITS;
+        }
+        return (ordinal - HIGH_OFFSET) * COUNT_BITS;
+    }
+    
+    
+    
+    /**
+     * 種類 (萬子)
+     */
+    public static final int SUIT_MAN = 0;
+    
+    /**
+     * 種類 (筒子)
+     */
+    public static final int SUIT_PIN = 1;
+    
+    /**
+     * 種類 (索子)
+     */
+    public static final int SUIT_SOU = 2;
+    
+    /**
+     * 種類 (字牌)
+     */
+    public static final int SUIT_JI = 3;
+    
+    /**
+     * 1種あたりの最大枚数
+     */
+    public static final int MAX_COUNT = 4;
+    
+    /**
+     * 牌の種類数
+     */
+    public static final int JANPAI_COUNT = 34;
+    
+    /**
+     * 1種あたりのビット数
+     */
+    private static final int COUNT_BITS = 3;
+    
+    /**
+     * 1種分のマスク
+     */
+    private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+    
+    /**
+     * 数牌1種類分のビット数
+     */
+    private static final int NUMBER_SUIT_BITS = 9 * COUNT_BITS;
+    
+    /**
+     * 数牌1種類分のマスク
+     */
+    private static final long NUMBER_SUIT_MASK = (1L << NUMBER_SUIT_BITS) - 1;
+    
+    /**
+     * 2つ目のlongに格納する最初の牌の序数 (索子の1)
+     */
+    private static final int HIGH_OFFSET = JanPai.SOU_1.ordinal();
+    
+    /**
+     * 全ての牌 (序数順)
+     */
+    private static final JanPai[] VALUES = JanPai.values();
+    
+    
+    
+    /**
+     * 萬子と筒子の枚数
+     */
+    private long _low = 0;
+    
+    /**
+     * 索子と字牌の枚数
+     */
+    private long _high = 0;
+    
+    /**
+     * 合計枚数
+     */
+    private int _total = 0;
+    
+}
@@ -0,0 +1,193 @@
+/**
+ * JanPaiGlyph.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.List;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 色付けした雀牌の表記
+ * 
+ * 雀牌ごとの表記 (通常、副露された牌、暗槓子) を起動時に1度だけ生成し、実況の描画では生成済みの文字列を連結する。
+ */
+final class JanPaiGlyph {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private JanPaiGlyph() {
+    }
+    
+    
+    
+    /**
+     * 雀牌を連結
+     * 
+     * @param buf 連結先。
+     * @param pai 雀牌。
+     */
+    public static void append(final StringBuilder buf, final JanPai pai) {
+        buf.append(NORMAL_TABLE[pai.ordinal()]);
+    }
+    
+    /**
+     * 同じ色の雀牌リストを1つの色付けで連結
+     * 
+     * @param buf 連結先。
+     * @param paiList 雀牌リスト。(色は先頭の雀牌に合わせる)
+     */
+    public static void append(final StringBuilder buf, final List<JanPai> paiList) {
+        buf.append(COLOR_PREFIX_TABLE[paiList.get(0).ordinal()]);
+        for (final JanPai pai : paiList) {
+            buf.append(LABEL_TABLE[pai.ordinal()]);
+        }
+        buf.append(COLOR_FLAG);
+    }
+    
+    /**
+     * 雀牌の表記を取得
+     * 
+     * @param pai 雀牌。
+     * @return 色付けした表記。
+     */
+    public static String get(final JanPai pai) {
+        return NORMAL_TABLE[pai.ordinal()];
+    }
+    
+    /**
+     * 副露された雀牌の表記を取得
+     * 
+     * @param pai 雀牌。
+     * @return 灰色で色付けした表記。
+     */
+    public static String getCalled(final JanPai pai) {
+        return CALLED_TABLE[pai.ordinal()];
+    }
+    
+    /**
+     * 暗槓子の表記を取得
+     * 
+     * @param pai 雀牌。
+     * @return 色付けした表記。
+     */
+    public static String getKanDark(final JanPai pai) {
+        return KAN_DARK_TABLE[pai.ordinal()];
+    }
+    
+    
+    
+    /**
+     * 色コードを取得
+     * 
+     * @param pai 雀牌。
+     * @return 対応する色コード。
+     */
+    private static String getColorCode(final JanPai pai) {
+        switch (pai) {
+        case MAN_1:
+        case MAN_2:
+        case MAN_3:
+        case MAN_4:
+        case MAN_5:
+        case MAN_6:
+        case MAN_7:
+        case MAN_8:
+        case MAN_9:
+        case CHUN:
+            return "04";  // 赤
+        case PIN_1:
+        case PIN_2:
+        case PIN_3:
+        case PIN_4:
+        case PIN_5:
+        case PIN_6:
+        case PIN_7:
+        case PIN_8:
+        case PIN_9:
+            return "12";  // 青
+        case SOU_1:
+        case SOU_2:
+        case SOU_3:
+        case SOU_4:
+        case SOU_5:
+        case SOU_6:
+        case SOU_7:
+        case SOU_8:
+        case SOU_9:
+        case HATU:
+            return "03";  // 緑
+        case TON:
+        case NAN:
+        case SHA:
+        case PEI:
+            return "06";  // 紫
+        default:
+            return "01";  // 黒
+        }
+    }
+    
+    
+    
+    /**
+     * 色付けフラグ
+     */
+    static final char COLOR_FLAG = 3;
+    
+    /**
+     * 副露された雀牌の色コード (灰色)
+     */
+    private static final String CALLED_COLOR_CODE = "14";
+    
+    /**
+     * 雀牌ごとの表記 (色付けなし)
+     */
+    private static final String[] LABEL_TABLE;
+    
+    /**
+     * 雀牌ごとの色付けの開始部分
+     */
+    private static final String[] COLOR_PREFIX_TABLE;
+    
+    /**
+     * 雀牌ごとの表記
+     */
+    private static final String[] NORMAL_TABLE;
+    
+    /**
+     * 副露された雀牌ごとの表記
+     */
+    private static final String[] CALLED_TABLE;
+    
+    /**
+     * 暗槓子の表記
+     */
+    private static final String[] KAN_DARK_TABLE;
+    
+    static {
+        final JanPai[] paiArray = JanPai.values();
+        LABEL_TABLE = new String[paiArray.length];
+        COLOR_PREFIX_TABLE = new String[paiArray.length];
+        NORMAL_TABLE = new String[paiArray.length];
+        CALLED_TABLE = new String[paiArray.length];
+        KAN_DARK_TABLE = new String[paiArray.length];
+        for (final JanPai pai : paiArray) {
+            final int index = pai.ordinal();
+            final String label = pai.toString();
+            final String prefix = COLOR_FLAG + getColorCode(pai);
+            LABEL_TABLE[index] = label;
+            COLOR_PREFIX_TABLE[index] = prefix;
+            NORMAL_TABLE[index] = prefix + label + COLOR_FLAG;
+            CALLED_TABLE[index] = COLOR_FLAG + CALLED_COLOR_CODE + label + COLOR_FLAG;
+            KAN_DARK_TABLE[index] = prefix + "[■]" + label + label + "[■]" + COLOR_FLAG;
+        }
+    }
+    
+}
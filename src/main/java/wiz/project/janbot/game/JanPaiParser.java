@@ -0,0 +1,253 @@
+/**
+ * JanPaiParser.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import wiz.project.jan.JanPai;
+import wiz.project.janbot.game.exception.InvalidInputException;
+
+
+
+/**
+ * 牌の表記の解析
+ * 
+ * 数牌は「1m」「9s」のような数字+種類の表記、字牌は「東」「ton」のような別名で指定する。
+ * 複数牌の解析では「123m456p東東」のような省略表記も受け付ける。
+ */
+public final class JanPaiParser {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private JanPaiParser() {
+    }
+    
+    
+    
+    /**
+     * 1牌分の表記を解析
+     * 
+     * @param source 牌の表記。
+     * @return 牌。
+     * @throws InvalidInputException 不正な表記。
+     */
+    public static JanPai parse(final String source) throws InvalidInputException {
+        if (source == null) {
+            throw new NullPointerException("Source is null.");
+        }
+        
+        if (source.length() == 2) {
+            final int index = getNumberIndex(source.charAt(0), source.charAt(1));
+            if (index >= 0) {
+                return VALUES[index];
+            }
+        }
+        
+        final JanPai pai = ALIAS_MAP.get(source);
+        if (pai == null) {
+            throw new InvalidInputException("Invalid jan pai - " + source);
+        }
+        return pai;
+    }
+    
+    /**
+     * 複数牌の表記を解析し、牌ごとの枚数を取得
+     * 
+     * 1文字ずつ走査し、文字列の切り出しを行わない。
+     * 
+     * @param source 牌の表記。
+     * @return 牌ごとの枚数。
+     * @throws InvalidInputException 不正な表記。
+     */
+    public static JanPaiCount parseCount(final String source) throws InvalidInputException {
+        if (source == null) {
+            throw new NullPointerException("Source is null.");
+        }
+        
+        final JanPaiCount result = new JanPaiCount();
+        final int length = source.length();
+        int numberStart = -1;  // 種類の指定を待っている数字の開始位置
+        int index = 0;
+        while (index < length) {
+            final char c = source.charAt(index);
+            if ('1' <= c && c <= '9') {
+                if (numberStart < 0) {
+                    numberStart = index;
+                }
+                index++;
+                continue;
+            }
+            
+            if (numberStart >= 0) {
+                // 数字の直後は種類の指定のみ
+                final int offset = getSuitOffset(c);
+                if (offset < 0) {
+                    throw new InvalidInputException("Invalid jan pai - " + source);
+                }
+                for (int i = numberStart; i < index; i++) {
+                    addJanPai(result, VALUES[offset + source.charAt(i) - '1'], source);
+                }
+                numberStart = -1;
+                index++;
+                continue;
+            }
+            
+            final int jiIndex = JI_CHARACTERS.indexOf(c);
+            if (jiIndex >= 0) {
+                addJanPai(result, VALUES[JI_OFFSET + jiIndex], source);
+                index++;
+                continue;
+            }
+            
+            final int aliasIndex = findAlias(source, index);
+            if (aliasIndex < 0) {
+                throw new InvalidInputException("Invalid jan pai - " + source);
+            }
+            addJanPai(result, ALIAS_PAI_ARRAY[aliasIndex], source);
+            index += ALIAS_ARRAY[aliasIndex].length();
+        }
+        
+        if (numberStart >= 0) {
+            throw new InvalidInputException("Invalid jan pai - " + source);
+        }
+        return result;
+    }
+    
+    
+    
+    /**
+     * 解析した牌を1枚加算
+     * 
+     * @param count 牌ごとの枚数。
+     * @param pai 加算する牌。
+     * @param source 牌の表記。
+     * @throws InvalidInputException 同じ牌が5枚以上ある。
+     */
+    private static void addJanPai(final JanPaiCount count, final JanPai pai, final String source) throws InvalidInputException {
+        if (count.get(pai) >= JanPaiCount.MAX_COUNT) {
+            throw new InvalidInputException("Invalid jan pai - " + source);
+        }
+        count.add(pai);
+    }
+    
+    /**
+     * 指定位置に一致する字牌の別名を検索
+     * 
+     * 長い別名から順に照合するため、「chun」と「ch」のような前方一致は長い方が優先される。
+     * 
+     * @param source 牌の表記。
+     * @param index 照合開始位置。
+     * @return 別名のインデックス。(一致しない場合は-1)
+     */
+    private static int findAlias(final String source, final int index) {
+        for (int i = 0; i < ALIAS_ARRAY.length; i++) {
+            final String alias = ALIAS_ARRAY[i];
+            if (source.regionMatches(index, alias, 0, alias.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 数牌の序数を取得
+     * 
+     * @param number 数字。
+     * @param suit 種類。
+     * @return 数牌の序数。(数牌の表記でない場合は-1)
+     */
+    private static int getNumberIndex(final char number, final char suit) {
+        if (number < '1' || '9' < number) {
+            return -1;
+        }
+        final int offset = getSuitOffset(suit);
+        if (offset < 0) {
+            return -1;
+        }
+        return offset + number - '1';
+    }
+    
+    /**
+     * 数牌の種類ごとの序数オフセットを取得
+     * 
+     * @param suit 種類。
+     * @return 序数オフセット。(種類の表記でない場合は-1)
+     */
+    private static int getSuitOffset(final char suit) {
+        if (suit >= SUIT_OFFSET_TABLE.length) {
+            return -1;
+        }
+        return SUIT_OFFSET_TABLE[suit];
+    }
+    
+    
+    
+    /**
+     * 全ての牌 (序数順)
+     */
+    private static final JanPai[] VALUES = JanPai.values();
+    
+    /**
+     * 字牌の序数オフセット
+     */
+    private static final int JI_OFFSET = JanPai.TON.ordinal();
+    
+    /**
+     * 字牌の漢字表記 (序数順)
+     */
+    private static final String JI_CHARACTERS = "東南西北白發中";
+    
+    /**
+     * 字牌の別名 (長い順)
+     */
+    private static final String[] ALIAS_ARRAY = {
+        "zhong", "hatsu",
+        "dong", "haku", "hatu", "chun",
+        "ton", "nan", "sha", "sya", "pei", "bei", "bai",
+        "xi", "pe", "fa", "ch",
+    };
+    
+    /**
+     * 字牌の別名に対応する牌
+     */
+    private static final JanPai[] ALIAS_PAI_ARRAY = {
+        JanPai.CHUN, JanPai.HATU,
+        JanPai.TON, JanPai.HAKU, JanPai.HATU, JanPai.CHUN,
+        JanPai.TON, JanPai.NAN, JanPai.SHA, JanPai.SHA, JanPai.PEI, JanPai.PEI, JanPai.HAKU,
+        JanPai.SHA, JanPai.PEI, JanPai.HATU, JanPai.CHUN,
+    };
+    
+    /**
+     * 種類の文字ごとの序数オフセット (文字コードでアクセス)
+     */
+    private static final int[] SUIT_OFFSET_TABLE = new int[128];
+    
+    /**
+     * 字牌の表記テーブル
+     */
+    private static final Map<String, JanPai> ALIAS_MAP = new HashMap<>();
+    
+    static {
+        for (int i = 0; i < SUIT_OFFSET_TABLE.length; i++) {
+            SUIT_OFFSET_TABLE[i] = -1;
+        }
+        SUIT_OFFSET_TABLE['m'] = JanPai.MAN_1.ordinal();
+        SUIT_OFFSET_TABLE['p'] = JanPai.PIN_1.ordinal();
+        SUIT_OFFSET_TABLE['s'] = JanPai.SOU_1.ordinal();
+        
+        for (int i = 0; i < JI_CHARACTERS.length(); i++) {
+            ALIAS_MAP.put(JI_CHARACTERS.substring(i, i + 1), VALUES[JI_OFFSET + i]);
+        }
+        for (int i = 0; i < ALIAS_ARRAY.length; i++) {
+            ALIAS_MAP.put(ALIAS_ARRAY[i], ALIAS_PAI_ARRAY[i]);
+        }
+    }
+    
+}
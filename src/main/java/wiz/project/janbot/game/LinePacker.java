@@ -0,0 +1,208 @@
+/**
+ * LinePacker.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+
+/**
+ * 送信メッセージを少ない行数に詰めるユーティリティ
+ * 
+ * IRCは1行ごとに送信間隔の制限を受けるため、短い行は区切り文字で連結して1行にまとめる。
+ * 行の長さはUTF-8のバイト数で測り、色付けの制御文字も数に含める。
+ * 1行に収まらないメッセージは分割するが、色付けの範囲 (制御文字で挟まれた部分) の途中では分割しない。
+ */
+final class LinePacker {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private LinePacker() {
+    }
+    
+    
+    
+    /**
+     * 送信先に応じた1行の上限バイト数を取得
+     * 
+     * @param target 送信先のニックネーム。(チャンネルの場合はnull)
+     * @return 1行の上限バイト数。
+     */
+    public static int getMaxBytes(final String target) {
+        final int targetBytes = target != null ? getByteLength(target) : MAX_CHANNEL_NAME_BYTES;
+        return IRC_LINE_BYTES - CRLF_BYTES - PREFIX_RESERVE_BYTES - (PRIVMSG_BYTES + targetBytes + 2);
+    }
+    
+    /**
+     * UTF-8でのバイト数を取得
+     * 
+     * @param source 文字列。
+     * @return バイト数。
+     */
+    public static int getByteLength(final String source) {
+        if (source == null) {
+            throw new NullPointerException("Source string is null.");
+        }
+        return getByteLength(source, 0, source.length());
+    }
+    
+    /**
+     * メッセージを詰める
+     * 
+     * @param messageList メッセージリスト。
+     * @param maxBytes 1行の上限バイト数。
+     * @return 詰めた後のメッセージリスト。
+     */
+    public static List<String> pack(final List<String> messageList, final int maxBytes) {
+        if (messageList == null) {
+            throw new NullPointerException("Message list is null.");
+        }
+        if (maxBytes <= SEPARATOR_BYTES) {
+            throw new IllegalArgumentException("Invalid max bytes : " + maxBytes);
+        }
+        
+        final List<String> resultList = new ArrayList<>(messageList.size());
+        final StringBuilder line = new StringBuilder();
+        int lineBytes = 0;
+        for (final String message : messageList) {
+            if (message.isEmpty()) {
+                continue;
+            }
+            
+            final int messageBytes = getByteLength(message);
+            if (lineBytes > 0 && lineBytes + SEPARATOR_BYTES + messageBytes <= maxBytes) {
+                // 前の行に連結
+                line.append(SEPARATOR).append(message);
+                lineBytes += SEPARATOR_BYTES + messageBytes;
+                continue;
+            }
+            
+            if (lineBytes > 0) {
+                resultList.add(line.toString());
+                line.setLength(0);
+                lineBytes = 0;
+            }
+            if (messageBytes <= maxBytes) {
+                line.append(message);
+                lineBytes = messageBytes;
+                continue;
+            }
+            
+            // 1行に収まらないため、色付けの範囲を崩さない位置で分割
+            int index = 0;
+            while (index < message.length()) {
+                final int end = getAtomEnd(message, index);
+                final int atomBytes = getByteLength(message, index, end);
+                if (lineBytes > 0 && lineBytes + atomBytes > maxBytes) {
+                    resultList.add(line.toString());
+                    line.setLength(0);
+                    lineBytes = 0;
+                }
+                line.append(message, index, end);
+                lineBytes += atomBytes;
+                index = end;
+            }
+        }
+        if (lineBytes > 0) {
+            resultList.add(line.toString());
+        }
+        return resultList;
+    }
+    
+    
+    
+    /**
+     * 分割できない単位の終端を取得
+     * 
+     * 色付けの範囲は開始の制御文字から終了の制御文字まで、それ以外は1文字 (サロゲートペアは2つで1文字) を単位とする。
+     * 
+     * @param source 文字列。
+     * @param start 単位の開始位置。
+     * @return 単位の終端。(終端の文字は含まない)
+     */
+    private static int getAtomEnd(final String source, final int start) {
+        final char c = source.charAt(start);
+        if (c == JanPaiGlyph.COLOR_FLAG) {
+            final int close = source.indexOf(JanPaiGlyph.COLOR_FLAG, start + 1);
+            return close >= 0 ? close + 1 : source.length();
+        }
+        if (Character.isHighSurrogate(c) && start + 1 < source.length() && Character.isLowSurrogate(source.charAt(start + 1))) {
+            return start + 2;
+        }
+        return start + 1;
+    }
+    
+    /**
+     * 指定範囲のUTF-8でのバイト数を取得
+     * 
+     * @param source 文字列。
+     * @param start 開始位置。
+     * @param end 終端。(終端の文字は含まない)
+     * @return バイト数。
+     */
+    private static int getByteLength(final String source, final int start, final int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            final char c = source.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            }
+            else if (c < 0x800) {
+                length += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(source.charAt(i + 1))) {
+                length += 4;
+                i++;
+            }
+            else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+    
+    
+    
+    /**
+     * 連結時の区切り文字
+     */
+    private static final String SEPARATOR = "  |  ";
+    
+    /**
+     * 連結時の区切り文字のバイト数
+     */
+    private static final int SEPARATOR_BYTES = SEPARATOR.length();
+    
+    /**
+     * IRCの1行の上限バイト数 (CRLFを含む)
+     */
+    private static final int IRC_LINE_BYTES = 512;
+    
+    /**
+     * CRLFのバイト数
+     */
+    private static final int CRLF_BYTES = 2;
+    
+    /**
+     * 「PRIVMSG 」のバイト数
+     */
+    private static final int PRIVMSG_BYTES = "PRIVMSG ".length();
+    
+    /**
+     * 中継時にサーバが付ける「:nick!user@host 」の予約バイト数
+     */
+    private static final int PREFIX_RESERVE_BYTES = 100;
+    
+    /**
+     * チャンネル名の予約バイト数 (送信先が分からない場合)
+     */
+    private static final int MAX_CHANNEL_NAME_BYTES = 50;
+    
+}
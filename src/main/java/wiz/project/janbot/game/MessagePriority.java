@@ -0,0 +1,27 @@
+/**
+ * MessagePriority.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * 送信メッセージの優先度
+ */
+public enum MessagePriority {
+    
+    /**
+     * 入力を促すメッセージ (ツモ後の手牌、鳴き確認など)
+     */
+    PROMPT,
+    
+    /**
+     * その他のメッセージ (場や捨て牌の更新など)
+     */
+    BULK,
+    
+}
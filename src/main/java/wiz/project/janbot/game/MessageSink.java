@@ -0,0 +1,34 @@
+/**
+ * MessageSink.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.List;
+
+
+
+/**
+ * メッセージの実際の送信先
+ */
+interface MessageSink {
+    
+    /**
+     * チャンネルにメッセージを送信
+     * 
+     * @param messageList メッセージリスト。
+     */
+    public void println(final List<String> messageList);
+    
+    /**
+     * 指定ユーザにメッセージを送信
+     * 
+     * @param target 送信先のニックネーム。
+     * @param messageList メッセージリスト。
+     */
+    public void talk(final String target, final List<String> messageList);
+    
+}
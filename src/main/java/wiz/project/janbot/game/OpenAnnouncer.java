@@ -8,10 +8,9 @@
 package wiz.project.janbot.game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Observable;
 
-import wiz.project.ircbot.IRCBOT;
 import wiz.project.jan.Wind;
 
 
@@ -30,28 +29,35 @@ public class OpenAnnouncer extends AbstractAnnouncer {
     public OpenAnnouncer() {
     }
     
+    /**
+     * コンストラクタ
+     * 
+     * @param compactViewState 差分表示の状態。(卓の実況者どうしで共有)
+     * @param renderCache 描画結果のキャッシュ。(卓の実況者どうしで共有)
+     */
+    public OpenAnnouncer(final CompactViewState compactViewState, final RenderCache renderCache) {
+        super(compactViewState, renderCache);
+    }
+    
     
     
     /**
      * 状況更新時の処理
      * 
-     * @param target 監視対象。
-     * @param p 更新パラメータ。
+     * @param info ゲーム情報。
+     * @param param 実況パラメータ。
      */
-    public void update(final Observable target, final Object p) {
-        if (!(target instanceof JanInfo)) {
-            return;
-        }
-        if (!(p instanceof AnnounceParam)) {
-            return;
-        }
-        
-        final JanInfo info = (JanInfo)target;
-        final AnnounceParam param = (AnnounceParam)p;
+    public void onEvent(final JanInfo info, final AnnounceParam param) {
         final Player player = param.getPlayer();
+        final OutboundDispatcher dispatcher = OutboundDispatcher.getInstance();
         
         final List<String> openMessageList = new ArrayList<>();
         final List<String> talkMessageList = new ArrayList<>();
+        final List<String> compactMessageList = new ArrayList<>();
+        if (param.hasFlag(AnnounceFlag.GAME_START)) {
+            // 局の始めは全員に手牌の全体を送る
+            getCompactViewState().resetBase();
+        }
         if (param.hasFlag(AnnounceFlag.PLAYER_TURN)) {
             // TODO 暫定封鎖
             // jan i で確認できるようにした上で永久に潰すかもしれない
@@ -62,21 +68,37 @@ public class OpenAnnouncer extends AbstractAnnouncer {
         }
         if (param.hasFlag(AnnounceFlag.FIELD_TALK_ALL)) {
             for (final Wind wind : Wind.values()) {
-                final String name = info.getPlayer(wind).getName();
-                IRCBOT.getInstance().talk(name, convertFieldToString(info, wind));
+                final List<String> messageList = Arrays.asList(convertFieldToString(info, wind));
+                talk(info.getPlayer(wind), messageList, MessagePriority.BULK);
             }
         }
         if (param.hasFlag(AnnounceFlag.RIVER_SINGLE)) {
-            talkMessageList.add(convertRiverToString(info, param));
+            final String river = convertRiverToString(info, param);
+            talkMessageList.add(river);
+            if (param.hasFlag(AnnounceFlag.DISCARD)) {
+                // 打牌の実況では、差分表示のプレイヤーには切った牌だけを送る
+                compactMessageList.add(convertLastDiscardToString(info, param));
+            }
+            else {
+                compactMessageList.add(river);
+            }
+        }
+        if (param.hasFlag(AnnounceFlag.DISCARD_DIGEST)) {
+            final String digest = convertDiscardListToString(param.getDiscardList());
+            talkMessageList.add(digest);
+            compactMessageList.add(digest);
         }
         if (param.hasFlag(AnnounceFlag.HAND_OPEN)) {
-            talkMessageList.add(convertHandToString(info, param.getPlayer(), param));
+            final String hand = convertHandToString(info, param.getPlayer(), param);
+            talkMessageList.add(hand);
+            compactMessageList.add(hand);
         }
         if (param.hasFlag(AnnounceFlag.HAND_TALK_ALL)) {
             for (final Wind wind : Wind.values()) {
                 if (wind != Wind.TON) {
                     final Player to = info.getPlayer(wind);
-                    IRCBOT.getInstance().talk(to.getName(), convertHandToString(info, to, param));
+                    final List<String> messageList = Arrays.asList(convertHandToString(info, to, param));
+                    talk(to, messageList, MessagePriority.BULK);
                 }
             }
         }
@@ -84,21 +106,30 @@ public class OpenAnnouncer extends AbstractAnnouncer {
         if (param.hasFlag(AnnounceFlag.COMPLETE_RON)) {
             openMessageList.add("---- ロン和了 ----");
             talkMessageList.add("---- ロン和了 ----");
+            compactMessageList.add("---- ロン和了 ----");
         }
         else if (param.hasFlag(AnnounceFlag.COMPLETE_TSUMO)) {
             openMessageList.add("---- ツモ和了 ----");
             talkMessageList.add("---- ツモ和了 ----");
+            compactMessageList.add("---- ツモ和了 ----");
         }
         else if (param.hasFlag(AnnounceFlag.GAME_OVER)) {
             openMessageList.add("---- 流局 ----");
             talkMessageList.add("---- 流局 ----");
+            compactMessageList.add("---- 流局 ----");
         }
         
-        IRCBOT.getInstance().println(openMessageList);
+        dispatcher.println(openMessageList, MessagePriority.BULK);
         
-        for (final Player receiver : info.getPlayerTable().values()) {
-            if (receiver.getType() == PlayerType.HUMAN) {
-                IRCBOT.getInstance().talk(receiver.getName(), talkMessageList);
+        for (final Wind wind : Wind.values()) {
+            final Player receiver = info.getPlayer(wind);
+            if (receiver != null && receiver.getType() == PlayerType.HUMAN) {
+                if (getCompactViewState().isCompact(receiver)) {
+                    talk(receiver, compactMessageList, param.getPriority());
+                }
+                else {
+                    dispatcher.talk(receiver.getName(), talkMessageList, param.getPriority());
+                }
             }
         }
         
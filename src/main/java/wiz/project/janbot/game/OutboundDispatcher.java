@@ -0,0 +1,703 @@
+/**
+ * OutboundDispatcher.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import wiz.project.ircbot.IRCBOT;
+
+
+
+/**
+ * IRCへの送信の振り分け
+ * 
+ * 送信はゲーム処理から切り離し、送信先 (チャンネルと各ユーザ) ごとのキューから順に行う。
+ * 同じ送信先の中では、入力を促すメッセージを場や捨て牌の更新より先に送る。(差分表示の通し番号は送信時に振る)
+ * 送信先ごとにトークンバケットで送信行数を制限し、1人宛ての大量送信が他の送信先を待たせないようにする。
+ * 受け付けたメッセージはIRCの1行に収まる範囲で連結し、送信行数 (送信枠の消費) を減らす。
+ */
+public final class OutboundDispatcher {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param sink 送信先。
+     * @param threadCount 送信スレッド数。
+     * @param bucketCapacity 送信先ごとに連続で送信できる行数。
+     * @param refillNanos 1行分の送信枠が回復するまでの時間。(ナノ秒)
+     */
+    OutboundDispatcher(final MessageSink sink, final int threadCount, final int bucketCapacity, final long refillNanos) {
+        if (sink == null) {
+            throw new NullPointerException("Sink is null.");
+        }
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Invalid thread count : " + threadCount);
+        }
+        if (bucketCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid bucket capacity : " + bucketCapacity);
+        }
+        if (refillNanos <= 0) {
+            throw new IllegalArgumentException("Invalid refill interval : " + refillNanos);
+        }
+        
+        _sink = sink;
+        _executor = Executors.newScheduledThreadPool(threadCount, new ThreadFactory() {
+            public Thread newThread(final Runnable task) {
+                final Thread thread = new Thread(task, "OutboundDispatcher-" + _threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        _bucketCapacity = bucketCapacity;
+        _refillNanos = refillNanos;
+        _channelQueue = new RecipientQueue(null);
+    }
+    
+    
+    
+    /**
+     * インスタンスを取得
+     * 
+     * @return インスタンス。
+     */
+    public static OutboundDispatcher getInstance() {
+        return INSTANCE;
+    }
+    
+    
+    
+    /**
+     * 送信待ちのメッセージ数を取得
+     * 
+     * @return 送信待ちのメッセージ数。
+     */
+    public int getQueueDepth() {
+        return _queueDepth.get();
+    }
+    
+    /**
+     * ユーザごとのキューの数を取得
+     * 
+     * @return ユーザごとのキューの数。
+     */
+    int getRecipientCount() {
+        return _recipientQueueMap.size();
+    }
+    
+    /**
+     * 統計情報を取得
+     * 
+     * @return 統計情報。
+     */
+    public String getStatistics() {
+        final long count = _sentCount.get();
+        final long averageMicros = count > 0 ? TimeUnit.NANOSECONDS.toMicros(_totalLatencyNanos.get() / count) : 0;
+        final long maxMicros = TimeUnit.NANOSECONDS.toMicros(_maxLatencyNanos.get());
+        
+        final StringBuilder buf = new StringBuilder();
+        buf.append("送信待ち(現在/最大)：").append(_queueDepth.get()).append("/").append(_maxQueueDepth.get()).append("   ");
+        buf.append("送信先：").append(getRecipientCount()).append("   ");
+        buf.append("送信数：").append(count).append("   ");
+        buf.append("行数(受付/送信)：").append(_acceptedLineCount.get()).append("/").append(_packedLineCount.get()).append("   ");
+        buf.append("制限数：").append(_throttledCount.get()).append("   ");
+        buf.append("失敗数：").append(_failedCount.get()).append("   ");
+        buf.append("送信遅延(平均/最大)：").append(averageMicros).append("us/").append(maxMicros).append("us");
+        return buf.toString();
+    }
+    
+    /**
+     * チャンネルにメッセージを送信
+     * 
+     * @param message メッセージ。
+     * @param priority 優先度。
+     */
+    public void println(final String message, final MessagePriority priority) {
+        if (message == null) {
+            throw new NullPointerException("Message is null.");
+        }
+        println(Arrays.asList(message), priority);
+    }
+    
+    /**
+     * チャンネルにメッセージを送信
+     * 
+     * @param messageList メッセージリスト。
+     * @param priority 優先度。
+     */
+    public void println(final List<String> messageList, final MessagePriority priority) {
+        if (messageList == null) {
+            throw new NullPointerException("Message list is null.");
+        }
+        if (priority == null) {
+            throw new NullPointerException("Priority is null.");
+        }
+        
+        final List<String> packedList = pack(messageList, LinePacker.getMaxBytes(null));
+        if (!packedList.isEmpty()) {
+            _channelQueue.offer(new Message(packedList, null), priority);
+        }
+    }
+    
+    /**
+     * 指定ユーザにメッセージを送信
+     * 
+     * @param target 送信先のニックネーム。
+     * @param message メッセージ。
+     * @param priority 優先度。
+     */
+    public void talk(final String target, final String message, final MessagePriority priority) {
+        if (message == null) {
+            throw new NullPointerException("Message is null.");
+        }
+        talk(target, Arrays.asList(message), priority);
+    }
+    
+    /**
+     * 指定ユーザにメッセージを送信
+     * 
+     * @param target 送信先のニックネーム。
+     * @param messageList メッセージリスト。
+     * @param priority 優先度。
+     */
+    public void talk(final String target, final List<String> messageList, final MessagePriority priority) {
+        talk(target, messageList, priority, null);
+    }
+    
+    /**
+     * 指定ユーザにメッセージを送信
+     * 
+     * 通し番号は受付時ではなく送信時に振るため、優先度による追い越しがあっても送信順に並ぶ。
+     * 
+     * @param target 送信先のニックネーム。
+     * @param messageList メッセージリスト。
+     * @param priority 優先度。
+     * @param lineCounter 行の通し番号のカウンタ。(番号を付けない場合はnull)
+     */
+    public void talk(final String target, final List<String> messageList, final MessagePriority priority, final AtomicInteger lineCounter) {
+        if (target == null) {
+            throw new NullPointerException("Target is null.");
+        }
+        if (messageList == null) {
+            throw new NullPointerException("Message list is null.");
+        }
+        if (priority == null) {
+            throw new NullPointerException("Priority is null.");
+        }
+        
+        final int maxBytes = LinePacker.getMaxBytes(target) - (lineCounter != null ? STAMP_RESERVE_BYTES : 0);
+        final List<String> packedList = pack(messageList, maxBytes);
+        if (!packedList.isEmpty()) {
+            final Message message = new Message(packedList, lineCounter);
+            while (!getRecipientQueue(target).offer(message, priority)) {
+                // 閉じたキューを掴んだ場合は、作り直したキューに入れ直す
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 送信先ごとのキューを取得
+     * 
+     * @param target 送信先のニックネーム。
+     * @return 送信先ごとのキュー。
+     */
+    private RecipientQueue getRecipientQueue(final String target) {
+        final RecipientQueue queue = _recipientQueueMap.get(target);
+        if (queue != null) {
+            return queue;
+        }
+        
+        final RecipientQueue newQueue = new RecipientQueue(target);
+        final RecipientQueue oldQueue = _recipientQueueMap.putIfAbsent(target, newQueue);
+        return oldQueue != null ? oldQueue : newQueue;
+    }
+    
+    /**
+     * メッセージを送信先の1行に収まる範囲で詰める
+     * 
+     * @param messageList メッセージリスト。
+     * @param maxBytes 1行の最大バイト数。
+     * @return 詰めた後のメッセージリスト。
+     */
+    private List<String> pack(final List<String> messageList, final int maxBytes) {
+        final List<String> packedList = LinePacker.pack(messageList, maxBytes);
+        _acceptedLineCount.addAndGet(messageList.size());
+        _packedLineCount.addAndGet(packedList.size());
+        return packedList;
+    }
+    
+    /**
+     * 送信遅延を記録
+     * 
+     * @param latencyNanos 送信遅延。(ナノ秒)
+     */
+    private void recordLatency(final long latencyNanos) {
+        _sentCount.incrementAndGet();
+        _totalLatencyNanos.addAndGet(latencyNanos);
+        
+        long max = _maxLatencyNanos.get();
+        while (latencyNanos > max && !_maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+            max = _maxLatencyNanos.get();
+        }
+    }
+    
+    /**
+     * 送信待ちのメッセージ数を増加
+     */
+    private void increaseQueueDepth() {
+        final int depth = _queueDepth.incrementAndGet();
+        int max = _maxQueueDepth.get();
+        while (depth > max && !_maxQueueDepth.compareAndSet(max, depth)) {
+            max = _maxQueueDepth.get();
+        }
+    }
+    
+    
+    
+    /**
+     * 送信するメッセージ (immutable)
+     */
+    private static final class Message {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param messageList メッセージリスト。
+         * @param lineCounter 行の通し番号のカウンタ。(番号を付けない場合はnull)
+         */
+        public Message(final List<String> messageList, final AtomicInteger lineCounter) {
+            _messageList = Collections.unmodifiableList(new ArrayList<>(messageList));
+            _lineCounter = lineCounter;
+            _acceptTime = System.nanoTime();
+        }
+        
+        
+        
+        /**
+         * 受付時刻を取得
+         * 
+         * @return 受付時刻。(ナノ秒)
+         */
+        public long getAcceptTime() {
+            return _acceptTime;
+        }
+        
+        /**
+         * メッセージリストを取得
+         * 
+         * @return メッセージリスト。(変更不可)
+         */
+        public List<String> getMessageList() {
+            return _messageList;
+        }
+        
+        /**
+         * 送信する行を取得
+         * 
+         * 通し番号を付ける場合は、ここで番号を進める。(送信直前に1度だけ呼ぶ)
+         * 
+         * @return 送信する行のリスト。
+         */
+        public List<String> takeLineList() {
+            if (_lineCounter == null) {
+                return _messageList;
+            }
+            
+            final List<String> lineList = new ArrayList<>(_messageList.size());
+            for (final String message : _messageList) {
+                lineList.add("#" + _lineCounter.incrementAndGet() + " " + message);
+            }
+            return lineList;
+        }
+        
+        
+        
+        /**
+         * メッセージリスト
+         */
+        private final List<String> _messageList;
+        
+        /**
+         * 行の通し番号のカウンタ (番号を付けない場合はnull)
+         */
+        private final AtomicInteger _lineCounter;
+        
+        /**
+         * 受付時刻
+         */
+        private final long _acceptTime;
+        
+    }
+    
+    /**
+     * 送信先ごとのキュー
+     * 
+     * 同じ送信先のメッセージを1つずつ順番に送信する。
+     * 送信枠の状態は実行中のタスクからのみ読み書きするため、同期しない。
+     * ユーザのキューは、空になって送信枠が満杯まで回復した時点で閉じて一覧から外す。
+     * (回復前に外すと、作り直したキューで送信枠の制限を越えてしまう)
+     */
+    private final class RecipientQueue implements Runnable {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param target 送信先のニックネーム。(チャンネルの場合はnull)
+         */
+        public RecipientQueue(final String target) {
+            _target = target;
+            _tokens = _bucketCapacity;
+            _refillTime = System.nanoTime();
+        }
+        
+        
+        
+        /**
+         * メッセージを追加
+         * 
+         * @param message メッセージ。
+         * @param priority 優先度。
+         * @return 追加した場合はtrue。キューが閉じていた場合はfalse。
+         */
+        public boolean offer(final Message message, final MessagePriority priority) {
+            synchronized (this) {
+                if (_closed) {
+                    return false;
+                }
+                switch (priority) {
+                case PROMPT:
+                    _promptQueue.offer(message);
+                    break;
+                case BULK:
+                    _bulkQueue.offer(message);
+                    break;
+                default:
+                    throw new InternalError();
+                }
+            }
+            increaseQueueDepth();
+            schedule();
+            return true;
+        }
+        
+        /**
+         * キューを処理
+         */
+        public void run() {
+            try {
+                Message message;
+                while ((message = peek()) != null) {
+                    final long waitNanos = acquire(message.getMessageList().size());
+                    if (waitNanos > 0) {
+                        // 送信枠が回復するまで待つ (スケジュール済みのまま再実行)
+                        _throttledCount.incrementAndGet();
+                        _executor.schedule(this, waitNanos, TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                    poll();
+                    send(message);
+                }
+            }
+            catch (final RuntimeException e) {
+                _scheduled.set(false);
+                throw e;
+            }
+            _scheduled.set(false);
+            
+            if (peek() != null) {
+                schedule();
+            }
+            else if (_target != null) {
+                scheduleClose();
+            }
+        }
+        
+        /**
+         * 送信枠を取得
+         * 
+         * 送信枠の上限を超える行数は、送信枠が満杯になった時点で送信し、不足分を後続から差し引く。
+         * 
+         * @param lineCount 送信する行数。
+         * @return 送信枠が回復するまでの時間。(ナノ秒) 送信可能な場合は0。
+         */
+        private long acquire(final int lineCount) {
+            final long now = System.nanoTime();
+            final double refilled = (now - _refillTime) / (double)_refillNanos;
+            _tokens = Math.min(_bucketCapacity, _tokens + refilled);
+            _refillTime = now;
+            
+            final double required = Math.min(lineCount, _bucketCapacity);
+            if (_tokens < required) {
+                return (long)Math.ceil((required - _tokens) * _refillNanos);
+            }
+            _tokens -= lineCount;
+            return 0;
+        }
+        
+        /**
+         * 空であり、送信枠が満杯まで回復していればキューを閉じる
+         * 
+         * 実行中のタスクが無いことを確認してから送信枠を読むため、実行中のタスクとは競合しない。
+         * 
+         * @return 閉じた場合はtrue。
+         */
+        private synchronized boolean close() {
+            if (peek() == null && !_scheduled.get() && getRefillWaitNanos() == 0) {
+                _closed = true;
+            }
+            return _closed;
+        }
+        
+        /**
+         * 送信枠が満杯まで回復するまでの時間を取得
+         * 
+         * @return 送信枠が満杯まで回復するまでの時間。(ナノ秒)
+         */
+        private long getRefillWaitNanos() {
+            final double refilled = (System.nanoTime() - _refillTime) / (double)_refillNanos;
+            final double missing = _bucketCapacity - Math.min(_bucketCapacity, _tokens + refilled);
+            return missing > 0 ? (long)Math.ceil(missing * _refillNanos) : 0;
+        }
+        
+        /**
+         * 次に送信するメッセージを参照
+         * 
+         * @return 次に送信するメッセージ。(無い場合はnull)
+         */
+        private Message peek() {
+            final Message prompt = _promptQueue.peek();
+            return prompt != null ? prompt : _bulkQueue.peek();
+        }
+        
+        /**
+         * 次に送信するメッセージを取り出す
+         */
+        private void poll() {
+            if (_promptQueue.poll() == null) {
+                _bulkQueue.poll();
+            }
+            _queueDepth.decrementAndGet();
+        }
+        
+        /**
+         * 実行をスケジュール
+         */
+        private void schedule() {
+            if (_scheduled.compareAndSet(false, true)) {
+                _executor.execute(this);
+            }
+        }
+        
+        /**
+         * 送信枠の回復後にキューを閉じる処理をスケジュール
+         * 
+         * その間に届いたメッセージの送信後には、改めてスケジュールされる。
+         */
+        private void scheduleClose() {
+            _executor.schedule(new Runnable() {
+                public void run() {
+                    if (close()) {
+                        _recipientQueueMap.remove(_target, RecipientQueue.this);
+                    }
+                }
+            }, getRefillWaitNanos(), TimeUnit.NANOSECONDS);
+        }
+        
+        /**
+         * メッセージを送信
+         * 
+         * @param message メッセージ。
+         */
+        private void send(final Message message) {
+            try {
+                if (_target != null) {
+                    _sink.talk(_target, message.takeLineList());
+                }
+                else {
+                    _sink.println(message.takeLineList());
+                }
+                recordLatency(System.nanoTime() - message.getAcceptTime());
+            }
+            catch (final RuntimeException e) {
+                // 1件の送信失敗で後続の送信を止めない
+                _failedCount.incrementAndGet();
+                e.printStackTrace();
+            }
+        }
+        
+        
+        
+        /**
+         * 送信先のニックネーム
+         */
+        private final String _target;
+        
+        /**
+         * 入力を促すメッセージのキュー
+         */
+        private final Queue<Message> _promptQueue = new ConcurrentLinkedQueue<>();
+        
+        /**
+         * その他のメッセージのキュー
+         */
+        private final Queue<Message> _bulkQueue = new ConcurrentLinkedQueue<>();
+        
+        /**
+         * 実行がスケジュール済みか
+         */
+        private final AtomicBoolean _scheduled = new AtomicBoolean(false);
+        
+        /**
+         * 残りの送信枠 (行数)
+         */
+        private double _tokens;
+        
+        /**
+         * 送信枠を最後に回復させた時刻
+         */
+        private long _refillTime;
+        
+        /**
+         * 閉じたか (閉じたキューにはメッセージを追加しない)
+         */
+        private boolean _closed = false;
+        
+    }
+    
+    
+    
+    /**
+     * 送信スレッド数
+     */
+    private static final int SENDER_THREAD_COUNT = 2;
+    
+    /**
+     * 送信先ごとに連続で送信できる行数
+     */
+    private static final int BUCKET_CAPACITY = 8;
+    
+    /**
+     * 1行分の送信枠が回復するまでの時間 (ナノ秒)
+     */
+    private static final long REFILL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    
+    /**
+     * 通し番号 ("#" + 10桁 + 空白) のために1行から空けておくバイト数
+     */
+    private static final int STAMP_RESERVE_BYTES = 12;
+    
+    /**
+     * 自分自身のインスタンス
+     */
+    private static final OutboundDispatcher INSTANCE = new OutboundDispatcher(new MessageSink() {
+        public void println(final List<String> messageList) {
+            IRCBOT.getInstance().println(messageList);
+        }
+        public void talk(final String target, final List<String> messageList) {
+            IRCBOT.getInstance().talk(target, messageList);
+        }
+    }, SENDER_THREAD_COUNT, BUCKET_CAPACITY, REFILL_NANOS);
+    
+    
+    
+    /**
+     * 送信先
+     */
+    private final MessageSink _sink;
+    
+    /**
+     * 送信スレッド
+     */
+    private final ScheduledExecutorService _executor;
+    
+    /**
+     * 生成したスレッド数
+     */
+    private final AtomicInteger _threadCount = new AtomicInteger();
+    
+    /**
+     * 送信先ごとに連続で送信できる行数
+     */
+    private final int _bucketCapacity;
+    
+    /**
+     * 1行分の送信枠が回復するまでの時間 (ナノ秒)
+     */
+    private final long _refillNanos;
+    
+    /**
+     * チャンネルのキュー
+     */
+    private final RecipientQueue _channelQueue;
+    
+    /**
+     * ユーザごとのキュー (送信待ち、または送信枠の回復待ちのユーザのみ)
+     */
+    private final ConcurrentMap<String, RecipientQueue> _recipientQueueMap = new ConcurrentHashMap<>();
+    
+    /**
+     * 送信待ちのメッセージ数
+     */
+    private final AtomicInteger _queueDepth = new AtomicInteger();
+    
+    /**
+     * 送信待ちのメッセージ数の最大値
+     */
+    private final AtomicInteger _maxQueueDepth = new AtomicInteger();
+    
+    /**
+     * 送信数
+     */
+    private final AtomicLong _sentCount = new AtomicLong();
+    
+    /**
+     * 受け付けた行数
+     */
+    private final AtomicLong _acceptedLineCount = new AtomicLong();
+    
+    /**
+     * 詰めた後の行数
+     */
+    private final AtomicLong _packedLineCount = new AtomicLong();
+    
+    /**
+     * 送信枠の不足で待った回数
+     */
+    private final AtomicLong _throttledCount = new AtomicLong();
+    
+    /**
+     * 送信失敗数
+     */
+    private final AtomicLong _failedCount = new AtomicLong();
+    
+    /**
+     * 送信遅延の合計 (ナノ秒)
+     */
+    private final AtomicLong _totalLatencyNanos = new AtomicLong();
+    
+    /**
+     * 送信遅延の最大値 (ナノ秒)
+     */
+    private final AtomicLong _maxLatencyNanos = new AtomicLong();
+    
+}
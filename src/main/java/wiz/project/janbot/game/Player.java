@@ -34,6 +34,23 @@ final class Player implements Serializable {
         setType(type);
     }
     
+    /**
+     * コンストラクタ
+     * 
+     * @param id プレイヤーID。
+     * @param name 名前。
+     * @param type タイプ。
+     */
+    public Player(final int id, final String name, final PlayerType type) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid player ID : " + id);
+        }
+        
+        _id = id;
+        setName(name);
+        setType(type);
+    }
+    
     /**
      * コピーコンストラクタ
      * 
@@ -41,6 +58,7 @@ final class Player implements Serializable {
      */
     public Player(final Player source) {
         if (source != null) {
+            _id = source._id;
             _name = source._name;
             _type = source._type;
         }
@@ -67,10 +85,20 @@ final class Player implements Serializable {
         }
         
         final Player targetPlayer = (Player)target;
-        return _name.equals(targetPlayer._name) &&
+        return _id == targetPlayer._id &&
+               _name.equals(targetPlayer._name) &&
                _type.equals(targetPlayer._type);
     }
     
+    /**
+     * プレイヤーIDを取得
+     * 
+     * @return プレイヤーID。(未割り当ての場合はNO_ID)
+     */
+    public int getId() {
+        return _id;
+    }
+    
     /**
      * 名前を取得
      * 
@@ -96,7 +124,19 @@ final class Player implements Serializable {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(_name, _type);
+        return Objects.hash(_id, _name, _type);
+    }
+    
+    /**
+     * 名前だけを変えたプレイヤーを生成
+     * 
+     * @param name 新しい名前。
+     * @return IDとタイプが同じで、名前が異なるプレイヤー。
+     */
+    public Player rename(final String name) {
+        final Player result = new Player(this);
+        result.setName(name);
+        return result;
     }
     
     /**
@@ -141,6 +181,11 @@ final class Player implements Serializable {
     
     
     
+    /**
+     * 未割り当てのプレイヤーID
+     */
+    public static final int NO_ID = -1;
+    
     /**
      * シリアルバージョン
      */
@@ -148,6 +193,11 @@ final class Player implements Serializable {
     
     
     
+    /**
+     * プレイヤーID (卓への参加時に割り当て)
+     */
+    private int _id = NO_ID;
+    
     /**
      * 名前
      */
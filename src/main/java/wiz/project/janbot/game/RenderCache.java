@@ -0,0 +1,212 @@
+/**
+ * RenderCache.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Arrays;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * 手牌と捨て牌の描画結果のキャッシュ
+ * 
+ * 席ごとに、JanInfoの手牌と捨て牌の版をキーとして描画結果を保持する。
+ * 版が変わっていなければ、同じ手牌や捨て牌を描画し直さずに済む。
+ * 卓の実況者どうしで共有し、実況の配信スレッドからのみ読み書きする。(同期しない)
+ */
+final class RenderCache {
+    
+    /**
+     * コンストラクタ
+     */
+    public RenderCache() {
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            _handEntryArray[i] = new HandEntry();
+        }
+    }
+    
+    
+    
+    /**
+     * 捨て牌を付けた手牌の表示の種類を取得
+     * 
+     * @param discard 捨て牌。
+     * @return 表示の種類。
+     */
+    public static int getDiscardVariant(final JanPai discard) {
+        return 1 + JanPaiCount.JANPAI_COUNT + discard.ordinal();
+    }
+    
+    /**
+     * ツモ牌を付けた手牌の表示の種類を取得
+     * 
+     * @param tsumo ツモ牌。
+     * @return 表示の種類。
+     */
+    public static int getTsumoVariant(final JanPai tsumo) {
+        return 1 + tsumo.ordinal();
+    }
+    
+    
+    
+    /**
+     * 手牌の描画結果を取得
+     * 
+     * @param wind 風。
+     * @param version 手牌の版。
+     * @param variant 表示の種類。
+     * @return 描画結果。(キャッシュに無い場合はnull)
+     */
+    public String getHand(final Wind wind, final long version, final int variant) {
+        final HandEntry entry = _handEntryArray[wind.ordinal()];
+        if (entry._version != version) {
+            _missCount++;
+            return null;
+        }
+        
+        final String rendered = entry._renderedArray[variant];
+        if (rendered != null) {
+            _hitCount++;
+        }
+        else {
+            _missCount++;
+        }
+        return rendered;
+    }
+    
+    /**
+     * ヒット数を取得
+     * 
+     * @return ヒット数。
+     */
+    public long getHitCount() {
+        return _hitCount;
+    }
+    
+    /**
+     * ミス数を取得
+     * 
+     * @return ミス数。
+     */
+    public long getMissCount() {
+        return _missCount;
+    }
+    
+    /**
+     * 捨て牌の描画結果を取得
+     * 
+     * @param wind 風。
+     * @param version 捨て牌の版。
+     * @return 描画結果。(キャッシュに無い場合はnull)
+     */
+    public String getRiver(final Wind wind, final long version) {
+        if (_riverVersionArray[wind.ordinal()] != version) {
+            _missCount++;
+            return null;
+        }
+        _hitCount++;
+        return _riverArray[wind.ordinal()];
+    }
+    
+    /**
+     * 手牌の描画結果を格納
+     * 
+     * 版が変わった場合は、古い版の描画結果を全て破棄する。
+     * 
+     * @param wind 風。
+     * @param version 手牌の版。
+     * @param variant 表示の種類。
+     * @param rendered 描画結果。
+     */
+    public void putHand(final Wind wind, final long version, final int variant, final String rendered) {
+        final HandEntry entry = _handEntryArray[wind.ordinal()];
+        if (entry._version != version) {
+            Arrays.fill(entry._renderedArray, null);
+            entry._version = version;
+        }
+        entry._renderedArray[variant] = rendered;
+    }
+    
+    /**
+     * 捨て牌の描画結果を格納
+     * 
+     * @param wind 風。
+     * @param version 捨て牌の版。
+     * @param rendered 描画結果。
+     */
+    public void putRiver(final Wind wind, final long version, final String rendered) {
+        _riverVersionArray[wind.ordinal()] = version;
+        _riverArray[wind.ordinal()] = rendered;
+    }
+    
+    
+    
+    /**
+     * 席ごとの手牌の描画結果
+     */
+    private static final class HandEntry {
+        
+        /**
+         * 手牌の版 (未格納の場合は0)
+         */
+        private long _version = 0L;
+        
+        /**
+         * 表示の種類ごとの描画結果
+         */
+        private final String[] _renderedArray = new String[VARIANT_COUNT];
+        
+    }
+    
+    
+    
+    /**
+     * ツモ牌や捨て牌を付けない手牌の表示の種類
+     */
+    public static final int PLAIN_VARIANT = 0;
+    
+    /**
+     * 手牌の表示の種類の数 (付けない場合、ツモ牌を付けた場合、捨て牌を付けた場合)
+     */
+    private static final int VARIANT_COUNT = 1 + JanPaiCount.JANPAI_COUNT * 2;
+    
+    /**
+     * 席の数
+     */
+    private static final int SEAT_COUNT = Wind.values().length;
+    
+    
+    
+    /**
+     * 手牌の描画結果 (風の序数ごと)
+     */
+    private final HandEntry[] _handEntryArray = new HandEntry[SEAT_COUNT];
+    
+    /**
+     * 捨て牌の版 (風の序数ごと、未格納の場合は0)
+     */
+    private final long[] _riverVersionArray = new long[SEAT_COUNT];
+    
+    /**
+     * 捨て牌の描画結果 (風の序数ごと)
+     */
+    private final String[] _riverArray = new String[SEAT_COUNT];
+    
+    /**
+     * ヒット数
+     */
+    private long _hitCount = 0L;
+    
+    /**
+     * ミス数
+     */
+    private long _missCount = 0L;
+    
+}
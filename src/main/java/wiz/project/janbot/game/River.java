@@ -8,6 +8,7 @@
 package wiz.project.janbot.game;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import wiz.project.jan.JanPai;
@@ -16,6 +17,9 @@ import wiz.project.jan.JanPai;
 
 /**
  * 捨て牌
+ * 
+ * 不変オブジェクト。捨て牌の追加は新しいオブジェクトを返すため、
+ * 複製せずにゲーム情報の複製間で共有できる。
  */
 public final class River implements Cloneable {
     
@@ -23,6 +27,7 @@ public final class River implements Cloneable {
      * コンストラクタ
      */
     public River() {
+        this(Collections.<JanPai>emptyList(), 0, Collections.<Integer>emptyList());
     }
     
     /**
@@ -31,8 +36,7 @@ public final class River implements Cloneable {
      * @param paiList 捨て牌リスト。
      */
     public River(final List<JanPai> paiList) {
-        this();
-        _paiList.addAll(paiList);
+        this(Collections.unmodifiableList(new ArrayList<>(paiList)), 0, Collections.<Integer>emptyList());
     }
     
     /**
@@ -41,38 +45,69 @@ public final class River implements Cloneable {
      * @param source 複製元オブジェクト。
      */
     public River(final River source) {
-        if (source != null) {
-            _paiList = deepCopyList(source._paiList);
-            _richiIndex = source._richiIndex;
-            _calledIndexList = deepCopyList(source._calledIndexList);
-        }
+        this(source._paiList, source._richiIndex, source._calledIndexList);
+    }
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     * 
+     * @param paiList 捨て牌リスト。(変更不可)
+     * @param richiIndex リーチ宣言牌インデックス。
+     * @param calledIndexList 被副露牌インデックス。(変更不可)
+     */
+    private River(final List<JanPai> paiList, final int richiIndex, final List<Integer> calledIndexList) {
+        _paiList = paiList;
+        _richiIndex = richiIndex;
+        _calledIndexList = calledIndexList;
     }
     
     
     
     /**
-     * 捨て牌を追加
+     * 捨て牌を追加した捨て牌を生成
+     * 
+     * 自分自身は変更しない。
      * 
      * @param pai 捨て牌。
+     * @return 追加後の捨て牌。
      */
-    public void add(final JanPai pai) {
-        _paiList.add(pai);
+    public River add(final JanPai pai) {
+        final List<JanPai> paiList = new ArrayList<>(_paiList.size() + 1);
+        paiList.addAll(_paiList);
+        paiList.add(pai);
+        return new River(Collections.unmodifiableList(paiList), _richiIndex, _calledIndexList);
     }
     
     /**
-     * 自分自身を複製 (ディープコピー)
+     * 最後の捨て牌を副露された捨て牌を生成
+     * 
+     * 自分自身は変更しない。
+     * 
+     * @return 副露後の捨て牌。
+     */
+    public River addCalledIndex() {
+        final List<Integer> calledIndexList = new ArrayList<>(_calledIndexList.size() + 1);
+        calledIndexList.addAll(_calledIndexList);
+        calledIndexList.add(_paiList.size());
+        return new River(_paiList, _richiIndex, Collections.unmodifiableList(calledIndexList));
+    }
+    
+    /**
+     * 自分自身を複製
+     * 
+     * 不変オブジェクトのため自分自身を返す。
      * 
      * @return 複製結果。
      */
     @Override
     public River clone() {
-        return new River(this);
+        return this;
     }
     
     /**
      * 捨て牌リストを取得
      * 
-     * @return 捨て牌リスト。
+     * @return 捨て牌リスト。(変更不可)
      */
     public List<JanPai> get() {
         return _paiList;
@@ -81,47 +116,27 @@ public final class River implements Cloneable {
     /**
      * 被副露牌インデックスを取得
      * 
-     * @return 被副露牌インデックス。
+     * @return 被副露牌インデックス。(変更不可)
      */
     public List<Integer> getCalledIndexList() {
         return _calledIndexList;
     }
     
-    /**
-     * 被副露牌インデックスを設定
-     */
-    public void setCalledIndex() {
-        _calledIndexList.add(_paiList.size());
-    }
-    
-    
-    
-    /**
-     * リストをディープコピー
-     * 
-     * @param sourceList 複製元。
-     * @return 複製結果。
-     */
-    private <E> List<E> deepCopyList(final List<E> sourceList) {
-        return new ArrayList<>(sourceList);
-    }
-    
     
     
     /**
      * 捨て牌リスト
      */
-    private List<JanPai> _paiList = new ArrayList<>();
+    private final List<JanPai> _paiList;
     
     /**
      * リーチ宣言牌インデックス
      */
-    private int _richiIndex = 0;
+    private final int _richiIndex;
     
     /**
      * 被副露牌インデックス
      */
-    private List<Integer> _calledIndexList = new ArrayList<>();
+    private final List<Integer> _calledIndexList;
     
 }
-
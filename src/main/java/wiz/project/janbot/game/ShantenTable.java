@@ -0,0 +1,582 @@
+/**
+ * ShantenTable.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 参照テーブルによる向聴数計算
+ * 
+ * 種類ごとの5進数キーに対し「面子数と雀頭の有無ごとの最大塔子数」を求めて表に記録し、
+ * 4種類の結果を組み合わせて一般形の向聴数を求める。表は初回参照時に再帰的に埋める。
+ * 七対子は中国麻雀の規則に従い、同じ牌4枚を2組の対子とみなす。
+ */
+final class ShantenTable {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private ShantenTable() {
+    }
+    
+    
+    
+    /**
+     * 向聴数を取得
+     * 
+     * 一般形、七対子、十三么九のうち最小の値を返す。(和了形は-1、聴牌は0)
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @param fixedMeldCount 副露面子数。
+     * @return 向聴数。
+     */
+    public static int getShanten(final JanPaiCount hand, final int fixedMeldCount) {
+        checkArgument(hand, fixedMeldCount);
+        
+        final int[] valueArray = new int[SUIT_COUNT];
+        for (int suit = 0; suit < SUIT_COUNT; suit++) {
+            valueArray[suit] = getValue(getSuitKey(hand, suit), suit == JanPaiCount.SUIT_JI);
+        }
+        final int regular = getRegularShanten(combine(valueArray[JanPaiCount.SUIT_MAN], valueArray[JanPaiCount.SUIT_PIN]),
+                                              combine(valueArray[JanPaiCount.SUIT_SOU], valueArray[JanPaiCount.SUIT_JI]),
+                                              fixedMeldCount);
+        return Math.min(regular, getSpecialShanten(hand, countSpecialShape(hand), fixedMeldCount, -1));
+    }
+    
+    /**
+     * 打牌ごとの受け入れ情報を取得
+     * 
+     * 受け入れ枚数は、手牌に無い4枚から見えている枚数を引いて数える。
+     * 結果は向聴数の小さい順、受け入れ枚数の多い順に並べる。
+     * 
+     * @param hand 打牌前の門前の手牌の枚数。(3n+2枚)
+     * @param fixedMeldCount 副露面子数。
+     * @param visible 見えている牌の枚数。(自分の手牌を含む)
+     * @return 打牌ごとの受け入れ情報リスト。
+     */
+    public static List<UkeireInfo> getUkeireList(final JanPaiCount hand, final int fixedMeldCount, final JanPaiCount visible) {
+        checkArgument(hand, fixedMeldCount);
+        if (visible == null) {
+            throw new NullPointerException("Visible count is null.");
+        }
+        if (hand.getTotal() % 3 != 2) {
+            throw new IllegalArgumentException("Invalid hand size : " + hand.getTotal());
+        }
+        
+        final List<UkeireInfo> resultList = new ArrayList<>();
+        for (int discard = 0; discard < JanPaiCount.JANPAI_COUNT; discard++) {
+            if (hand.get(discard) == 0) {
+                continue;
+            }
+            
+            final JanPaiCount rest = hand.clone();
+            rest.remove(VALUES[discard]);
+            
+            // 牌を1枚足した種類だけを引き直せるよう、他の3種類を組み合わせた値を先に求めておく
+            final int[] keyArray = new int[SUIT_COUNT];
+            final int[] valueArray = new int[SUIT_COUNT];
+            for (int suit = 0; suit < SUIT_COUNT; suit++) {
+                keyArray[suit] = getSuitKey(rest, suit);
+                valueArray[suit] = getValue(keyArray[suit], suit == JanPaiCount.SUIT_JI);
+            }
+            final int[] shapeArray = countSpecialShape(rest);
+            final int[] otherArray = getOtherValueArray(valueArray);
+            final int shanten = Math.min(getRegularShanten(otherArray[0], valueArray[0], fixedMeldCount),
+                                         getSpecialShanten(rest, shapeArray, fixedMeldCount, -1));
+            
+            long acceptableMask = 0L;
+            int acceptableCount = 0;
+            long candidateMask = getCandidateMask(rest.getMask(), fixedMeldCount);
+            while (candidateMask != 0) {
+                final int ordinal = Long.numberOfTrailingZeros(candidateMask);
+                candidateMask &= candidateMask - 1;
+                if (rest.get(ordinal) >= JanPaiCount.MAX_COUNT) {
+                    continue;
+                }
+                
+                final int suit = ordinal < JI_OFFSET ? ordinal / 9 : JanPaiCount.SUIT_JI;
+                final int rank = ordinal < JI_OFFSET ? ordinal % 9 : ordinal - JI_OFFSET;
+                final int value = getValue(keyArray[suit] + POW5[rank], suit == JanPaiCount.SUIT_JI);
+                final int nextShanten = Math.min(getRegularShanten(otherArray[suit], value, fixedMeldCount),
+                                                 getSpecialShanten(rest, shapeArray, fixedMeldCount, ordinal));
+                if (nextShanten < shanten) {
+                    acceptableMask |= 1L << ordinal;
+                    acceptableCount += Math.max(JanPaiCount.MAX_COUNT - visible.get(ordinal), 0);
+                }
+            }
+            resultList.add(new UkeireInfo(VALUES[discard], shanten, acceptableMask, acceptableCount));
+        }
+        
+        Collections.sort(resultList, UKEIRE_COMPARATOR);
+        return resultList;
+    }
+    
+    
+    
+    /**
+     * 表の値にブロックを1つ追加
+     * 
+     * @param value 表の値。
+     * @param meldCount 追加する面子数。
+     * @param taatsuCount 追加する塔子数。
+     * @param pairCount 追加する雀頭数。
+     * @return 追加後の表の値。
+     */
+    private static int addBlock(final int value, final int meldCount, final int taatsuCount, final int pairCount) {
+        int result = 0;
+        for (int index = 0; index < VALUE_FIELD_COUNT; index++) {
+            final int field = (value >>> (index * VALUE_FIELD_BITS)) & VALUE_FIELD_MASK;
+            if (field == 0) {
+                continue;
+            }
+            
+            final int pair = FIELD_PAIR_ARRAY[index] + pairCount;
+            final int meld = FIELD_MELD_ARRAY[index] + meldCount;
+            if (pair > 1 || meld > MAX_MELD_COUNT) {
+                continue;
+            }
+            final int taatsu = Math.min(field - 1 + taatsuCount, MAX_MELD_COUNT);
+            result = putField(result, pair * (MAX_MELD_COUNT + 1) + meld, taatsu + 1);
+        }
+        return result;
+    }
+    
+    /**
+     * 引数をチェック
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @param fixedMeldCount 副露面子数。
+     */
+    private static void checkArgument(final JanPaiCount hand, final int fixedMeldCount) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        if (fixedMeldCount < 0 || fixedMeldCount > MAX_MELD_COUNT) {
+            throw new IllegalArgumentException("Invalid fixed meld count : " + fixedMeldCount);
+        }
+        if (hand.getTotal() % 3 == 0) {
+            throw new IllegalArgumentException("Invalid hand size : " + hand.getTotal());
+        }
+    }
+    
+    /**
+     * 2つの表の値を組み合わせる
+     * 
+     * @param first 表の値。
+     * @param second 表の値。
+     * @return 組み合わせた表の値。
+     */
+    private static int combine(final int first, final int second) {
+        if (first == EMPTY_VALUE) {
+            return second;
+        }
+        if (second == EMPTY_VALUE) {
+            return first;
+        }
+        
+        int result = 0;
+        // 可能な項目だけを巡回する
+        for (int firstRest = getFieldMask(first); firstRest != 0; firstRest &= firstRest - 1) {
+            final int firstShift = Integer.numberOfTrailingZeros(firstRest);
+            final int firstIndex = firstShift / VALUE_FIELD_BITS;
+            final int firstField = (first >>> firstShift) & VALUE_FIELD_MASK;
+            
+            for (int secondRest = getFieldMask(second); secondRest != 0; secondRest &= secondRest - 1) {
+                final int secondShift = Integer.numberOfTrailingZeros(secondRest);
+                final int secondIndex = secondShift / VALUE_FIELD_BITS;
+                final int secondField = (second >>> secondShift) & VALUE_FIELD_MASK;
+                final int pair = FIELD_PAIR_ARRAY[firstIndex] + FIELD_PAIR_ARRAY[secondIndex];
+                final int meld = FIELD_MELD_ARRAY[firstIndex] + FIELD_MELD_ARRAY[secondIndex];
+                if (pair > 1 || meld > MAX_MELD_COUNT) {
+                    continue;
+                }
+                final int taatsu = Math.min(firstField + secondField - 2, MAX_MELD_COUNT);
+                result = putField(result, pair * (MAX_MELD_COUNT + 1) + meld, taatsu + 1);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 表の値を計算
+     * 
+     * 最も小さい牌について、孤立牌・刻子・順子・雀頭・塔子のいずれとして使うかを全て試し、
+     * 残りの牌の表の値と合わせる。
+     * 
+     * @param key 5進数キー。
+     * @param isJi 字牌か。(順子と両面・嵌張の塔子を作らない)
+     * @return 表の値。
+     */
+    private static int computeValue(final int key, final boolean isJi) {
+        if (key == 0) {
+            return EMPTY_VALUE;
+        }
+        
+        int rank = 0;
+        while (getDigit(key, rank) == 0) {
+            rank++;
+        }
+        final int count = getDigit(key, rank);
+        
+        // 孤立牌
+        int value = getValue(key - POW5[rank], isJi);
+        if (count >= 3) {
+            value = mergeValue(value, addBlock(getValue(key - POW5[rank] * 3, isJi), 1, 0, 0));
+        }
+        if (count >= 2) {
+            final int rest = getValue(key - POW5[rank] * 2, isJi);
+            value = mergeValue(value, addBlock(rest, 0, 0, 1));
+            value = mergeValue(value, addBlock(rest, 0, 1, 0));
+        }
+        if (!isJi) {
+            final boolean hasNext = rank < 8 && getDigit(key, rank + 1) > 0;
+            final boolean hasNext2 = rank < 7 && getDigit(key, rank + 2) > 0;
+            if (hasNext && hasNext2) {
+                value = mergeValue(value, addBlock(getValue(key - POW5[rank] - POW5[rank + 1] - POW5[rank + 2], isJi), 1, 0, 0));
+            }
+            if (hasNext) {
+                value = mergeValue(value, addBlock(getValue(key - POW5[rank] - POW5[rank + 1], isJi), 0, 1, 0));
+            }
+            if (hasNext2) {
+                value = mergeValue(value, addBlock(getValue(key - POW5[rank] - POW5[rank + 2], isJi), 0, 1, 0));
+            }
+        }
+        return value;
+    }
+    
+    /**
+     * 七対子と十三么九の判定に使う枚数を数える
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @return 対子数、么九牌の種類数、么九牌の対子数。
+     */
+    private static int[] countSpecialShape(final JanPaiCount hand) {
+        final int[] shapeArray = new int[3];
+        for (int ordinal = 0; ordinal < JanPaiCount.JANPAI_COUNT; ordinal++) {
+            final int count = hand.get(ordinal);
+            shapeArray[0] += count / 2;
+            if ((YAO_MASK & (1L << ordinal)) != 0 && count > 0) {
+                shapeArray[1]++;
+                if (count >= 2) {
+                    shapeArray[2]++;
+                }
+            }
+        }
+        return shapeArray;
+    }
+    
+    /**
+     * 向聴数が進む可能性のある牌の集合を取得
+     * 
+     * 手牌のどの牌とも2つ以上離れた牌は孤立牌にしかならないため除く。
+     * 
+     * @param handMask 手牌の集合。
+     * @param fixedMeldCount 副露面子数。
+     * @return 牌の集合。
+     */
+    private static long getCandidateMask(final long handMask, final int fixedMeldCount) {
+        long mask = fixedMeldCount == 0 ? YAO_MASK : 0L;
+        long rest = handMask;
+        while (rest != 0) {
+            final int ordinal = Long.numberOfTrailingZeros(rest);
+            rest &= rest - 1;
+            if (ordinal >= JI_OFFSET) {
+                mask |= 1L << ordinal;
+                continue;
+            }
+            
+            final int base = ordinal - ordinal % 9;
+            final int first = Math.max(ordinal - 2, base);
+            final int last = Math.min(ordinal + 2, base + 8);
+            for (int target = first; target <= last; target++) {
+                mask |= 1L << target;
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * 5進数キーの指定桁を取得
+     * 
+     * @param key 5進数キー。
+     * @param rank 桁。
+     * @return 枚数。
+     */
+    private static int getDigit(final int key, final int rank) {
+        return key / POW5[rank] % 5;
+    }
+    
+    /**
+     * 表の値のうち可能な項目の最下位ビットを取得
+     * 
+     * @param value 表の値。
+     * @return 項目ごとに値が0でなければ最下位ビットを立てたマスク。
+     */
+    private static int getFieldMask(final int value) {
+        return (value | (value >>> 1) | (value >>> 2)) & FIELD_LOW_BIT_MASK;
+    }
+    
+    /**
+     * 種類ごとに、その種類以外の表の値を組み合わせた値を取得
+     * 
+     * @param valueArray 種類ごとの表の値。
+     * @return 種類ごとの、その種類以外を組み合わせた表の値。
+     */
+    private static int[] getOtherValueArray(final int[] valueArray) {
+        final int manPin = combine(valueArray[JanPaiCount.SUIT_MAN], valueArray[JanPaiCount.SUIT_PIN]);
+        final int souJi = combine(valueArray[JanPaiCount.SUIT_SOU], valueArray[JanPaiCount.SUIT_JI]);
+        final int[] otherArray = new int[SUIT_COUNT];
+        otherArray[JanPaiCount.SUIT_MAN] = combine(valueArray[JanPaiCount.SUIT_PIN], souJi);
+        otherArray[JanPaiCount.SUIT_PIN] = combine(valueArray[JanPaiCount.SUIT_MAN], souJi);
+        otherArray[JanPaiCount.SUIT_SOU] = combine(manPin, valueArray[JanPaiCount.SUIT_JI]);
+        otherArray[JanPaiCount.SUIT_JI] = combine(manPin, valueArray[JanPaiCount.SUIT_SOU]);
+        return otherArray;
+    }
+    
+    /**
+     * 一般形の向聴数を取得
+     * 
+     * 最後の組み合わせは表の値を作らず、向聴数の最小値だけを求める。
+     * 
+     * @param first 表の値。
+     * @param second 表の値。(firstと合わせて全ての種類を含む)
+     * @param fixedMeldCount 副露面子数。
+     * @return 向聴数。
+     */
+    private static int getRegularShanten(final int first, final int second, final int fixedMeldCount) {
+        int shanten = Integer.MAX_VALUE;
+        // 可能な項目だけを巡回する
+        for (int firstRest = getFieldMask(first); firstRest != 0; firstRest &= firstRest - 1) {
+            final int firstShift = Integer.numberOfTrailingZeros(firstRest);
+            final int firstIndex = firstShift / VALUE_FIELD_BITS;
+            final int firstField = (first >>> firstShift) & VALUE_FIELD_MASK;
+            
+            for (int secondRest = getFieldMask(second); secondRest != 0; secondRest &= secondRest - 1) {
+                final int secondShift = Integer.numberOfTrailingZeros(secondRest);
+                final int secondIndex = secondShift / VALUE_FIELD_BITS;
+                final int secondField = (second >>> secondShift) & VALUE_FIELD_MASK;
+                final int pair = FIELD_PAIR_ARRAY[firstIndex] + FIELD_PAIR_ARRAY[secondIndex];
+                final int meld = FIELD_MELD_ARRAY[firstIndex] + FIELD_MELD_ARRAY[secondIndex] + fixedMeldCount;
+                if (pair > 1 || meld > MAX_MELD_COUNT) {
+                    continue;
+                }
+                final int taatsu = Math.min(firstField + secondField - 2, MAX_MELD_COUNT - meld);
+                shanten = Math.min(shanten, 8 - meld * 2 - taatsu - pair);
+            }
+        }
+        return shanten;
+    }
+    
+    /**
+     * 七対子と十三么九の向聴数を取得
+     * 
+     * @param hand 門前の手牌の枚数。
+     * @param shapeArray 手牌の対子数、么九牌の種類数、么九牌の対子数。
+     * @param fixedMeldCount 副露面子数。
+     * @param extra 追加で1枚あるとみなす牌の序数。(無い場合は-1)
+     * @return 向聴数。(対象外の場合はInteger.MAX_VALUE)
+     */
+    private static int getSpecialShanten(final JanPaiCount hand, final int[] shapeArray, final int fixedMeldCount, final int extra) {
+        final int total = extra >= 0 ? hand.getTotal() + 1 : hand.getTotal();
+        if (fixedMeldCount > 0 || total < 13) {
+            return Integer.MAX_VALUE;
+        }
+        
+        int pairCount = shapeArray[0];
+        int yaoKindCount = shapeArray[1];
+        int yaoPairCount = shapeArray[2];
+        if (extra >= 0) {
+            final int count = hand.get(extra);
+            if (count % 2 == 1) {
+                pairCount++;
+            }
+            if ((YAO_MASK & (1L << extra)) != 0) {
+                if (count == 0) {
+                    yaoKindCount++;
+                }
+                else if (count == 1) {
+                    yaoPairCount++;
+                }
+            }
+        }
+        return Math.min(6 - Math.min(pairCount, 7), 13 - yaoKindCount - (yaoPairCount > 0 ? 1 : 0));
+    }
+    
+    /**
+     * 種類ごとの5進数キーを取得
+     * 
+     * @param hand 手牌の枚数。
+     * @param suit 種類。
+     * @return 5進数キー。
+     */
+    private static int getSuitKey(final JanPaiCount hand, final int suit) {
+        return HandCheckTable.getSuitKey(hand.getSuitBits(suit));
+    }
+    
+    /**
+     * 表の値を取得
+     * 
+     * 未計算の場合は計算して表に記録する。計算結果はキーだけで決まるため、
+     * 複数スレッドから同時に書き込まれても同じ値になる。
+     * 
+     * @param key 5進数キー。
+     * @param isJi 字牌か。
+     * @return 表の値。
+     */
+    private static int getValue(final int key, final boolean isJi) {
+        final int[] table = isJi ? JI_TABLE : NUMBER_TABLE;
+        int value = table[key];
+        if (value == 0) {
+            value = computeValue(key, isJi);
+            table[key] = value;
+        }
+        return value;
+    }
+    
+    /**
+     * 2つの表の値の大きい方を取る
+     * 
+     * @param first 表の値。
+     * @param second 表の値。
+     * @return 項目ごとに大きい方を取った表の値。
+     */
+    private static int mergeValue(final int first, final int second) {
+        int result = first;
+        for (int index = 0; index < VALUE_FIELD_COUNT; index++) {
+            result = putField(result, index, (second >>> (index * VALUE_FIELD_BITS)) & VALUE_FIELD_MASK);
+        }
+        return result;
+    }
+    
+    /**
+     * 表の値の項目を大きい方で更新
+     * 
+     * @param value 表の値。
+     * @param index 項目のインデックス。(雀頭の有無 * 5 + 面子数)
+     * @param field 項目の値。(塔子数 + 1、0は不可能)
+     * @return 更新後の表の値。
+     */
+    private static int putField(final int value, final int index, final int field) {
+        final int shift = index * VALUE_FIELD_BITS;
+        if (((value >>> shift) & VALUE_FIELD_MASK) >= field) {
+            return value;
+        }
+        return (value & ~(VALUE_FIELD_MASK << shift)) | (field << shift);
+    }
+    
+    
+    
+    /**
+     * 最大面子数
+     */
+    private static final int MAX_MELD_COUNT = 4;
+    
+    /**
+     * 種類数 (萬子、筒子、索子、字牌)
+     */
+    private static final int SUIT_COUNT = JanPaiCount.SUIT_JI + 1;
+    
+    /**
+     * 表の値の項目数 (雀頭の有無 * 面子数0-4)
+     */
+    private static final int VALUE_FIELD_COUNT = 2 * (MAX_MELD_COUNT + 1);
+    
+    /**
+     * 表の値の1項目のビット数
+     */
+    private static final int VALUE_FIELD_BITS = 3;
+    
+    /**
+     * 表の値の1項目のマスク
+     */
+    private static final int VALUE_FIELD_MASK = (1 << VALUE_FIELD_BITS) - 1;
+    
+    /**
+     * 表の値の各項目の最下位ビット
+     */
+    private static final int FIELD_LOW_BIT_MASK = 01111111111;
+    
+    /**
+     * 表の値の項目ごとの雀頭数
+     */
+    private static final int[] FIELD_PAIR_ARRAY = { 0, 0, 0, 0, 0, 1, 1, 1, 1, 1 };
+    
+    /**
+     * 表の値の項目ごとの面子数
+     */
+    private static final int[] FIELD_MELD_ARRAY = { 0, 1, 2, 3, 4, 0, 1, 2, 3, 4 };
+    
+    /**
+     * 牌が無い場合の表の値 (面子0、塔子0、雀頭無しのみ可能)
+     */
+    private static final int EMPTY_VALUE = 1;
+    
+    /**
+     * 字牌の序数オフセット
+     */
+    private static final int JI_OFFSET = JanPai.TON.ordinal();
+    
+    /**
+     * 全ての牌 (序数順)
+     */
+    private static final JanPai[] VALUES = JanPai.values();
+    
+    /**
+     * 么九牌の集合
+     */
+    private static final long YAO_MASK;
+    
+    static {
+        long yaoMask = ((1L << JanPaiCount.JANPAI_COUNT) - 1) & ~((1L << JI_OFFSET) - 1);
+        for (int suit = 0; suit < 3; suit++) {
+            yaoMask |= 1L << (suit * 9);
+            yaoMask |= 1L << (suit * 9 + 8);
+        }
+        YAO_MASK = yaoMask;
+    }
+    
+    /**
+     * 5のべき乗 (0-9乗)
+     */
+    private static final int[] POW5 = { 1, 5, 25, 125, 625, 3125, 15625, 78125, 390625, 1953125 };
+    
+    /**
+     * 数牌の表 (5進数キーでアクセス、0は未計算)
+     * 
+     * 項目ごとに「雀頭の有無と面子数」に対する最大塔子数+1を3ビットで詰める。
+     */
+    private static final int[] NUMBER_TABLE = new int[POW5[9]];
+    
+    /**
+     * 字牌の表 (5進数キーでアクセス、0は未計算)
+     */
+    private static final int[] JI_TABLE = new int[POW5[7]];
+    
+    /**
+     * 受け入れ情報の並び順 (向聴数の小さい順、受け入れ枚数の多い順、序数順)
+     */
+    private static final Comparator<UkeireInfo> UKEIRE_COMPARATOR = new Comparator<UkeireInfo>() {
+        public int compare(final UkeireInfo first, final UkeireInfo second) {
+            if (first.getShanten() != second.getShanten()) {
+                return first.getShanten() < second.getShanten() ? -1 : 1;
+            }
+            if (first.getAcceptableCount() != second.getAcceptableCount()) {
+                return first.getAcceptableCount() > second.getAcceptableCount() ? -1 : 1;
+            }
+            return first.getDiscard().compareTo(second.getDiscard());
+        }
+    };
+    
+}
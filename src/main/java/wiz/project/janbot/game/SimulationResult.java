@@ -0,0 +1,232 @@
+/**
+ * SimulationResult.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.concurrent.TimeUnit;
+
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * 対局シミュレーションの集計結果
+ * 
+ * 分割した区間ごとに集計し、merge()で合算する。(同期しない)
+ */
+public final class SimulationResult {
+    
+    /**
+     * コンストラクタ
+     */
+    SimulationResult() {
+    }
+    
+    
+    
+    /**
+     * 局あたりの平均残り枚数を取得
+     * 
+     * @return 局あたりの平均残り枚数。
+     */
+    public double getAverageRemainCount() {
+        return _roundCount > 0 ? _totalRemainCount / (double)_roundCount : 0.0;
+    }
+    
+    /**
+     * 流局数を取得
+     * 
+     * @return 流局数。
+     */
+    public long getDrawCount() {
+        return _drawCount;
+    }
+    
+    /**
+     * 流局率を取得
+     * 
+     * @return 流局率。
+     */
+    public double getDrawRate() {
+        return getRate(_drawCount);
+    }
+    
+    /**
+     * 経過時間を取得
+     * 
+     * @return 経過時間。(ナノ秒)
+     */
+    public long getElapsedNanos() {
+        return _elapsedNanos;
+    }
+    
+    /**
+     * 局数を取得
+     * 
+     * @return 局数。
+     */
+    public long getRoundCount() {
+        return _roundCount;
+    }
+    
+    /**
+     * 1秒あたりの局数を取得
+     * 
+     * @return 1秒あたりの局数。
+     */
+    public double getRoundsPerSecond() {
+        return _elapsedNanos > 0 ? _roundCount * (double)TimeUnit.SECONDS.toNanos(1) / _elapsedNanos : 0.0;
+    }
+    
+    /**
+     * 統計情報を取得
+     * 
+     * @return 統計情報。
+     */
+    public String getStatistics() {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(String.format("局数：%d   経過時間：%.2fs   局/秒：%.0f%n",
+                                 _roundCount, _elapsedNanos / (double)TimeUnit.SECONDS.toNanos(1), getRoundsPerSecond()));
+        buf.append(String.format("流局率：%.2f%%   平均残り枚数：%.2f%n", getDrawRate() * 100, getAverageRemainCount()));
+        for (final Wind wind : Wind.values()) {
+            buf.append(String.format("%s：和了率 %.2f%%   流局時聴牌率 %.2f%%%n",
+                                     wind, getWinRate(wind) * 100, getTenpaiRate(wind) * 100));
+        }
+        return buf.toString();
+    }
+    
+    /**
+     * 流局時の聴牌率を取得
+     * 
+     * @param wind 席の風。
+     * @return 流局した局のうち、流局時に聴牌していた割合。
+     */
+    public double getTenpaiRate(final Wind wind) {
+        if (wind == null) {
+            throw new NullPointerException("Wind is null.");
+        }
+        return _drawCount > 0 ? _tenpaiCountArray[wind.ordinal()] / (double)_drawCount : 0.0;
+    }
+    
+    /**
+     * 和了率を取得
+     * 
+     * @param wind 席の風。
+     * @return 和了率。
+     */
+    public double getWinRate(final Wind wind) {
+        if (wind == null) {
+            throw new NullPointerException("Wind is null.");
+        }
+        return getRate(_winCountArray[wind.ordinal()]);
+    }
+    
+    
+    
+    /**
+     * 流局した局を追加
+     * 
+     * @param tenpaiBits 流局時に聴牌していた席の集合。(風の序数のビット)
+     */
+    void addDraw(final int tenpaiBits) {
+        _roundCount++;
+        _drawCount++;
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            if ((tenpaiBits & (1 << i)) != 0) {
+                _tenpaiCountArray[i]++;
+            }
+        }
+    }
+    
+    /**
+     * 和了した局を追加
+     * 
+     * @param winner 和了した席の風。
+     * @param remainCount 和了時の残り枚数。
+     */
+    void addWin(final Wind winner, final int remainCount) {
+        _roundCount++;
+        _winCountArray[winner.ordinal()]++;
+        _totalRemainCount += remainCount;
+    }
+    
+    /**
+     * 集計結果を合算
+     * 
+     * @param source 合算する集計結果。
+     */
+    void merge(final SimulationResult source) {
+        _roundCount += source._roundCount;
+        _drawCount += source._drawCount;
+        _totalRemainCount += source._totalRemainCount;
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            _winCountArray[i] += source._winCountArray[i];
+            _tenpaiCountArray[i] += source._tenpaiCountArray[i];
+        }
+    }
+    
+    /**
+     * 経過時間を設定
+     * 
+     * @param elapsedNanos 経過時間。(ナノ秒)
+     */
+    void setElapsedNanos(final long elapsedNanos) {
+        _elapsedNanos = elapsedNanos;
+    }
+    
+    
+    
+    /**
+     * 局数に対する割合を取得
+     * 
+     * @param count 件数。
+     * @return 割合。
+     */
+    private double getRate(final long count) {
+        return _roundCount > 0 ? count / (double)_roundCount : 0.0;
+    }
+    
+    
+    
+    /**
+     * 席の数
+     */
+    private static final int SEAT_COUNT = Wind.values().length;
+    
+    
+    
+    /**
+     * 局数
+     */
+    private long _roundCount = 0L;
+    
+    /**
+     * 流局数
+     */
+    private long _drawCount = 0L;
+    
+    /**
+     * 残り枚数の合計
+     */
+    private long _totalRemainCount = 0L;
+    
+    /**
+     * 和了数 (風の序数ごと)
+     */
+    private final long[] _winCountArray = new long[SEAT_COUNT];
+    
+    /**
+     * 流局時の聴牌数 (風の序数ごと)
+     */
+    private final long[] _tenpaiCountArray = new long[SEAT_COUNT];
+    
+    /**
+     * 経過時間 (ナノ秒)
+     */
+    private long _elapsedNanos = 0L;
+    
+}
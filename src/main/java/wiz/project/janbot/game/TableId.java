@@ -0,0 +1,119 @@
+/**
+ * TableId.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Objects;
+
+
+
+/**
+ * 卓ID (immutable)
+ */
+public final class TableId {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param channel チャンネル名。
+     * @param number 卓番号。
+     */
+    public TableId(final String channel, final int number) {
+        if (channel == null) {
+            throw new NullPointerException("Channel name is null.");
+        }
+        if (number <= 0) {
+            throw new IllegalArgumentException("Invalid table number : " + number);
+        }
+        
+        _channel = channel;
+        _number = number;
+    }
+    
+    
+    
+    /**
+     * 等価なオブジェクトか
+     * 
+     * @param target 比較対象。
+     * @return 比較結果。
+     */
+    @Override
+    public boolean equals(final Object target) {
+        if (target == null) {
+            return false;
+        }
+        if (this == target) {
+            return true;
+        }
+        if (!(target instanceof TableId)) {
+            return false;
+        }
+        
+        final TableId targetId = (TableId)target;
+        return _channel.equals(targetId._channel) &&
+               _number == targetId._number;
+    }
+    
+    /**
+     * チャンネル名を取得
+     * 
+     * @return チャンネル名。
+     */
+    public String getChannel() {
+        return _channel;
+    }
+    
+    /**
+     * 卓番号を取得
+     * 
+     * @return 卓番号。
+     */
+    public int getNumber() {
+        return _number;
+    }
+    
+    /**
+     * ハッシュコードを取得
+     * 
+     * @return ハッシュコード。
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(_channel, _number);
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return _channel + ":" + _number;
+    }
+    
+    
+    
+    /**
+     * 既定の卓番号
+     */
+    public static final int DEFAULT_NUMBER = 1;
+    
+    
+    
+    /**
+     * チャンネル名
+     */
+    private final String _channel;
+    
+    /**
+     * 卓番号
+     */
+    private final int _number;
+    
+}
@@ -0,0 +1,26 @@
+/**
+ * TableTask.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * 卓のイベントループで実行する処理
+ */
+interface TableTask {
+    
+    /**
+     * 処理を実行
+     * 
+     * @throws JanException ゲーム処理例外。
+     */
+    public void run() throws JanException;
+    
+}
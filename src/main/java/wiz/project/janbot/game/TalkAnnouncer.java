@@ -9,9 +9,7 @@ package wiz.project.janbot.game;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Observable;
 
-import wiz.project.ircbot.IRCBOT;
 import wiz.project.jan.JanPai;
 import wiz.project.jan.Wind;
 
@@ -28,28 +26,40 @@ public class TalkAnnouncer extends AbstractAnnouncer {
     public TalkAnnouncer() {
     }
     
+    /**
+     * コンストラクタ
+     * 
+     * @param compactViewState 差分表示の状態。(卓の実況者どうしで共有)
+     * @param renderCache 描画結果のキャッシュ。(卓の実況者どうしで共有)
+     */
+    public TalkAnnouncer(final CompactViewState compactViewState, final RenderCache renderCache) {
+        super(compactViewState, renderCache);
+    }
+    
     
     
     /**
      * 状況更新時の処理
      * 
-     * @param target 監視対象。
-     * @param p 更新パラメータ。
+     * @param info ゲーム情報。
+     * @param param 実況パラメータ。
      */
-    public void update(final Observable target, final Object p) {
-        if (!(target instanceof JanInfo)) {
-            return;
-        }
-        if (!(p instanceof AnnounceParam)) {
-            return;
-        }
-        
-        final JanInfo info = (JanInfo)target;
-        final AnnounceParam param = (AnnounceParam)p;
+    public void onEvent(final JanInfo info, final AnnounceParam param) {
         final Player player = param.getPlayer();
-        final Wind playerWind = info.getWind(player.getName());
+        final Wind playerWind = info.getWind(player);
         
         final List<String> messageList = new ArrayList<>();
+        if (param.hasFlag(AnnounceFlag.COMPACT_ON)) {
+            getCompactViewState().setCompact(player, true);
+            messageList.add("差分表示にしました (jan full で全体表示)");
+        }
+        else if (param.hasFlag(AnnounceFlag.COMPACT_OFF)) {
+            getCompactViewState().setCompact(player, false);
+            messageList.add("全体表示に戻しました");
+        }
+        if (param.hasFlag(AnnounceFlag.FULL_RENDER)) {
+            getCompactViewState().resetBase(player);
+        }
         if (param.hasFlag(AnnounceFlag.CONFIRM_CALL)) {
             final List<CallType> callableList = info.getCallableList(playerWind);
             final JanPai discard = info.getActiveDiscard();
@@ -62,7 +72,7 @@ public class TalkAnnouncer extends AbstractAnnouncer {
             messageList.add("捨て牌を選んでください");
         }
         if (param.hasFlag(AnnounceFlag.HAND_TALK)) {
-            messageList.add(convertHandToString(info, player, param));
+            messageList.add(convertHandToCompactString(info, player, param));
         }
         
         if (param.hasFlag(AnnounceFlag.COMPLETE_RON)) {
@@ -75,7 +85,7 @@ public class TalkAnnouncer extends AbstractAnnouncer {
             messageList.add("---- 流局 ----");
         }
         
-        IRCBOT.getInstance().talk(player.getName(), messageList);
+        talk(player, messageList, param.getPriority());
     }
     
 }
@@ -0,0 +1,115 @@
+/**
+ * UkeireInfo.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.List;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 打牌ごとの受け入れ情報
+ */
+final class UkeireInfo {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param discard 打牌。
+     * @param shanten 打牌後の向聴数。
+     * @param acceptableMask 向聴数が進む牌の集合。(序数のビット)
+     * @param acceptableCount 向聴数が進む牌の残り枚数の合計。
+     */
+    UkeireInfo(final JanPai discard, final int shanten, final long acceptableMask, final int acceptableCount) {
+        _discard = discard;
+        _shanten = shanten;
+        _acceptableMask = acceptableMask;
+        _acceptableCount = acceptableCount;
+    }
+    
+    
+    
+    /**
+     * 向聴数が進む牌の残り枚数の合計を取得
+     * 
+     * @return 残り枚数の合計。
+     */
+    public int getAcceptableCount() {
+        return _acceptableCount;
+    }
+    
+    /**
+     * 向聴数が進む牌リストを取得
+     * 
+     * @return 向聴数が進む牌リスト。(序数順)
+     */
+    public List<JanPai> getAcceptableList() {
+        return HandCheckTable.convertMaskToList(_acceptableMask);
+    }
+    
+    /**
+     * 向聴数が進む牌の集合を取得
+     * 
+     * @return 牌の集合。(序数のビット)
+     */
+    public long getAcceptableMask() {
+        return _acceptableMask;
+    }
+    
+    /**
+     * 打牌を取得
+     * 
+     * @return 打牌。
+     */
+    public JanPai getDiscard() {
+        return _discard;
+    }
+    
+    /**
+     * 打牌後の向聴数を取得
+     * 
+     * @return 向聴数。(聴牌は0)
+     */
+    public int getShanten() {
+        return _shanten;
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return _discard + " : " + _shanten + " " + getAcceptableList() + " " + _acceptableCount;
+    }
+    
+    
+    
+    /**
+     * 打牌
+     */
+    private final JanPai _discard;
+    
+    /**
+     * 打牌後の向聴数
+     */
+    private final int _shanten;
+    
+    /**
+     * 向聴数が進む牌の集合
+     */
+    private final long _acceptableMask;
+    
+    /**
+     * 向聴数が進む牌の残り枚数の合計
+     */
+    private final int _acceptableCount;
+    
+}
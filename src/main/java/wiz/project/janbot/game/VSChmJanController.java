@@ -14,6 +14,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.TreeMap;
 
 import wiz.project.jan.Hand;
@@ -21,7 +22,6 @@ import wiz.project.jan.JanPai;
 import wiz.project.jan.MenTsu;
 import wiz.project.jan.MenTsuType;
 import wiz.project.jan.Wind;
-import wiz.project.jan.util.HandCheckUtil;
 import wiz.project.jan.util.JanPaiUtil;
 import wiz.project.janbot.game.exception.BoneheadException;
 import wiz.project.janbot.game.exception.InvalidInputException;
@@ -31,6 +31,9 @@ import wiz.project.janbot.game.exception.JanException;
 
 /**
  * 中国麻雀対戦用コントローラ
+ * 
+ * 巡目の進行はrunTurnLoop()のループで行い、COMの手番が続いてもスタックは深くならない。
+ * 人間の打牌待ち、鳴き確認待ち、流局でループを抜け、人間の入力 (打牌、鳴きの見送り) で再開する。
  */
 class VSChmJanController implements JanController {
     
@@ -38,6 +41,16 @@ class VSChmJanController implements JanController {
      * コンストラクタ
      */
     public VSChmJanController() {
+        this(null);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param random 牌山と席決めに使う乱数。(nullの場合は都度SecureRandomを生成)
+     */
+    VSChmJanController(final Random random) {
+        _random = random;
     }
     
     
@@ -112,8 +125,8 @@ class VSChmJanController implements JanController {
             
             // 捨て牌選択
             final Player activePlayer = info.getActivePlayer();
-            info.notifyObservers(new GameStatusParam(activePlayer, GameStatus.AFTER_CALL));
-            info.notifyObservers(new AnnounceParam(activePlayer, ANNOUNCE_FLAG_HAND_AFTER_CALL));
+            publish(info, new GameStatusParam(activePlayer, GameStatus.AFTER_CALL));
+            publish(info, new AnnounceParam(activePlayer, ANNOUNCE_FLAG_HAND_AFTER_CALL));
         }
         catch (final Throwable e) {
             // 副露しない場合、アクティブプレイヤーを元に戻す
@@ -130,15 +143,15 @@ class VSChmJanController implements JanController {
             throw new NullPointerException("Jan info is null.");
         }
         
-        final Map<JanPai, Integer> handWithTsumo = getHandMap(info, info.getActiveWind(), info.getActiveTsumo());
-        if (!HandCheckUtil.isComplete(handWithTsumo)) {
+        final JanPaiCount handWithTsumo = getHandCount(info, info.getActiveWind(), info.getActiveTsumo());
+        if (!HandCheckCache.getInstance().isComplete(handWithTsumo)) {
             // チョンボ
             throw new BoneheadException("Not completed.");
         }
         
         final Player activePlayer = info.getActivePlayer();
-        info.notifyObservers(new GameStatusParam(activePlayer, GameStatus.END_ROUND));
-        info.notifyObservers(new AnnounceParam(activePlayer, ANNOUNCE_FLAG_COMPLETE_TSUMO));
+        publish(info, new GameStatusParam(activePlayer, GameStatus.END_ROUND));
+        publish(info, new AnnounceParam(activePlayer, ANNOUNCE_FLAG_COMPLETE_TSUMO));
     }
     
     /**
@@ -161,8 +174,8 @@ class VSChmJanController implements JanController {
         info.clearCallableTable();
         
         final Player activePlayer = info.getActivePlayer();
-        info.notifyObservers(new GameStatusParam(activePlayer, GameStatus.END_ROUND));
-        info.notifyObservers(new AnnounceParam(activePlayer, ANNOUNCE_FLAG_COMPLETE_RON));
+        publish(info, new GameStatusParam(activePlayer, GameStatus.END_ROUND));
+        publish(info, new AnnounceParam(activePlayer, ANNOUNCE_FLAG_COMPLETE_RON));
     }
     
     /**
@@ -174,9 +187,7 @@ class VSChmJanController implements JanController {
         }
         
         discardCore(info, info.getActiveTsumo());
-        if (info.getCallablePlayerNameList().isEmpty()) {
-            next(info);
-        }
+        runTurnLoop(info, getStepAfterDiscard(info));
     }
     
     /**
@@ -200,7 +211,7 @@ class VSChmJanController implements JanController {
         final Hand hand = info.getActiveHand();
         if (!afterCall) {
             final JanPai activeTsumo = info.getActiveTsumo();
-            if (hand.getMenZenMap().get(target) <= 0) {
+            if (info.getHandCount(info.getActiveWind()).get(target) <= 0) {
                 if (target == activeTsumo) {
                     // 牌が指定されたがツモ切りだった
                     discard(info);
@@ -225,9 +236,7 @@ class VSChmJanController implements JanController {
         
         // 牌を捨てる
         discardCore(info, target);
-        if (info.getCallablePlayerNameList().isEmpty()) {
-            next(info);
-        }
+        runTurnLoop(info, getStepAfterDiscard(info));
     }
     
     /**
@@ -264,7 +273,7 @@ class VSChmJanController implements JanController {
         postProcessKan(info, activeWind);
         
         // 捨て牌選択
-        info.notifyObservers(new AnnounceParam(info.getActivePlayer(), ANNOUNCE_FLAG_HAND_TSUMO_FIELD_AFTER_CALL));
+        publish(info, new AnnounceParam(info.getActivePlayer(), ANNOUNCE_FLAG_HAND_TSUMO_FIELD_AFTER_CALL));
     }
     
     /**
@@ -329,7 +338,7 @@ class VSChmJanController implements JanController {
         postProcessKan(info, activeWind);
         
         // 捨て牌選択
-        info.notifyObservers(new AnnounceParam(info.getActivePlayer(), ANNOUNCE_FLAG_HAND_TSUMO_FIELD_AFTER_CALL));
+        publish(info, new AnnounceParam(info.getActivePlayer(), ANNOUNCE_FLAG_HAND_TSUMO_FIELD_AFTER_CALL));
     }
     
     /**
@@ -340,15 +349,7 @@ class VSChmJanController implements JanController {
             throw new NullPointerException("Jan info is null.");
         }
         
-        if (info.getRemainCount() <= 0) {
-            // ゲーム終了
-            info.notifyObservers(new AnnounceParam(info.getActivePlayer(), ANNOUNCE_FLAG_GAME_OVER));
-            return;
-        }
-        
-        info.clearCallableTable();
-        info.setActiveWindToNext();
-        onPhase(info);
+        runTurnLoop(info, TurnStep.NEXT);
     }
     
     /**
@@ -383,8 +384,8 @@ class VSChmJanController implements JanController {
         
         // 捨て牌選択
         final Player activePlayer = info.getActivePlayer();
-        info.notifyObservers(new GameStatusParam(activePlayer, GameStatus.AFTER_CALL));
-        info.notifyObservers(new AnnounceParam(activePlayer, ANNOUNCE_FLAG_HAND_AFTER_CALL));
+        publish(info, new GameStatusParam(activePlayer, GameStatus.AFTER_CALL));
+        publish(info, new AnnounceParam(activePlayer, ANNOUNCE_FLAG_HAND_AFTER_CALL));
     }
     
     /**
@@ -405,18 +406,20 @@ class VSChmJanController implements JanController {
         
         // 風をシャッフル
         final List<Wind> windList = new ArrayList<>(Arrays.asList(Wind.values()));
-        Collections.shuffle(windList, new SecureRandom());
+        Collections.shuffle(windList, getRandom());
         
-        // プレイヤーを格納
+        // プレイヤーを格納 (IDは参加順に割り当てる)
         final Map<Wind, Player> playerTable = new TreeMap<>();
+        int playerId = 0;
         for (final String playerName : playerNameList) {
-            playerTable.put(windList.remove(0), new Player(playerName, PlayerType.HUMAN));
+            playerTable.put(windList.remove(0), new Player(playerId++, playerName, PlayerType.HUMAN));
         }
         
         // 4人になるまでNPCで埋める
         final int limitCOM = 4 - playerNameList.size();
         for (int i = 0; i < limitCOM; i++) {
-            playerTable.put(windList.remove(0), NPC_LIST.get(i));
+            final Player npc = NPC_LIST.get(i);
+            playerTable.put(windList.remove(0), new Player(playerId++, npc.getName(), npc.getType()));
         }
         
         info.setFieldWind(Wind.TON);
@@ -444,18 +447,16 @@ class VSChmJanController implements JanController {
         info.setDeckWallIndex(34 * 4 - 1 - 1);
         info.setRemainCount(84);  // 中国麻雀は王牌がないため、残り枚数は84枚 ※花牌を除く
         
-        // 待ち牌リストを更新
-        for (final Map.Entry<Wind, Player> entry : info.getPlayerTable().entrySet()) {
-            if (entry.getValue().getType() == PlayerType.HUMAN) {
-                updateWaitList(info, entry.getKey());
-            }
+        // 待ち牌リストを更新 (判定が軽いのでCOMの分も最新にしておく)
+        for (final Wind wind : Wind.values()) {
+            updateWaitList(info, wind);
         }
         
-        info.notifyObservers(new AnnounceParam(info.getActivePlayer(), ANNOUNCE_FLAG_GAME_START));
+        publish(info, new AnnounceParam(info.getActivePlayer(), ANNOUNCE_FLAG_GAME_START));
         
         // 一巡目へ (親の14枚目はこの先でツモらせる)
         info.setActiveWind(Wind.TON);
-        onPhase(info);
+        runTurnLoop(info, TurnStep.DRAW);
     }
     
     
@@ -463,15 +464,14 @@ class VSChmJanController implements JanController {
     /**
      * 鳴き可能リストを生成
      * 
-     * @param waitTable 待ち牌テーブル。
-     * @param target 確認対象牌。
+     * @param callTypeBits 鳴きタイプの集合。(序数のビット)
      * @return 鳴き可能リスト。
      */
-    private List<CallType> createCallableList(final Map<CallType, List<JanPai>> waitTable, final JanPai target) {
+    private List<CallType> createCallableList(final int callTypeBits) {
         final List<CallType> resultList = new ArrayList<>();
-        for (final Map.Entry<CallType, List<JanPai>> entry : waitTable.entrySet()) {
-            if (entry.getValue().contains(target)) {
-                resultList.add(entry.getKey());
+        for (final CallType type : CALL_CHECK_TYPE_ARRAY) {
+            if ((callTypeBits & (1 << type.ordinal())) != 0) {
+                resultList.add(type);
             }
         }
         return resultList;
@@ -484,7 +484,7 @@ class VSChmJanController implements JanController {
      */
     private List<JanPai> createDeck() {
         final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
-        Collections.shuffle(deck, new SecureRandom());
+        Collections.shuffle(deck, getRandom());
         return deck;
     }
     
@@ -500,90 +500,79 @@ class VSChmJanController implements JanController {
         info.setActiveDiscard(target);
         
         final Player activePlayer = info.getActivePlayer();
-        info.notifyObservers(new AnnounceParam(activePlayer, ANNOUNCE_FLAG_DISCARD));
+        if (activePlayer.getType() == PlayerType.COM) {
+            // COMのツモ切りは溜めておき、次の実況でまとめて流す
+            info.addPendingDiscard(activePlayer, target);
+        }
+        else {
+            publish(info, new AnnounceParam(activePlayer, ANNOUNCE_FLAG_DISCARD));
+        }
         
         if (info.getRemainCount() == 0) {
             // ラス牌は鳴けない
             return;
         }
         
+        if (!info.isCallable(target)) {
+            // 鳴ける人間のプレイヤーがいない (COMは鳴き確認をしない)
+            return;
+        }
+        
         // 鳴き確認処理
         final List<Player> callerList = new ArrayList<>();
         for (final Wind wind : Wind.values()) {
-            final Player player = info.getPlayer(wind);
-            if (player.getType() != PlayerType.HUMAN) {
-                // CPUは無視
-                continue;
-            }
-            
-            final List<CallType> callableList = createCallableList(info.getWaitTable(wind), target);
+            int callTypeBits = info.getCallTypeBits(target, wind);
             if (activeWind.getNext() != wind) {
                 // 席順によるチー可否判定
-                callableList.remove(CallType.CHI);
+                callTypeBits &= ~(1 << CallType.CHI.ordinal());
             }
-            if (callableList.isEmpty()) {
+            if (callTypeBits == 0) {
                 // 鳴けない場合は無視
                 continue;
             }
             
+            final Player player = info.getPlayer(wind);
+            if (player.getType() != PlayerType.HUMAN) {
+                // CPUは無視
+                continue;
+            }
+            
             // 確認メッセージを出すところまでで次のループに移るので、
             // マルチスレッド化の必要無し
-            info.setCallableList(wind, callableList);
+            info.setCallableList(wind, createCallableList(callTypeBits));
             callerList.add(player);
         }
         
         if (!callerList.isEmpty()) {
-            info.notifyObservers(new GameStatusParam(activePlayer, GameStatus.IDLE_CALL));
+            publish(info, new CallWindowParam(activePlayer, target, callerList));
             for (final Player caller : callerList) {
-                info.notifyObservers(new AnnounceParam(caller, ANNOUNCE_FLAG_CONFIRM_CALL));
+                publish(info, new AnnounceParam(caller, ANNOUNCE_FLAG_CONFIRM_CALL));
             }
         }
     }
     
     /**
-     * チーの待ち牌リストを取得
-     * 
-     * @param hand クリーン済みの手牌マップ。
-     * @return チーの待ち牌リスト。
-     */
-    private List<JanPai> getChiWaitList(final Map<JanPai, Integer> hand) {
-        
-        // TODO JanLIBに移す
-        
-        final List<JanPai> resultList = new ArrayList<>();
-        for (final JanPai pai : JanPai.values()) {
-            if (isCallableChi(hand, pai)) {
-                resultList.add(pai);
-            }
-        }
-        return resultList;
-    }
-    
-    /**
-     * プレイヤーの手牌マップを取得
+     * プレイヤーの手牌の枚数を取得
      * 
      * @param info ゲーム情報。
      * @param wind プレイヤーの風。
-     * @return プレイヤーの手牌マップ。
+     * @return プレイヤーの手牌の枚数。
      */
-    private Map<JanPai, Integer> getHandMap(final JanInfo info, final Wind wind) {
-        final Map<JanPai, Integer> hand = info.getHand(wind).getMenZenMap();
-        JanPaiUtil.cleanJanPaiMap(hand);
-        return hand;
+    private JanPaiCount getHandCount(final JanInfo info, final Wind wind) {
+        return info.getHandCount(wind);
     }
     
     /**
-     * 指定牌込みでプレイヤーの手牌マップを取得
+     * 指定牌込みでプレイヤーの手牌の枚数を取得
      * 
      * @param info ゲーム情報。
      * @param wind プレイヤーの風。
      * @param source 手牌に追加する牌。
-     * @return プレイヤーの手牌マップ。
+     * @return プレイヤーの手牌の枚数。
      */
-    private Map<JanPai, Integer> getHandMap(final JanInfo info, final Wind wind, final JanPai source) {
-        final Map<JanPai, Integer> hand = info.getHand(wind).getMenZenMap();
-        JanPaiUtil.addJanPai(hand, source, 1);
-        JanPaiUtil.cleanJanPaiMap(hand);
+    private JanPaiCount getHandCount(final JanInfo info, final Wind wind, final JanPai source) {
+        final JanPaiCount hand = info.getHandCount(wind);
+        hand.add(source);
         return hand;
     }
     
@@ -600,22 +589,6 @@ class VSChmJanController implements JanController {
         return pai;
     }
     
-    /**
-     * 明槓の待ち牌リストを取得
-     * 
-     * @param hand クリーン済みの手牌マップ。
-     * @return 明槓の待ち牌リスト。
-     */
-    private List<JanPai> getKanLightWaitList(final Map<JanPai, Integer> hand) {
-        final List<JanPai> resultList = new ArrayList<>();
-        for (final Map.Entry<JanPai, Integer> entry : hand.entrySet()) {
-            if (entry.getValue() >= 3) {
-                resultList.add(entry.getKey());
-            }
-        }
-        return resultList;
-    }
-    
     /**
      * 槓の種類を取得
      * 
@@ -628,8 +601,8 @@ class VSChmJanController implements JanController {
         final Hand hand = info.getActiveHand();
         final Wind activeWind = info.getActiveWind();
         final JanPai activeTsumo = info.getActiveTsumo();
-        final Map<JanPai, Integer> count = getHandMap(info, activeWind, activeTsumo);
-        if (count.containsKey(target) && count.get(target) >= 4) {
+        final JanPaiCount count = getHandCount(info, activeWind, activeTsumo);
+        if (count.get(target) >= 4) {
             // 指定牌を4枚持っている
             return CallType.KAN_DARK;
         }
@@ -640,25 +613,6 @@ class VSChmJanController implements JanController {
         throw new InvalidInputException("Can't kan.");
     }
     
-    /**
-     * ポンの待ち牌リストを取得
-     * 
-     * @param hand クリーン済みの手牌マップ。
-     * @return ポンの待ち牌リスト。
-     */
-    private List<JanPai> getPonWaitList(final Map<JanPai, Integer> hand) {
-        
-        // TODO JanLIBに移す
-        
-        final List<JanPai> resultList = new ArrayList<>();
-        for (final Map.Entry<JanPai, Integer> entry : hand.entrySet()) {
-            if (entry.getValue() >= 2) {
-                resultList.add(entry.getKey());
-            }
-        }
-        return resultList;
-    }
-    
     /**
      * 指定牌のポン面子を持っているか
      * 
@@ -678,67 +632,106 @@ class VSChmJanController implements JanController {
     }
     
     /**
-     * チー可能か
+     * 乱数を取得
      * 
-     * @param hand クリーン済みの手牌マップ。
-     * @param discard 捨て牌。
-     * @return 判定結果。
+     * @return 乱数。
      */
-    private boolean isCallableChi(final Map<JanPai, Integer> hand, final JanPai discard) {
-        
-        // TODO JanLIBに移す
-        
-        if (discard.isJi()) {
-            return false;
-        }
-        
-        switch (discard) {
-        case MAN_1:
-        case PIN_1:
-        case SOU_1:
-            return hand.containsKey(discard.getNext()) && hand.containsKey(discard.getNext().getNext());
-        case MAN_2:
-        case PIN_2:
-        case SOU_2:
-            return (hand.containsKey(discard.getNext()) && hand.containsKey(discard.getNext().getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getNext()));
-        case MAN_8:
-        case PIN_8:
-        case SOU_8:
-            return (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getPrev().getPrev()));
-        case MAN_9:
-        case PIN_9:
-        case SOU_9:
-            return hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getPrev().getPrev());
-        default:
-            return (hand.containsKey(discard.getNext()) && hand.containsKey(discard.getNext().getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getPrev().getPrev()));
+    private Random getRandom() {
+        return _random != null ? _random : new SecureRandom();
+    }
+    
+    /**
+     * 打牌後の手順を取得
+     * 
+     * @param info ゲーム情報。
+     * @return 鳴き確認中の場合は鳴き確認待ち、それ以外は次のプレイヤーへ。
+     */
+    private TurnStep getStepAfterDiscard(final JanInfo info) {
+        if (!info.getCallablePlayerNameList().isEmpty()) {
+            return TurnStep.WAIT_CALL;
         }
+        return TurnStep.NEXT;
     }
     
     /**
-     * 巡目ごとの処理
+     * 牌をツモる
      * 
      * @param info ゲーム情報。
+     * @return 次の手順。
      */
-    private void onPhase(final JanInfo info) {
-        // 牌をツモる
+    private TurnStep onDraw(final JanInfo info) {
         final JanPai activeTsumo = getJanPaiFromDeck(info);
         info.setActiveTsumo(activeTsumo);
         
-        // 打牌
         final Player activePlayer = info.getActivePlayer();
         switch (activePlayer.getType()) {
         case COM:
-            // ツモ切り
-            discard(info);
-            break;
+            return TurnStep.COM_DISCARD;
         case HUMAN:
             // 入力待ちメッセージ
-            info.notifyObservers(new AnnounceParam(activePlayer, ANNOUNCE_FLAG_HAND_TSUMO));
-            break;
+            publish(info, new AnnounceParam(activePlayer, ANNOUNCE_FLAG_HAND_TSUMO));
+            return TurnStep.WAIT_DISCARD;
+        default:
+            throw new InternalError();
+        }
+    }
+    
+    /**
+     * 次のプレイヤーへ
+     * 
+     * @param info ゲーム情報。
+     * @return 次の手順。
+     */
+    private TurnStep onNext(final JanInfo info) {
+        if (info.getRemainCount() <= 0) {
+            // ゲーム終了
+            publish(info, new AnnounceParam(info.getActivePlayer(), ANNOUNCE_FLAG_GAME_OVER));
+            return TurnStep.GAME_OVER;
+        }
+        
+        info.clearCallableTable();
+        info.setActiveWindToNext();
+        return TurnStep.DRAW;
+    }
+    
+    /**
+     * 実況を発行
+     * 
+     * 溜めておいたCOMの打牌があれば、実況と同じ優先度で先にまとめて実況する。
+     * 
+     * @param info ゲーム情報。
+     * @param param 実況パラメータ。
+     */
+    private void publish(final JanInfo info, final AnnounceParam param) {
+        flushPendingDiscard(info, param.getPriority());
+        info.publish(param);
+    }
+    
+    /**
+     * イベントを発行
+     * 
+     * 溜めておいたCOMの打牌があれば、先にまとめて実況する。
+     * 実況以外のイベント (状態の変化と鳴き確認) の直後には入力を促す実況が続くため、入力待ちと同じ優先度で送る。
+     * 
+     * @param info ゲーム情報。
+     * @param event イベント。
+     */
+    private void publish(final JanInfo info, final JanEvent event) {
+        flushPendingDiscard(info, MessagePriority.PROMPT);
+        info.publish(event);
+    }
+    
+    /**
+     * 溜めておいたCOMの打牌をまとめて実況
+     * 
+     * @param info ゲーム情報。
+     * @param priority 送信の優先度。
+     */
+    private void flushPendingDiscard(final JanInfo info, final MessagePriority priority) {
+        final List<DiscardRecord> discardList = info.takePendingDiscardList();
+        if (!discardList.isEmpty()) {
+            final Player lastDiscarder = discardList.get(discardList.size() - 1).getDiscarder();
+            info.publish(new AnnounceParam(lastDiscarder, ANNOUNCE_FLAG_DISCARD_DIGEST, discardList, priority));
         }
     }
     
@@ -763,6 +756,35 @@ class VSChmJanController implements JanController {
         updateWaitList(info, activeWind);
     }
     
+    /**
+     * 巡目を進める
+     * 
+     * 人間の入力や鳴き確認を待つ手順、またはゲーム終了に達するまでループで処理する。
+     * 
+     * @param info ゲーム情報。
+     * @param firstStep 最初の手順。
+     */
+    private void runTurnLoop(final JanInfo info, final TurnStep firstStep) {
+        TurnStep step = firstStep;
+        while (!step.isPause()) {
+            switch (step) {
+            case DRAW:
+                step = onDraw(info);
+                break;
+            case COM_DISCARD:
+                // ツモ切り
+                discardCore(info, info.getActiveTsumo());
+                step = getStepAfterDiscard(info);
+                break;
+            case NEXT:
+                step = onNext(info);
+                break;
+            default:
+                throw new InternalError();
+            }
+        }
+    }
+    
     /**
      * 待ち判定を更新
      * 
@@ -770,13 +792,79 @@ class VSChmJanController implements JanController {
      * @param wind 風。
      */
     private void updateWaitList(final JanInfo info, final Wind wind) {
-        final Map<JanPai, Integer> hand = getHandMap(info, wind);
-        final Map<CallType, List<JanPai>> waitTable = info.getWaitTable(wind);
-        waitTable.put(CallType.RON, HandCheckUtil.getCompletableJanPaiList(hand));
-        waitTable.put(CallType.CHI, getChiWaitList(hand));
-        waitTable.put(CallType.PON, getPonWaitList(hand));
-        waitTable.put(CallType.KAN_LIGHT, getKanLightWaitList(hand));
-        info.setWaitTable(wind, waitTable);
+        final JanPaiCount hand = getHandCount(info, wind);
+        info.setWaitMask(wind, CallType.RON, HandCheckCache.getInstance().getCompletableMask(hand));
+        info.setWaitMask(wind, CallType.CHI, CallMaskUtil.getChiMask(hand));
+        info.setWaitMask(wind, CallType.PON, CallMaskUtil.getPonMask(hand));
+        info.setWaitMask(wind, CallType.KAN_LIGHT, CallMaskUtil.getKanLightMask(hand));
+    }
+    
+    
+    
+    /**
+     * 巡目の手順
+     */
+    private enum TurnStep {
+        
+        /**
+         * ツモ
+         */
+        DRAW(false),
+        
+        /**
+         * COMの打牌
+         */
+        COM_DISCARD(false),
+        
+        /**
+         * 次のプレイヤーへ
+         */
+        NEXT(false),
+        
+        /**
+         * 人間の打牌待ち (中断)
+         */
+        WAIT_DISCARD(true),
+        
+        /**
+         * 鳴き確認待ち (中断)
+         */
+        WAIT_CALL(true),
+        
+        /**
+         * ゲーム終了 (中断)
+         */
+        GAME_OVER(true);
+        
+        
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param isPause 入力待ちなどでループを抜ける手順か。
+         */
+        private TurnStep(final boolean isPause) {
+            _isPause = isPause;
+        }
+        
+        
+        
+        /**
+         * ループを抜ける手順か
+         * 
+         * @return 判定結果。
+         */
+        public boolean isPause() {
+            return _isPause;
+        }
+        
+        
+        
+        /**
+         * ループを抜ける手順か
+         */
+        private final boolean _isPause;
+        
     }
     
     
@@ -790,11 +878,16 @@ class VSChmJanController implements JanController {
                                                    new Player("COM_03", PlayerType.COM),
                                                    new Player("COM_04", PlayerType.COM)));
     
+    /**
+     * 捨て牌に対して確認する鳴きタイプ (優先度に関わらず定義順)
+     */
+    private static final CallType[] CALL_CHECK_TYPE_ARRAY = { CallType.RON, CallType.CHI, CallType.PON, CallType.KAN_LIGHT };
+    
     /**
      * 実況フラグ
      */
     private static final EnumSet<AnnounceFlag> ANNOUNCE_FLAG_GAME_START =
-        EnumSet.of(AnnounceFlag.FIELD_OPEN, AnnounceFlag.FIELD_TALK_ALL, AnnounceFlag.HAND_TALK_ALL);
+        EnumSet.of(AnnounceFlag.GAME_START, AnnounceFlag.FIELD_OPEN, AnnounceFlag.FIELD_TALK_ALL, AnnounceFlag.HAND_TALK_ALL);
     private static final EnumSet<AnnounceFlag> ANNOUNCE_FLAG_GAME_OVER =
         EnumSet.of(AnnounceFlag.GAME_OVER, AnnounceFlag.FIELD_OPEN);
     private static final EnumSet<AnnounceFlag> ANNOUNCE_FLAG_COMPLETE_RON =
@@ -809,8 +902,16 @@ class VSChmJanController implements JanController {
         EnumSet.of(AnnounceFlag.HAND_TALK, AnnounceFlag.ACTIVE_TSUMO, AnnounceFlag.FIELD_TALK, AnnounceFlag.AFTER_CALL);
     private static final EnumSet<AnnounceFlag> ANNOUNCE_FLAG_DISCARD =
         EnumSet.of(AnnounceFlag.DISCARD, AnnounceFlag.RIVER_SINGLE);
+    private static final EnumSet<AnnounceFlag> ANNOUNCE_FLAG_DISCARD_DIGEST =
+        EnumSet.of(AnnounceFlag.DISCARD, AnnounceFlag.DISCARD_DIGEST);
     private static final EnumSet<AnnounceFlag> ANNOUNCE_FLAG_CONFIRM_CALL =
         EnumSet.of(AnnounceFlag.CONFIRM_CALL, AnnounceFlag.FIELD_TALK, AnnounceFlag.HAND_TALK);
     
+    
+    
+    /**
+     * 牌山と席決めに使う乱数 (nullの場合は都度SecureRandomを生成)
+     */
+    private final Random _random;
+    
 }
-
@@ -0,0 +1,157 @@
+/**
+ * CallMaskUtilTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.util.JanPaiUtil;
+import wiz.project.janbot.game.exception.InvalidInputException;
+
+
+
+/**
+ * CallMaskUtilのテスト
+ */
+public final class CallMaskUtilTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public CallMaskUtilTest() {
+    }
+    
+    
+    
+    /**
+     * getChiMask() のテスト
+     * 
+     * @type 正常系。
+     */
+    @Test
+    public void testGetChiMask_Normal() throws InvalidInputException {
+        // 種類をまたいだ順子にはならない
+        Assert.assertEquals(Arrays.asList(JanPai.MAN_7, JanPai.PIN_3), getChiList("89m12p"));
+        Assert.assertEquals(new ArrayList<JanPai>(), getChiList("9m1p9p1s"));
+        Assert.assertEquals(Arrays.asList(JanPai.SOU_1, JanPai.SOU_4), getChiList("23s"));
+        Assert.assertEquals(Arrays.asList(JanPai.SOU_2, JanPai.SOU_4), getChiList("135s"));
+        Assert.assertEquals(new ArrayList<JanPai>(), getChiList("東南西北白發中"));
+    }
+    
+    /**
+     * getChiMask() のテスト
+     * 
+     * @type 正常系。
+     * @note 配牌から1枚ずつ判定した結果と比較。
+     */
+    @Test
+    public void testGetChiMask_Normal_Random() {
+        final Random random = new Random(RandomTestParam.SEED);
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        for (int i = 0; i < RandomTestParam.COUNT; i++) {
+            Collections.shuffle(deck, random);
+            final JanPaiCount hand = new JanPaiCount();
+            for (final JanPai pai : deck.subList(0, 13)) {
+                hand.add(pai);
+            }
+            
+            long expected = 0L;
+            for (final JanPai pai : JanPai.values()) {
+                if (isCallableChi(hand, pai)) {
+                    expected |= 1L << pai.ordinal();
+                }
+            }
+            Assert.assertEquals(hand.toString(), expected, CallMaskUtil.getChiMask(hand));
+        }
+    }
+    
+    /**
+     * getPonMask() と getKanLightMask() のテスト
+     * 
+     * @type 正常系。
+     */
+    @Test
+    public void testGetPonMask_Normal() throws InvalidInputException {
+        final JanPaiCount hand = JanPaiParser.parseCount("1122233339m中中中");
+        Assert.assertEquals(Arrays.asList(JanPai.MAN_1, JanPai.MAN_2, JanPai.MAN_3, JanPai.CHUN),
+                            HandCheckTable.convertMaskToList(CallMaskUtil.getPonMask(hand)));
+        Assert.assertEquals(Arrays.asList(JanPai.MAN_2, JanPai.MAN_3, JanPai.CHUN),
+                            HandCheckTable.convertMaskToList(CallMaskUtil.getKanLightMask(hand)));
+    }
+    
+    /**
+     * getChiMask() のテスト
+     * 
+     * @type 異常系。
+     */
+    @Test
+    public void testGetChiMask_Error() {
+        try {
+            CallMaskUtil.getChiMask(null);
+            Assert.fail();
+        }
+        catch (final NullPointerException e) {
+            Assert.assertEquals("Hand is null.", e.getMessage());
+        }
+    }
+    
+    
+    
+    /**
+     * チー可能な牌リストを取得
+     * 
+     * @param source 牌の表記。
+     * @return チー可能な牌リスト。
+     * @throws InvalidInputException 不正な表記。
+     */
+    private List<JanPai> getChiList(final String source) throws InvalidInputException {
+        return HandCheckTable.convertMaskToList(CallMaskUtil.getChiMask(JanPaiParser.parseCount(source)));
+    }
+    
+    /**
+     * 1枚ずつチー可能か判定
+     * 
+     * @param hand 手牌の枚数。
+     * @param discard 捨て牌。
+     * @return 判定結果。
+     */
+    private boolean isCallableChi(final JanPaiCount hand, final JanPai discard) {
+        final int ordinal = discard.ordinal();
+        if (ordinal >= JanPai.TON.ordinal()) {
+            return false;
+        }
+        
+        final int rank = ordinal % 9;
+        for (int start = rank - 2; start <= rank; start++) {
+            if (start < 0 || start + 2 > 8) {
+                continue;
+            }
+            
+            boolean isCallable = true;
+            for (int offset = 0; offset < 3; offset++) {
+                final int target = ordinal - rank + start + offset;
+                if (target != ordinal && hand.get(target) == 0) {
+                    isCallable = false;
+                }
+            }
+            if (isCallable) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+}
@@ -0,0 +1,105 @@
+/**
+ * ChmHandCheckTableBenchmark.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.util.ChmHandCheckUtil;
+import wiz.project.janbot.game.exception.InvalidInputException;
+
+
+
+/**
+ * ChmHandCheckTableとChmHandCheckUtilの処理時間比較
+ * 
+ * JUnitのテストではなく、mainから手動で実行する。
+ */
+public final class ChmHandCheckTableBenchmark {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private ChmHandCheckTableBenchmark() {
+    }
+    
+    
+    
+    /**
+     * メイン処理
+     * 
+     * @param args 起動引数。
+     * @throws InvalidInputException 不正な表記。
+     */
+    public static void main(final String[] args) throws InvalidInputException {
+        final List<JanPaiCount> handList = new ArrayList<>();
+        for (final String source : HAND_ARRAY) {
+            handList.add(JanPaiParser.parseCount(source));
+        }
+        
+        for (final JanPaiCount hand : handList) {
+            final Map<JanPai, Integer> handMap = hand.toMap();
+            
+            // ウォームアップ
+            int sink = 0;
+            for (int i = 0; i < WARMUP_COUNT; i++) {
+                sink += ChmHandCheckTable.getCompletableJanPaiList(hand).size();
+            }
+            for (int i = 0; i < UTIL_COUNT; i++) {
+                sink += ChmHandCheckUtil.getCompletableJanPaiList(handMap).size();
+            }
+            
+            long start = System.nanoTime();
+            for (int i = 0; i < TABLE_COUNT; i++) {
+                sink += ChmHandCheckTable.getCompletableJanPaiList(hand).size();
+            }
+            final double tableTime = (System.nanoTime() - start) / (double)TABLE_COUNT;
+            
+            start = System.nanoTime();
+            for (int i = 0; i < UTIL_COUNT; i++) {
+                sink += ChmHandCheckUtil.getCompletableJanPaiList(handMap).size();
+            }
+            final double utilTime = (System.nanoTime() - start) / (double)UTIL_COUNT;
+            
+            System.out.println(String.format("%s : table %.2fus, util %.2fus (x%.0f) [%d]",
+                                             hand, tableTime / 1000, utilTime / 1000, utilTime / tableTime, sink));
+        }
+    }
+    
+    
+    
+    /**
+     * 計測対象の手牌
+     */
+    private static final String[] HAND_ARRAY = {
+        "1112345678999m",
+        "123m456p789s東東白白",
+        "147m258p369s222m東",
+        "147m258p3s東南西北白發",
+        "111133m5577p99s東",
+        "19m19p19s東南西北白發中",
+    };
+    
+    /**
+     * ウォームアップ回数
+     */
+    private static final int WARMUP_COUNT = 100000;
+    
+    /**
+     * ChmHandCheckTableの計測回数
+     */
+    private static final int TABLE_COUNT = 100000;
+    
+    /**
+     * ChmHandCheckUtilの計測回数
+     */
+    private static final int UTIL_COUNT = 200;
+    
+}
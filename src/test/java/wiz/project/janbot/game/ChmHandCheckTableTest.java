@@ -0,0 +1,294 @@
+/**
+ * ChmHandCheckTableTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.util.ChmHandCheckUtil;
+import wiz.project.jan.util.JanPaiUtil;
+import wiz.project.janbot.game.exception.InvalidInputException;
+
+
+
+/**
+ * ChmHandCheckTableのテスト
+ */
+public final class ChmHandCheckTableTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public ChmHandCheckTableTest() {
+    }
+    
+    
+    
+    /**
+     * getCompletableJanPaiList() のテスト
+     * 
+     * @type 正常系。
+     * @note 一般形の聴牌形からChmHandCheckUtilと結果を比較。
+     */
+    @Test
+    public void testGetCompletableJanPaiList_Normal_Regular() {
+        final Random random = new Random(RandomTestParam.SEED);
+        for (int i = 0; i < RandomTestParam.COUNT; i++) {
+            final JanPaiCount hand = createRegularHand(random);
+            hand.remove(pickJanPai(hand, random));
+            assertSameWaitList(hand);
+        }
+    }
+    
+    /**
+     * getCompletableJanPaiList() のテスト
+     * 
+     * @type 正常系。
+     * @note 組合龍の聴牌形からChmHandCheckUtilと結果を比較。
+     */
+    @Test
+    public void testGetCompletableJanPaiList_Normal_KnittedStraight() {
+        final Random random = new Random(RandomTestParam.SEED);
+        for (int i = 0; i < RandomTestParam.COUNT; i++) {
+            final JanPaiCount hand = createKnittedStraightHand(random);
+            Assert.assertTrue(hand.toString(), ChmHandCheckTable.isComplete(hand));
+            hand.remove(pickJanPai(hand, random));
+            assertSameWaitList(hand);
+        }
+    }
+    
+    /**
+     * getCompletableJanPaiList() のテスト
+     * 
+     * @type 正常系。
+     * @note 全不靠の聴牌形からChmHandCheckUtilと結果を比較。
+     */
+    @Test
+    public void testGetCompletableJanPaiList_Normal_HonorsAndKnitted() {
+        final Random random = new Random(RandomTestParam.SEED);
+        for (int i = 0; i < RandomTestParam.COUNT; i++) {
+            final List<JanPai> candidateList = new ArrayList<>(KNITTED_LIST.get(random.nextInt(KNITTED_LIST.size())));
+            candidateList.addAll(JI_LIST);
+            Collections.shuffle(candidateList, random);
+            
+            final JanPaiCount hand = new JanPaiCount();
+            for (final JanPai pai : candidateList.subList(0, 13)) {
+                hand.add(pai);
+            }
+            assertSameWaitList(hand);
+        }
+    }
+    
+    /**
+     * getCompletableJanPaiList() のテスト
+     * 
+     * @type 正常系。
+     * @note 七対子と十三么九。
+     */
+    @Test
+    public void testGetCompletableJanPaiList_Normal_Special() throws InvalidInputException {
+        assertSameWaitList(JanPaiParser.parseCount("1133557799m11p東"));
+        
+        // 同じ牌4枚を含む七対子
+        assertSameWaitList(JanPaiParser.parseCount("111133m5577p99s東"));
+        assertSameWaitList(JanPaiParser.parseCount("111m3355p7799s東東"));
+        
+        final JanPaiCount thirteenOrphans = JanPaiParser.parseCount("19m19p19s東南西北白發中");
+        Assert.assertEquals(13, ChmHandCheckTable.getCompletableJanPaiList(thirteenOrphans).size());
+        assertSameWaitList(thirteenOrphans);
+        assertSameWaitList(JanPaiParser.parseCount("19m19p19s東南西北白中中"));
+    }
+    
+    /**
+     * getCompletableJanPaiList() のテスト
+     * 
+     * @type 正常系。
+     * @note 配牌からChmHandCheckUtilと結果を比較。
+     */
+    @Test
+    public void testGetCompletableJanPaiList_Normal_Random() {
+        final Random random = new Random(RandomTestParam.SEED);
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        for (int i = 0; i < RandomTestParam.COUNT; i++) {
+            Collections.shuffle(deck, random);
+            final JanPaiCount hand = new JanPaiCount();
+            for (final JanPai pai : deck.subList(0, 13)) {
+                hand.add(pai);
+            }
+            assertSameWaitList(hand);
+        }
+    }
+    
+    /**
+     * isComplete() のテスト
+     * 
+     * @type 正常系。
+     */
+    @Test
+    public void testIsComplete_Normal() throws InvalidInputException {
+        Assert.assertTrue(ChmHandCheckTable.isComplete(JanPaiParser.parseCount("147m258p3s東南西北白發中")));
+        Assert.assertTrue(ChmHandCheckTable.isComplete(JanPaiParser.parseCount("147m258p369s東東")));
+        Assert.assertTrue(ChmHandCheckTable.isComplete(JanPaiParser.parseCount("111133m5577p99s東東")));
+        Assert.assertTrue(ChmHandCheckTable.isComplete(JanPaiParser.parseCount("19m19p19s東南西北白發中中")));
+        Assert.assertFalse(ChmHandCheckTable.isComplete(JanPaiParser.parseCount("147m258p36s東南西北白白")));
+        
+        final Random random = new Random(RandomTestParam.SEED);
+        for (int i = 0; i < RandomTestParam.COUNT; i++) {
+            final JanPaiCount hand = createRegularHand(random);
+            Assert.assertEquals(ChmHandCheckUtil.isComplete(hand.toMap()), ChmHandCheckTable.isComplete(hand));
+        }
+    }
+    
+    
+    
+    /**
+     * ChmHandCheckUtilと待ち牌が一致することを確認
+     * 
+     * ChmHandCheckUtilは存在しない5枚目も和了牌に含めるため、手牌に4枚ある牌は除外して比較する。
+     * 
+     * @param hand 手牌の枚数。
+     */
+    private void assertSameWaitList(final JanPaiCount hand) {
+        final List<JanPai> expectedList = new ArrayList<>();
+        for (final JanPai pai : ChmHandCheckUtil.getCompletableJanPaiList(hand.toMap())) {
+            if (hand.get(pai) < JanPaiCount.MAX_COUNT && !expectedList.contains(pai)) {
+                expectedList.add(pai);
+            }
+        }
+        final List<JanPai> resultList = ChmHandCheckTable.getCompletableJanPaiList(hand);
+        Collections.sort(expectedList);
+        Assert.assertEquals(hand.toString(), expectedList, resultList);
+    }
+    
+    /**
+     * 組合龍+1面子+雀頭の和了形を生成
+     * 
+     * @param random 乱数。
+     * @return 和了形。
+     */
+    private JanPaiCount createKnittedStraightHand(final Random random) {
+        final JanPai[] values = JanPai.values();
+        while (true) {
+            final JanPaiCount hand = new JanPaiCount();
+            for (final JanPai pai : KNITTED_LIST.get(random.nextInt(KNITTED_LIST.size()))) {
+                hand.add(pai);
+            }
+            hand.add(values[random.nextInt(values.length)], 2);
+            if (addRandomMeld(hand, random)) {
+                return hand;
+            }
+        }
+    }
+    
+    /**
+     * 4面子1雀頭の和了形を生成
+     * 
+     * @param random 乱数。
+     * @return 和了形。
+     */
+    private JanPaiCount createRegularHand(final Random random) {
+        final JanPai[] values = JanPai.values();
+        while (true) {
+            final JanPaiCount hand = new JanPaiCount();
+            hand.add(values[random.nextInt(values.length)], 2);
+            int meldCount = 0;
+            while (meldCount < 4 && addRandomMeld(hand, random)) {
+                meldCount++;
+            }
+            if (meldCount == 4) {
+                return hand;
+            }
+        }
+    }
+    
+    /**
+     * ランダムな面子を追加
+     * 
+     * @param hand 手牌の枚数。
+     * @param random 乱数。
+     * @return 追加できた場合はtrue。(5枚目の牌が必要な場合はfalse)
+     */
+    private boolean addRandomMeld(final JanPaiCount hand, final Random random) {
+        final JanPai[] values = JanPai.values();
+        final int ordinal = random.nextInt(JanPaiCount.JANPAI_COUNT);
+        if (random.nextBoolean() && ordinal < JanPai.TON.ordinal() && ordinal % 9 < 7) {
+            for (int i = ordinal; i < ordinal + 3; i++) {
+                if (hand.get(i) >= JanPaiCount.MAX_COUNT) {
+                    return false;
+                }
+            }
+            for (int i = ordinal; i < ordinal + 3; i++) {
+                hand.add(values[i]);
+            }
+        }
+        else {
+            if (hand.get(ordinal) + 3 > JanPaiCount.MAX_COUNT) {
+                return false;
+            }
+            hand.add(values[ordinal], 3);
+        }
+        return true;
+    }
+    
+    /**
+     * 手牌から牌を1枚選ぶ
+     * 
+     * @param hand 手牌の枚数。
+     * @param random 乱数。
+     * @return 選んだ牌。
+     */
+    private JanPai pickJanPai(final JanPaiCount hand, final Random random) {
+        int index = random.nextInt(hand.getTotal());
+        for (final JanPai pai : JanPai.values()) {
+            index -= hand.get(pai);
+            if (index < 0) {
+                return pai;
+            }
+        }
+        throw new InternalError();
+    }
+    
+    
+    
+    /**
+     * 字牌リスト
+     */
+    private static final List<JanPai> JI_LIST =
+        Collections.unmodifiableList(Arrays.asList(JanPai.TON, JanPai.NAN, JanPai.SHA, JanPai.PEI,
+                                                   JanPai.HAKU, JanPai.HATU, JanPai.CHUN));
+    
+    /**
+     * 組合龍リスト
+     */
+    private static final List<List<JanPai>> KNITTED_LIST = new ArrayList<>();
+    
+    static {
+        final int[][] permutationArray = {
+            { 0, 1, 2 }, { 0, 2, 1 }, { 1, 0, 2 }, { 1, 2, 0 }, { 2, 0, 1 }, { 2, 1, 0 },
+        };
+        final JanPai[] values = JanPai.values();
+        for (final int[] permutation : permutationArray) {
+            final List<JanPai> knittedList = new ArrayList<>();
+            for (int suit = 0; suit < 3; suit++) {
+                for (int k = 0; k < 3; k++) {
+                    knittedList.add(values[suit * 9 + permutation[suit] + k * 3]);
+                }
+            }
+            KNITTED_LIST.add(Collections.unmodifiableList(knittedList));
+        }
+    }
+    
+}
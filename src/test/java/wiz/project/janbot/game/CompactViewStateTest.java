@@ -0,0 +1,104 @@
+/**
+ * CompactViewStateTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * CompactViewStateのテスト
+ */
+public final class CompactViewStateTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public CompactViewStateTest() {
+    }
+    
+    
+    
+    /**
+     * takeBase() のテスト
+     * 
+     * @type 正常系。
+     * @note 基準が無い場合と、送り直す間隔に達した場合は全体表示になる。
+     */
+    @Test
+    public void testTakeBase_Normal() {
+        final CompactViewState state = new CompactViewState(3);
+        final Player player = new Player(0, "Mr.A", PlayerType.HUMAN);
+        state.setCompact(player, true);
+        final JanPaiCount count = new JanPaiCount();
+        count.add(JanPai.MAN_1);
+        
+        // 最初は基準が無い
+        Assert.assertNull(state.takeBase(player));
+        state.updateBase(player, new CompactViewState.HandBase(count, 0), true);
+        
+        // 2回は差分、3回目で全体
+        for (int i = 0; i < 2; i++) {
+            final CompactViewState.HandBase base = state.takeBase(player);
+            Assert.assertEquals(1, base.getCount().get(JanPai.MAN_1));
+            state.updateBase(player, base, false);
+        }
+        Assert.assertNull(state.takeBase(player));
+        state.updateBase(player, new CompactViewState.HandBase(count, 0), true);
+        Assert.assertNotNull(state.takeBase(player));
+        
+        // 要求があれば全体
+        state.resetBase(player);
+        Assert.assertNull(state.takeBase(player));
+    }
+    
+    /**
+     * getLineCounter() のテスト
+     * 
+     * @type 正常系。
+     * @note 通し番号のカウンタはプレイヤーごとに持ち、名前が変わっても引き継ぐ。
+     */
+    @Test
+    public void testGetLineCounter_Normal() {
+        final CompactViewState state = new CompactViewState();
+        final Player playerA = new Player(0, "Mr.A", PlayerType.HUMAN);
+        final Player playerB = new Player(1, "Mr.B", PlayerType.HUMAN);
+        Assert.assertNull(state.getLineCounter(playerA));
+        state.setCompact(playerA, true);
+        state.setCompact(playerB, true);
+        
+        Assert.assertNotNull(state.getLineCounter(playerA));
+        Assert.assertNotSame(state.getLineCounter(playerA), state.getLineCounter(playerB));
+        Assert.assertSame(state.getLineCounter(playerA), state.getLineCounter(new Player(0, "Mr.C", PlayerType.HUMAN)));
+        
+        state.setCompact(playerA, false);
+        Assert.assertFalse(state.isCompact(playerA));
+        Assert.assertTrue(state.isCompact(playerB));
+    }
+    
+    /**
+     * コンストラクタのテスト
+     * 
+     * @type 異常系。
+     */
+    @Test
+    public void testConstructor_Error() {
+        try {
+            new CompactViewState(0);
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            Assert.assertEquals("Invalid full render interval : 0", e.getMessage());
+        }
+    }
+    
+}
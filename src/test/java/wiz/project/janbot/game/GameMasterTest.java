@@ -13,6 +13,8 @@ import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import junit.framework.Assert;
 
@@ -64,7 +66,7 @@ public final class GameMasterTest {
      */
     @Test
     public void testGetStatus_Normal() {
-        final GameStatus result = GameMaster.getInstance().getStatus();
+        final GameStatus result = GameMaster.getInstance().getStatus(TEST_TABLE_ID);
         Assert.assertEquals(GameStatus.CLOSE, result);
     }
     
@@ -96,8 +98,8 @@ public final class GameMasterTest {
         
         final String playerName = TEST_PLAYER_NAME;
         
-        GameMaster.getInstance().onStart();
-        GameMaster.getInstance().onEntry(TEST_PLAYER_NAME_LIST);
+        GameMaster.getInstance().onStart(TEST_TABLE_ID, playerName);
+        GameMaster.getInstance().onEntry(TEST_TABLE_ID, TEST_PLAYER_NAME_LIST);
         
         try {
             GameMaster.getInstance().onDiscard(playerName);
@@ -131,7 +133,7 @@ public final class GameMasterTest {
      */
     @Test
     public void testOnEnd_Error_GameNotStared() {
-        GameMaster.getInstance().onEnd();
+        GameMaster.getInstance().onEnd(TEST_TABLE_ID);
     }
     
     /**
@@ -143,9 +145,9 @@ public final class GameMasterTest {
     public void testOnEntry_Normal() throws JanException {
         final List<String> playerNameList = TEST_PLAYER_NAME_LIST;
         
-        GameMaster.getInstance().onStart();
+        GameMaster.getInstance().onStart(TEST_TABLE_ID, TEST_PLAYER_NAME);
         
-        GameMaster.getInstance().onEntry(playerNameList);
+        GameMaster.getInstance().onEntry(TEST_TABLE_ID, playerNameList);
     }
     
     /**
@@ -181,10 +183,36 @@ public final class GameMasterTest {
      */
     public void entry(final String playerName) {
         try {
-            final Field field = GameMaster.getInstance().getClass().getDeclaredField("_playerNameList");
+            final GameTable table = getTable();
+            final Field field = table.getClass().getDeclaredField("_playerNameSet");
             field.setAccessible(true);
-            final List<String> playerNameList = (List<String>)field.get(GameMaster.getInstance());
-            playerNameList.add(playerName);
+            final Set<String> playerNameSet = (Set<String>)field.get(table);
+            playerNameSet.add(playerName);
+            
+            final Field tableField = GameMaster.getInstance().getClass().getDeclaredField("_playerTableMap");
+            tableField.setAccessible(true);
+            final Map<String, TableId> playerTableMap = (Map<String, TableId>)tableField.get(GameMaster.getInstance());
+            playerTableMap.put(playerName, TEST_TABLE_ID);
+        }
+        catch (final SecurityException | IllegalAccessException | NoSuchFieldException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * テスト用の卓を取得 (存在しなければ生成)
+     * 
+     * @return テスト用の卓。
+     */
+    public GameTable getTable() {
+        try {
+            final Field field = GameMaster.getInstance().getClass().getDeclaredField("_tableMap");
+            field.setAccessible(true);
+            final Map<TableId, GameTable> tableMap = (Map<TableId, GameTable>)field.get(GameMaster.getInstance());
+            if (!tableMap.containsKey(TEST_TABLE_ID)) {
+                tableMap.put(TEST_TABLE_ID, new GameTable(TEST_TABLE_ID));
+            }
+            return tableMap.get(TEST_TABLE_ID);
         }
         catch (final SecurityException | IllegalAccessException | NoSuchFieldException e) {
             throw new RuntimeException(e);
@@ -198,9 +226,10 @@ public final class GameMasterTest {
      */
     public void setStatus(final GameStatus value) {
         try {
-            final Field field = GameMaster.getInstance().getClass().getDeclaredField("_status");
+            final GameTable table = getTable();
+            final Field field = table.getClass().getDeclaredField("_status");
             field.setAccessible(true);
-            field.set(GameMaster.getInstance(), value);
+            field.set(table, value);
         }
         catch (final SecurityException | IllegalAccessException | NoSuchFieldException e) {
             throw new RuntimeException(e);
@@ -209,6 +238,11 @@ public final class GameMasterTest {
     
     
     
+    /**
+     * テスト用卓ID
+     */
+    private static final TableId TEST_TABLE_ID = new TableId("#test", TableId.DEFAULT_NUMBER);
+    
     /**
      * テスト用プレイヤー名
      */
@@ -0,0 +1,158 @@
+/**
+ * HandCheckCacheTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.util.JanPaiUtil;
+import wiz.project.janbot.game.exception.InvalidInputException;
+
+
+
+/**
+ * HandCheckCacheのテスト
+ */
+public final class HandCheckCacheTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public HandCheckCacheTest() {
+    }
+    
+    
+    
+    /**
+     * getCompletableJanPaiList() のテスト
+     * 
+     * @type 正常系。
+     * @note 2回目以降はキャッシュから同じ結果を返す。
+     */
+    @Test
+    public void testGetCompletableJanPaiList_Normal() throws InvalidInputException {
+        final HandCheckCache cache = new HandCheckCache(64);
+        final JanPaiCount hand = JanPaiParser.parseCount("123m456p789s東東白白");
+        final List<JanPai> expected = ChmHandCheckTable.getCompletableJanPaiList(hand);
+        
+        Assert.assertEquals(expected, cache.getCompletableJanPaiList(hand));
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        
+        Assert.assertEquals(expected, cache.getCompletableJanPaiList(hand));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        
+        // 返したリストを変更してもキャッシュには影響しない
+        cache.getCompletableJanPaiList(hand).clear();
+        Assert.assertEquals(expected, cache.getCompletableJanPaiList(hand));
+    }
+    
+    /**
+     * getCompletableJanPaiList() と isComplete() のテスト
+     * 
+     * @type 正常系。
+     * @note 配牌からChmHandCheckTableと結果を比較。
+     */
+    @Test
+    public void testGetCompletableJanPaiList_Normal_Random() {
+        final HandCheckCache cache = new HandCheckCache(64);
+        final Random random = new Random(RandomTestParam.SEED);
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        for (int i = 0; i < RandomTestParam.COUNT; i++) {
+            Collections.shuffle(deck, random);
+            final JanPaiCount hand = new JanPaiCount();
+            for (final JanPai pai : deck.subList(0, 13)) {
+                hand.add(pai);
+            }
+            Assert.assertEquals(ChmHandCheckTable.getCompletableJanPaiList(hand), cache.getCompletableJanPaiList(hand));
+            
+            hand.add(deck.get(13));
+            Assert.assertEquals(ChmHandCheckTable.isComplete(hand), cache.isComplete(hand));
+        }
+        Assert.assertTrue(cache.size() <= 64);
+    }
+    
+    /**
+     * getCompletableJanPaiList() のテスト
+     * 
+     * @type 異常系。
+     */
+    @Test
+    public void testGetCompletableJanPaiList_Error() {
+        try {
+            HandCheckCache.getInstance().getCompletableJanPaiList(null);
+            Assert.fail();
+        }
+        catch (final NullPointerException e) {
+            Assert.assertEquals("Hand is null.", e.getMessage());
+        }
+        
+        try {
+            new HandCheckCache(15);
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            Assert.assertEquals("Invalid capacity : 15", e.getMessage());
+        }
+    }
+    
+    /**
+     * isComplete() のテスト
+     * 
+     * @type 正常系。
+     * @note 何度も参照される手牌は、1度しか参照されない手牌に追い出されない。
+     */
+    @Test
+    public void testIsComplete_Normal_Admission() throws InvalidInputException {
+        final HandCheckCache cache = new HandCheckCache(256);
+        final JanPaiCount hot = JanPaiParser.parseCount("123m456p789s東東東白白");
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(cache.isComplete(hot));
+        }
+        
+        final Random random = new Random(RandomTestParam.SEED);
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        for (int i = 0; i < RandomTestParam.COUNT; i++) {
+            Collections.shuffle(deck, random);
+            final JanPaiCount cold = new JanPaiCount();
+            for (final JanPai pai : deck.subList(0, 14)) {
+                cold.add(pai);
+            }
+            cache.isComplete(cold);
+        }
+        Assert.assertTrue(cache.size() <= 256);
+        
+        final long hitCount = cache.getHitCount();
+        Assert.assertTrue(cache.isComplete(hot));
+        Assert.assertEquals(hitCount + 1, cache.getHitCount());
+    }
+    
+    /**
+     * clear() のテスト
+     * 
+     * @type 正常系。
+     */
+    @Test
+    public void testClear_Normal() throws InvalidInputException {
+        final HandCheckCache cache = new HandCheckCache(16);
+        cache.isComplete(JanPaiParser.parseCount("123m456p789s東東東白白"));
+        Assert.assertEquals(1, cache.size());
+        
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertTrue(cache.getStatistics().startsWith("判定キャッシュ：0/16"));
+    }
+    
+}
@@ -0,0 +1,81 @@
+/**
+ * HeadlessSimulatorTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * HeadlessSimulatorのテスト
+ */
+public final class HeadlessSimulatorTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public HeadlessSimulatorTest() {
+    }
+    
+    
+    
+    /**
+     * run() のテスト
+     * 
+     * @type 正常系。
+     * @note 同じ乱数の種であれば、並列数に関わらず同じ集計結果になる。
+     */
+    @Test
+    public void testRun_Normal() {
+        final SimulationResult single = new HeadlessSimulator(1, TEST_SEED).run(TEST_ROUND_COUNT);
+        final SimulationResult parallel = new HeadlessSimulator(3, TEST_SEED).run(TEST_ROUND_COUNT);
+        
+        Assert.assertEquals(TEST_ROUND_COUNT, single.getRoundCount());
+        Assert.assertEquals(TEST_ROUND_COUNT, parallel.getRoundCount());
+        Assert.assertEquals(single.getDrawCount(), parallel.getDrawCount());
+        Assert.assertEquals(single.getAverageRemainCount(), parallel.getAverageRemainCount());
+        for (final Wind wind : Wind.values()) {
+            Assert.assertEquals(single.getWinRate(wind), parallel.getWinRate(wind));
+            Assert.assertEquals(single.getTenpaiRate(wind), parallel.getTenpaiRate(wind));
+        }
+        Assert.assertTrue(single.getRoundsPerSecond() > 0.0);
+    }
+    
+    /**
+     * コンストラクタのテスト
+     * 
+     * @type 異常系。
+     */
+    @Test
+    public void testConstructor_Error() {
+        try {
+            new HeadlessSimulator(0, TEST_SEED);
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            Assert.assertEquals("Invalid parallelism : 0", e.getMessage());
+        }
+    }
+    
+    
+    
+    /**
+     * 乱数の種
+     */
+    private static final long TEST_SEED = 20121224L;
+    
+    /**
+     * 局数 (分割されるよう区間の局数より多くする)
+     */
+    private static final long TEST_ROUND_COUNT = 1000L;
+    
+}
@@ -0,0 +1,128 @@
+/**
+ * JanEventBusTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * JanEventBusのテスト
+ */
+public final class JanEventBusTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public JanEventBusTest() {
+    }
+    
+    
+    
+    /**
+     * publish() のテスト
+     * 
+     * @type 正常系。
+     * @note 登録した種類のイベントだけが登録順に届く。
+     */
+    @Test
+    public void testPublish_Normal() {
+        final JanInfo info = new JanInfo();
+        final List<String> resultList = new ArrayList<>();
+        final JanEventBus eventBus = info.getEventBus();
+        eventBus.subscribe(JanEventType.STATUS, new JanEventListener<GameStatusParam>() {
+            public void onEvent(final JanInfo source, final GameStatusParam param) {
+                Assert.assertSame(info, source);
+                resultList.add("A:" + param.getStatus());
+            }
+        });
+        eventBus.subscribe(JanEventType.CALL_WINDOW, new JanEventListener<CallWindowParam>() {
+            public void onEvent(final JanInfo source, final CallWindowParam param) {
+                resultList.add("B:" + param.getDiscard().name());
+            }
+        });
+        eventBus.subscribe(JanEventType.STATUS, new JanEventListener<JanEvent>() {
+            public void onEvent(final JanInfo source, final JanEvent param) {
+                resultList.add("C:" + param.getType());
+            }
+        });
+        
+        final Player player = new Player(0, "Mr.A", PlayerType.HUMAN);
+        info.publish(new GameStatusParam(player, GameStatus.END_ROUND));
+        info.publish(new AnnounceParam(player, AnnounceFlag.FIELD_OPEN));
+        info.publish(new CallWindowParam(player, JanPai.MAN_1, Collections.<Player>emptyList()));
+        Assert.assertEquals(Arrays.asList("A:END_ROUND", "C:STATUS", "B:MAN_1"), resultList);
+    }
+    
+    /**
+     * subscribeAsync() のテスト
+     * 
+     * @type 正常系。
+     * @note 発行順に、発行時点の複製が届く。
+     */
+    @Test
+    public void testSubscribeAsync_Normal() throws InterruptedException {
+        final JanInfo info = new JanInfo();
+        final List<Integer> resultList = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch latch = new CountDownLatch(EVENT_COUNT);
+        info.getEventBus().subscribeAsync(JanEventType.ANNOUNCE, new JanEventListener<AnnounceParam>() {
+            public void onEvent(final JanInfo source, final AnnounceParam param) {
+                Assert.assertNotSame(info, source);
+                resultList.add(source.getRiver(Wind.TON).get().size());
+                latch.countDown();
+            }
+        });
+        
+        final Player player = new Player(0, "Mr.A", PlayerType.HUMAN);
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            info.addDiscard(Wind.TON, JanPai.MAN_1);
+            info.publish(new AnnounceParam(player, AnnounceFlag.RIVER_SINGLE));
+            expected.add(i + 1);
+        }
+        
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(expected, resultList);
+    }
+    
+    /**
+     * publish() のテスト
+     * 
+     * @type 異常系。
+     */
+    @Test
+    public void testPublish_Error() {
+        try {
+            new JanInfo().publish(null);
+            Assert.fail();
+        }
+        catch (final NullPointerException e) {
+            Assert.assertEquals("Event is null.", e.getMessage());
+        }
+    }
+    
+    
+    
+    /**
+     * 非同期で発行するイベント数
+     */
+    private static final int EVENT_COUNT = 100;
+    
+}
@@ -0,0 +1,159 @@
+/**
+ * JanInfoBenchmark.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import wiz.project.jan.Hand;
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.jan.util.JanPaiUtil;
+
+
+
+/**
+ * 打牌1回あたりのJanInfoのメモリ確保量の計測
+ * 
+ * JUnitのテストではなく、mainから手動で実行する。
+ * コントローラの打牌処理と、実況が1回の打牌で行う読み込みを模した操作を繰り返す。
+ */
+public final class JanInfoBenchmark {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private JanInfoBenchmark() {
+    }
+    
+    
+    
+    /**
+     * メイン処理
+     * 
+     * @param args 起動引数。
+     */
+    public static void main(final String[] args) {
+        final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final Random random = new Random(RandomTestParam.SEED);
+        
+        // ウォームアップ
+        long sink = 0;
+        for (int i = 0; i < WARMUP_COUNT; i++) {
+            sink += playRound(random);
+        }
+        
+        final long startBytes = bean.getThreadAllocatedBytes(threadId);
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < ROUND_COUNT; i++) {
+            sink += playRound(random);
+        }
+        final long discardCount = (long)ROUND_COUNT * DISCARD_COUNT;
+        final double bytes = (bean.getThreadAllocatedBytes(threadId) - startBytes) / (double)discardCount;
+        final double time = (System.nanoTime() - startTime) / (double)discardCount;
+        
+        System.out.println(String.format("%.0f bytes/discard, %.2fus/discard [%d]", bytes, time / 1000, sink));
+        
+        // 空の卓1つ分の大きさ (生成時の確保量)
+        final List<JanInfo> infoList = new ArrayList<>(FOOTPRINT_COUNT);
+        final long footprintStartBytes = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < FOOTPRINT_COUNT; i++) {
+            infoList.add(new JanInfo());
+        }
+        final double footprint = (bean.getThreadAllocatedBytes(threadId) - footprintStartBytes) / (double)FOOTPRINT_COUNT;
+        System.out.println(String.format("%.0f bytes/table [%d]", footprint, infoList.size()));
+    }
+    
+    
+    
+    /**
+     * 1局分の打牌を実行
+     * 
+     * @param random 乱数。
+     * @return 最適化で消されないための値。
+     */
+    private static long playRound(final Random random) {
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        Collections.shuffle(deck, random);
+        
+        final JanInfo info = new JanInfo();
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        for (final Wind wind : Wind.values()) {
+            playerTable.put(wind, new Player("P" + wind.ordinal(), PlayerType.HUMAN));
+        }
+        info.setPlayerTable(playerTable);
+        info.setDeck(deck);
+        for (final Wind wind : Wind.values()) {
+            final int start = wind.ordinal() * 13;
+            info.setHand(wind, new Hand(new ArrayList<JanPai>(deck.subList(start, start + 13))));
+        }
+        
+        long sink = 0;
+        for (int i = 0; i < DISCARD_COUNT; i++) {
+            final Wind activeWind = info.getActiveWind();
+            final JanPai tsumo = deck.get(52 + i);
+            
+            // 打牌処理 (ツモ切り)
+            final Hand hand = info.getActiveHand();
+            sink += info.getHandCount(activeWind).getTotal();
+            hand.addJanPai(tsumo);
+            hand.removeJanPai(tsumo);
+            info.setHand(activeWind, hand);
+            for (final CallType type : CALL_TYPE_ARRAY) {
+                info.setWaitMask(activeWind, type, sink & 0xFFFFFFFFFL);
+            }
+            info.addDiscard(activeWind, tsumo);
+            info.setActiveDiscard(tsumo);
+            
+            // 実況による読み込み
+            sink += info.getPlayerTable().size();
+            sink += info.getRiver(activeWind).get().size();
+            sink += info.getHandView(info.getActivePlayer()).getMenZenSize();
+            
+            // 状態の複製
+            sink += info.clone().getRemainCount();
+            
+            info.setActiveWindToNext();
+        }
+        return sink;
+    }
+    
+    
+    
+    /**
+     * 1局あたりの打牌数
+     */
+    private static final int DISCARD_COUNT = 80;
+    
+    /**
+     * ウォームアップ回数
+     */
+    private static final int WARMUP_COUNT = 2000;
+    
+    /**
+     * 計測する局数
+     */
+    private static final int ROUND_COUNT = 5000;
+    
+    /**
+     * 大きさを計測する卓の数
+     */
+    private static final int FOOTPRINT_COUNT = 10000;
+    
+    /**
+     * 更新する待ち牌の鳴きタイプ
+     */
+    private static final CallType[] CALL_TYPE_ARRAY = { CallType.RON, CallType.CHI, CallType.PON, CallType.KAN_LIGHT };
+    
+}
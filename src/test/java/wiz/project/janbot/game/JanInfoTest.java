@@ -0,0 +1,308 @@
+/**
+ * JanInfoTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.Hand;
+import wiz.project.jan.JanPai;
+import wiz.project.jan.MenTsu;
+import wiz.project.jan.MenTsuType;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * JanInfoのテスト
+ */
+public final class JanInfoTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public JanInfoTest() {
+    }
+    
+    
+    
+    /**
+     * clone() のテスト
+     * 
+     * @type 正常系。
+     * @note 複製元と値を共有しても、更新は互いに影響しない。
+     */
+    @Test
+    public void testClone_Normal() {
+        final JanInfo info = new JanInfo();
+        info.addDiscard(Wind.TON, JanPai.MAN_1);
+        info.setHand(Wind.NAN, new Hand(Arrays.asList(JanPai.PIN_1, JanPai.PIN_2)));
+        
+        final JanInfo copy = info.clone();
+        Assert.assertSame(info.getRiver(Wind.TON), copy.getRiver(Wind.TON));
+        Assert.assertSame(info.getHandView(Wind.NAN), copy.getHandView(Wind.NAN));
+        
+        info.addDiscard(Wind.TON, JanPai.MAN_2);
+        info.setCalledIndex(Wind.TON);
+        Assert.assertEquals(Arrays.asList(JanPai.MAN_1, JanPai.MAN_2), info.getRiver(Wind.TON).get());
+        Assert.assertEquals(Arrays.asList(2), info.getRiver(Wind.TON).getCalledIndexList());
+        Assert.assertEquals(Arrays.asList(JanPai.MAN_1), copy.getRiver(Wind.TON).get());
+        Assert.assertTrue(copy.getRiver(Wind.TON).getCalledIndexList().isEmpty());
+        
+        // 取得した手牌を変更しても格納中の手牌は変わらない
+        final Hand hand = copy.getHand(Wind.NAN);
+        hand.addJanPai(JanPai.PIN_3);
+        Assert.assertEquals(2, copy.getHandView(Wind.NAN).getMenZenSize());
+        Assert.assertEquals(2, info.getHandCount(Wind.NAN).getTotal());
+    }
+    
+    /**
+     * getHandVersion() と getRiverVersion() のテスト
+     * 
+     * @type 正常系。
+     * @note 手牌と捨て牌は格納するたびに版が進み、複製は複製時点の版を引き継ぐ。
+     */
+    @Test
+    public void testGetHandVersion_Normal() {
+        final JanInfo info = new JanInfo();
+        final long handVersion = info.getHandVersion(Wind.TON);
+        final long riverVersion = info.getRiverVersion(Wind.TON);
+        
+        info.setHand(Wind.TON, new Hand(Arrays.asList(JanPai.MAN_1, JanPai.MAN_2)));
+        Assert.assertTrue(info.getHandVersion(Wind.TON) > handVersion);
+        Assert.assertEquals(riverVersion, info.getRiverVersion(Wind.TON));
+        
+        final JanInfo copy = info.clone();
+        Assert.assertEquals(info.getHandVersion(Wind.TON), copy.getHandVersion(Wind.TON));
+        
+        info.addDiscard(Wind.TON, JanPai.MAN_1);
+        Assert.assertTrue(info.getRiverVersion(Wind.TON) > riverVersion);
+        Assert.assertEquals(riverVersion, copy.getRiverVersion(Wind.TON));
+        
+        // 複製側の更新は元と異なる版になる
+        copy.addDiscard(Wind.TON, JanPai.MAN_1);
+        Assert.assertFalse(info.getRiverVersion(Wind.TON) == copy.getRiverVersion(Wind.TON));
+        Assert.assertEquals(0L, info.getHandVersion(null));
+    }
+    
+    /**
+     * getVisibleCount() と getOutsOnConfirm() のテスト
+     * 
+     * @type 正常系。
+     * @note 打牌と副露のたびに見える牌の枚数が追従する。
+     */
+    @Test
+    public void testGetVisibleCount_Normal() {
+        final JanInfo info = new JanInfo();
+        info.setHand(Wind.NAN, new Hand(Arrays.asList(JanPai.MAN_5, JanPai.MAN_5, JanPai.PIN_1)));
+        info.setRiverOuts(Arrays.asList(JanPai.MAN_5, JanPai.PIN_1));
+        
+        info.addDiscard(Wind.TON, JanPai.MAN_5);
+        Assert.assertEquals(1, info.getVisibleCount(Wind.TON).get(JanPai.MAN_5));
+        Assert.assertEquals(3, info.getVisibleCount(Wind.NAN).get(JanPai.MAN_5));
+        Assert.assertEquals(1, (int)info.getOutsOnConfirm(Wind.NAN).get(JanPai.MAN_5));
+        Assert.assertEquals(3, (int)info.getOutsOnConfirm(Wind.NAN).get(JanPai.PIN_1));
+        Assert.assertEquals(2, info.getOutsOnConfirm(Wind.NAN).size());
+        
+        // ポンした牌は河から副露へ移るため、二重に数えない
+        final Hand hand = info.getHand(Wind.NAN);
+        hand.removeJanPai(JanPai.MAN_5);
+        hand.removeJanPai(JanPai.MAN_5);
+        hand.addFixedMenTsu(new MenTsu(Arrays.asList(JanPai.MAN_5, JanPai.MAN_5, JanPai.MAN_5), MenTsuType.PON));
+        info.setHand(Wind.NAN, hand);
+        info.setCalledIndex(Wind.TON);
+        Assert.assertEquals(3, info.getVisibleCount(Wind.TON).get(JanPai.MAN_5));
+        Assert.assertEquals(3, info.getVisibleCount(Wind.NAN).get(JanPai.MAN_5));
+        
+        // 捨て牌を差し替えても数え直した結果と一致する
+        info.setRiver(Wind.SHA, Arrays.asList(JanPai.PIN_1, JanPai.PIN_1));
+        Assert.assertEquals(2, info.getVisibleCount(Wind.TON).get(JanPai.PIN_1));
+        info.setRiver(Wind.SHA, null);
+        Assert.assertEquals(0, info.getVisibleCount(Wind.TON).get(JanPai.PIN_1));
+        
+        // 複製にも引き継ぎ、clear()で消える
+        Assert.assertEquals(3, info.clone().getVisibleCount(Wind.SHA).get(JanPai.MAN_5));
+        info.clear();
+        Assert.assertEquals(0, info.getVisibleCount(Wind.SHA).get(JanPai.MAN_5));
+        Assert.assertTrue(info.getOutsOnConfirm(Wind.SHA).isEmpty());
+    }
+    
+    /**
+     * renamePlayer() のテスト
+     * 
+     * @type 正常系。
+     * @note 名前が変わっても席とIDは変わらず、変更前のプレイヤーからも風を引ける。
+     */
+    @Test
+    public void testRenamePlayer_Normal() {
+        final JanInfo info = new JanInfo();
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        playerTable.put(Wind.TON, new Player(0, "Mr.A", PlayerType.HUMAN));
+        playerTable.put(Wind.NAN, new Player(1, "Mr.B", PlayerType.HUMAN));
+        info.setPlayerTable(playerTable);
+        info.setHand(Wind.NAN, new Hand(Arrays.asList(JanPai.PIN_1, JanPai.PIN_2)));
+        final Player before = info.getPlayer("Mr.B");
+        
+        Assert.assertTrue(info.renamePlayer("Mr.B", "Mr.C"));
+        Assert.assertFalse(info.renamePlayer("Mr.B", "Mr.D"));
+        Assert.assertFalse(info.isValidPlayer("Mr.B"));
+        Assert.assertEquals(Wind.NAN, info.getWind("Mr.C"));
+        Assert.assertEquals(Wind.NAN, info.getWind(before));
+        Assert.assertEquals(1, info.getPlayer("Mr.C").getId());
+        Assert.assertEquals(2, info.getHandView(before).getMenZenSize());
+        
+        info.setActivePlayer("Mr.C");
+        Assert.assertEquals(Wind.NAN, info.getActiveWind());
+    }
+    
+    /**
+     * renamePlayer() のテスト
+     * 
+     * @type 異常系。
+     */
+    @Test
+    public void testRenamePlayer_Error() {
+        final JanInfo info = new JanInfo();
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        playerTable.put(Wind.TON, new Player(0, "Mr.A", PlayerType.HUMAN));
+        playerTable.put(Wind.NAN, new Player(1, "Mr.B", PlayerType.HUMAN));
+        info.setPlayerTable(playerTable);
+        
+        try {
+            info.renamePlayer("Mr.A", "Mr.B");
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            Assert.assertEquals("Player name is already used : Mr.B", e.getMessage());
+        }
+        Assert.assertEquals(Wind.TON, info.getWind("Mr.A"));
+    }
+    
+    /**
+     * getOutsOnConfirm() と getCompleteOuts() のテスト
+     * 
+     * @type 正常系。
+     * @note 河の牌と自分の手牌だけを引き、他家の副露とドラ表示牌は引かない。
+     */
+    @Test
+    public void testGetOutsOnConfirm_Normal() {
+        final JanInfo info = new JanInfo();
+        info.setHand(Wind.NAN, new Hand(Arrays.asList(JanPai.MAN_5, JanPai.MAN_5, JanPai.PIN_1)));
+        info.setRiverOuts(Arrays.asList(JanPai.MAN_5));
+        info.setRiverOuts(Arrays.asList(JanPai.PIN_1));
+        info.setWanPai(new WanPai(Collections.nCopies(14, JanPai.PIN_1)));
+        
+        info.addDiscard(Wind.TON, JanPai.MAN_5);
+        info.addDiscard(Wind.TON, JanPai.PIN_1);
+        Assert.assertEquals(2, info.getOutsOnConfirm(Wind.NAN).size());
+        Assert.assertEquals(1, (int)info.getOutsOnConfirm(Wind.NAN).get(JanPai.MAN_5));
+        Assert.assertEquals(2, (int)info.getOutsOnConfirm(Wind.NAN).get(JanPai.PIN_1));
+        Assert.assertEquals(3, (int)info.getOutsOnConfirm(Wind.SHA).get(JanPai.PIN_1));
+        
+        info.setActiveDiscard(JanPai.PIN_1);
+        Assert.assertEquals(3, info.getCompleteOuts(true));
+        info.setActiveTsumo(JanPai.MAN_5);
+        Assert.assertEquals(2, info.getCompleteOuts(false));
+        
+        // 副露された牌は河から除き、他家の副露牌は引かない
+        final Hand hand = info.getHand(Wind.NAN);
+        hand.removeJanPai(JanPai.MAN_5);
+        hand.removeJanPai(JanPai.MAN_5);
+        hand.addFixedMenTsu(new MenTsu(Arrays.asList(JanPai.MAN_5, JanPai.MAN_5, JanPai.MAN_5), MenTsuType.PON));
+        info.setHand(Wind.NAN, hand);
+        info.addDiscard(Wind.TON, JanPai.MAN_5);
+        info.setCalledIndex(Wind.TON);
+        Assert.assertEquals(0, (int)info.getOutsOnConfirm(Wind.NAN).get(JanPai.MAN_5));
+        Assert.assertEquals(3, (int)info.getOutsOnConfirm(Wind.SHA).get(JanPai.MAN_5));
+        Assert.assertNull(info.getActiveTsumo());
+    }
+    
+    /**
+     * setWaitMask() のテスト
+     * 
+     * @type 正常系。
+     * @note 牌から鳴けるプレイヤーへの逆引きが待ち牌の集合に追従する。COMの待ちは鳴き可否の判定に含めない。
+     */
+    @Test
+    public void testSetWaitMask_Normal() {
+        final JanInfo info = new JanInfo();
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        for (final Wind wind : Wind.values()) {
+            final PlayerType type = wind == Wind.NAN ? PlayerType.HUMAN : PlayerType.COM;
+            playerTable.put(wind, new Player(wind.ordinal(), "Mr." + wind.ordinal(), type));
+        }
+        info.setPlayerTable(playerTable);
+        
+        final long mask = (1L << JanPai.MAN_3.ordinal()) | (1L << JanPai.CHUN.ordinal());
+        info.setWaitMask(Wind.NAN, CallType.PON, mask);
+        info.setWaitMask(Wind.PEI, CallType.RON, (1L << JanPai.CHUN.ordinal()) | (1L << JanPai.HAKU.ordinal()));
+        
+        Assert.assertEquals(mask, info.getWaitMask(Wind.NAN, CallType.PON));
+        Assert.assertTrue(info.isCallable(JanPai.MAN_3));
+        Assert.assertFalse(info.isCallable(JanPai.MAN_4));
+        
+        // COMの待ちは読めるが、鳴き可否には数えない
+        Assert.assertFalse(info.isCallable(JanPai.HAKU));
+        Assert.assertEquals(1 << CallType.RON.ordinal(), info.getCallTypeBits(JanPai.HAKU, Wind.PEI));
+        Assert.assertTrue((info.getWaitMask(Wind.PEI, CallType.RON) & (1L << JanPai.HAKU.ordinal())) != 0L);
+        Assert.assertEquals(1 << CallType.PON.ordinal(), info.getCallTypeBits(JanPai.CHUN, Wind.NAN));
+        Assert.assertEquals(1 << CallType.RON.ordinal(), info.getCallTypeBits(JanPai.CHUN, Wind.PEI));
+        Assert.assertEquals(0, info.getCallTypeBits(JanPai.CHUN, Wind.TON));
+        
+        // 手変わりで外れた牌は逆引きからも消える
+        info.setWaitMask(Wind.NAN, CallType.PON, 1L << JanPai.CHUN.ordinal());
+        Assert.assertFalse(info.isCallable(JanPai.MAN_3));
+        Assert.assertEquals(1 << CallType.PON.ordinal(), info.getCallTypeBits(JanPai.CHUN, Wind.NAN));
+        
+        // 複製にも引き継ぐ
+        final JanInfo copy = new JanInfo(info);
+        Assert.assertEquals(1 << CallType.RON.ordinal(), copy.getCallTypeBits(JanPai.CHUN, Wind.PEI));
+        Assert.assertTrue(copy.isCallable(JanPai.CHUN));
+        Assert.assertFalse(copy.isCallable(JanPai.HAKU));
+        
+        info.clear();
+        Assert.assertFalse(info.isCallable(JanPai.CHUN));
+        Assert.assertEquals(0L, info.getWaitMask(Wind.NAN, CallType.PON));
+    }
+    
+    /**
+     * takePendingDiscardList() のテスト
+     * 
+     * @type 正常系。
+     * @note 取り出すまで打牌順に溜まり、取り出す前の複製や取り出した後のリストには影響しない。
+     */
+    @Test
+    public void testTakePendingDiscardList_Normal() {
+        final JanInfo info = new JanInfo();
+        final Player com1 = new Player(1, "COM_01", PlayerType.COM);
+        final Player com2 = new Player(2, "COM_02", PlayerType.COM);
+        info.addPendingDiscard(com1, JanPai.MAN_1);
+        final JanInfo copy = info.clone();
+        info.addPendingDiscard(com2, JanPai.TON);
+        
+        final List<DiscardRecord> resultList = info.takePendingDiscardList();
+        Assert.assertEquals(2, resultList.size());
+        Assert.assertEquals(com1, resultList.get(0).getDiscarder());
+        Assert.assertEquals(JanPai.TON, resultList.get(1).getDiscard());
+        Assert.assertTrue(info.takePendingDiscardList().isEmpty());
+        Assert.assertEquals(1, copy.takePendingDiscardList().size());
+        
+        // 取り出したリストは後の打牌で変わらない
+        info.addPendingDiscard(com1, JanPai.PIN_1);
+        Assert.assertEquals(2, resultList.size());
+        Assert.assertEquals(1, info.takePendingDiscardList().size());
+    }
+    
+}
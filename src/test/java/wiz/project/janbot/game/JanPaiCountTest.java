@@ -0,0 +1,151 @@
+/**
+ * JanPaiCountTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * JanPaiCountのテスト
+ */
+public final class JanPaiCountTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public JanPaiCountTest() {
+    }
+    
+    
+    
+    /**
+     * add() のテスト
+     * 
+     * @type 正常系。
+     */
+    @Test
+    public void testAdd_Normal() {
+        final JanPaiCount count = new JanPaiCount();
+        count.add(JanPai.MAN_1);
+        count.add(JanPai.PIN_9, 4);
+        count.add(JanPai.SOU_1, 2);
+        count.add(JanPai.CHUN, 3);
+        
+        Assert.assertEquals(1, count.get(JanPai.MAN_1));
+        Assert.assertEquals(4, count.get(JanPai.PIN_9));
+        Assert.assertEquals(2, count.get(JanPai.SOU_1));
+        Assert.assertEquals(3, count.get(JanPai.CHUN));
+        Assert.assertEquals(0, count.get(JanPai.MAN_2));
+        Assert.assertEquals(10, count.getTotal());
+    }
+    
+    /**
+     * add() のテスト
+     * 
+     * @type 異常系。
+     * @note 5枚目の追加。
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testAdd_Error_TooMany() {
+        final JanPaiCount count = new JanPaiCount();
+        count.add(JanPai.TON, 4);
+        count.add(JanPai.TON);
+    }
+    
+    /**
+     * remove() のテスト
+     * 
+     * @type 正常系。
+     */
+    @Test
+    public void testRemove_Normal() {
+        final JanPaiCount count = new JanPaiCount();
+        count.add(JanPai.SOU_5, 3);
+        count.remove(JanPai.SOU_5);
+        
+        Assert.assertEquals(2, count.get(JanPai.SOU_5));
+        Assert.assertEquals(2, count.getTotal());
+    }
+    
+    /**
+     * getSuitBits() のテスト
+     * 
+     * @type 正常系。
+     */
+    @Test
+    public void testGetSuitBits_Normal() {
+        final JanPaiCount count = new JanPaiCount();
+        count.add(JanPai.PIN_1, 2);
+        count.add(JanPai.PIN_9);
+        count.add(JanPai.HAKU);
+        
+        Assert.assertEquals(0, count.getSuitBits(JanPaiCount.SUIT_MAN));
+        Assert.assertEquals(2 | (1 << 24), count.getSuitBits(JanPaiCount.SUIT_PIN));
+        Assert.assertEquals(0, count.getSuitBits(JanPaiCount.SUIT_SOU));
+        Assert.assertEquals(1 << 12, count.getSuitBits(JanPaiCount.SUIT_JI));
+    }
+    
+    /**
+     * valueOf(), toMap() のテスト
+     * 
+     * @type 正常系。
+     */
+    @Test
+    public void testValueOf_Normal() {
+        final JanPaiCount count = new JanPaiCount();
+        count.add(JanPai.MAN_3, 2);
+        count.add(JanPai.NAN);
+        
+        final Map<JanPai, Integer> map = count.toMap();
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals(Integer.valueOf(2), map.get(JanPai.MAN_3));
+        
+        final JanPaiCount result = JanPaiCount.valueOf(map);
+        Assert.assertEquals(count, result);
+        Assert.assertEquals(count.hashCode(), result.hashCode());
+    }
+    
+    /**
+     * valueOf() のテスト
+     * 
+     * @type 正常系。
+     * @note 牌ごとの枚数の配列から生成。
+     */
+    @Test
+    public void testValueOf_Normal_Array() {
+        final int[] countArray = new int[JanPaiCount.JANPAI_COUNT];
+        countArray[JanPai.MAN_1.ordinal()] = 3;
+        countArray[JanPai.SOU_9.ordinal()] = 1;
+        countArray[JanPai.CHUN.ordinal()] = 4;
+        
+        final JanPaiCount result = JanPaiCount.valueOf(countArray);
+        Assert.assertEquals(3, result.get(JanPai.MAN_1));
+        Assert.assertEquals(1, result.get(JanPai.SOU_9));
+        Assert.assertEquals(4, result.get(JanPai.CHUN));
+        Assert.assertEquals(8, result.getTotal());
+    }
+    
+    /**
+     * valueOf() のテスト
+     * 
+     * @type 異常系。
+     * @note 配列の長さが牌の種類数と異なる。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testValueOf_Error_ArraySize() {
+        JanPaiCount.valueOf(new int[JanPaiCount.JANPAI_COUNT - 1]);
+    }
+    
+}
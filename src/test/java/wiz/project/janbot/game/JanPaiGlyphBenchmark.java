@@ -0,0 +1,218 @@
+/**
+ * JanPaiGlyphBenchmark.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import wiz.project.jan.Hand;
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 雀牌の描画の処理時間とメモリ確保量の比較 (JanPaiGlyph導入前後)
+ * 
+ * JUnitのテストではなく、mainから手動で実行する。
+ * 手牌1行と捨て牌1行の描画を繰り返す。
+ */
+public final class JanPaiGlyphBenchmark {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private JanPaiGlyphBenchmark() {
+    }
+    
+    
+    
+    /**
+     * メイン処理
+     * 
+     * @param args 起動引数。
+     */
+    public static void main(final String[] args) {
+        final List<JanPai> paiList = new ArrayList<>();
+        for (int i = 0; i < HAND_SIZE; i++) {
+            paiList.add(JanPai.values()[(i * 5) % JanPai.values().length]);
+        }
+        final Hand hand = new Hand(paiList);
+        final List<JanPai> river = new ArrayList<>();
+        for (int i = 0; i < RIVER_SIZE; i++) {
+            river.add(JanPai.values()[(i * 7) % JanPai.values().length]);
+        }
+        final AbstractAnnouncer announcer = new AbstractAnnouncer() {
+            public void onEvent(final JanInfo info, final AnnounceParam param) {
+            }
+        };
+        if (!renderLegacy(hand, river).equals(render(announcer, hand, river))) {
+            throw new IllegalStateException("Rendering result differs.");
+        }
+        
+        // ウォームアップ
+        long sink = 0;
+        for (int i = 0; i < WARMUP_COUNT; i++) {
+            sink += renderLegacy(hand, river).length();
+            sink += render(announcer, hand, river).length();
+        }
+        
+        final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        
+        long startBytes = bean.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < RENDER_COUNT; i++) {
+            sink += renderLegacy(hand, river).length();
+        }
+        final double legacyTime = (System.nanoTime() - startTime) / (double)RENDER_COUNT;
+        final double legacyBytes = (bean.getThreadAllocatedBytes(threadId) - startBytes) / (double)RENDER_COUNT;
+        
+        startBytes = bean.getThreadAllocatedBytes(threadId);
+        startTime = System.nanoTime();
+        for (int i = 0; i < RENDER_COUNT; i++) {
+            sink += render(announcer, hand, river).length();
+        }
+        final double glyphTime = (System.nanoTime() - startTime) / (double)RENDER_COUNT;
+        final double glyphBytes = (bean.getThreadAllocatedBytes(threadId) - startBytes) / (double)RENDER_COUNT;
+        
+        System.out.println(String.format("legacy : %.2fus, %.0f bytes/render", legacyTime / 1000, legacyBytes));
+        System.out.println(String.format("glyph  : %.2fus, %.0f bytes/render [%d]", glyphTime / 1000, glyphBytes, sink));
+    }
+    
+    
+    
+    /**
+     * JanPaiGlyphで描画
+     * 
+     * @param announcer 実況者。
+     * @param hand 手牌。
+     * @param river 捨て牌。
+     * @return 描画結果。
+     */
+    private static String render(final AbstractAnnouncer announcer, final Hand hand, final List<JanPai> river) {
+        final StringBuilder buf = new StringBuilder(512);
+        buf.append(announcer.convertMenzenHandToString(hand)).append("\n");
+        for (final JanPai pai : river) {
+            JanPaiGlyph.append(buf, pai);
+        }
+        return buf.toString();
+    }
+    
+    /**
+     * 導入前の方法で描画 (雀牌ごとにStringBuilderを生成して色コードを分岐)
+     * 
+     * @param hand 手牌。
+     * @param river 捨て牌。
+     * @return 描画結果。
+     */
+    private static String renderLegacy(final Hand hand, final List<JanPai> river) {
+        final StringBuilder handBuf = new StringBuilder();
+        for (final JanPai pai : hand.getMenZenList()) {
+            handBuf.append(convertJanPaiToStringLegacy(pai));
+        }
+        final StringBuilder buf = new StringBuilder();
+        buf.append(handBuf.toString()).append("\n");
+        for (final JanPai pai : river) {
+            buf.append(convertJanPaiToStringLegacy(pai));
+        }
+        return buf.toString();
+    }
+    
+    /**
+     * 導入前の方法で雀牌を文字列に変換
+     * 
+     * @param pai 雀牌。
+     * @return 変換結果。
+     */
+    private static String convertJanPaiToStringLegacy(final JanPai pai) {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(COLOR_FLAG).append(getColorCodeLegacy(pai));
+        buf.append(pai);
+        buf.append(COLOR_FLAG);
+        return buf.toString();
+    }
+    
+    /**
+     * 導入前の方法で色コードを取得
+     * 
+     * @param pai 雀牌。
+     * @return 対応する色コード。
+     */
+    private static String getColorCodeLegacy(final JanPai pai) {
+        switch (pai) {
+        case MAN_1:
+        case MAN_2:
+        case MAN_3:
+        case MAN_4:
+        case MAN_5:
+        case MAN_6:
+        case MAN_7:
+        case MAN_8:
+        case MAN_9:
+        case CHUN:
+            return "04";
+        case PIN_1:
+        case PIN_2:
+        case PIN_3:
+        case PIN_4:
+        case PIN_5:
+        case PIN_6:
+        case PIN_7:
+        case PIN_8:
+        case PIN_9:
+            return "12";
+        case SOU_1:
+        case SOU_2:
+        case SOU_3:
+        case SOU_4:
+        case SOU_5:
+        case SOU_6:
+        case SOU_7:
+        case SOU_8:
+        case SOU_9:
+        case HATU:
+            return "03";
+        case TON:
+        case NAN:
+        case SHA:
+        case PEI:
+            return "06";
+        default:
+            return "01";
+        }
+    }
+    
+    
+    
+    /**
+     * 色付けフラグ
+     */
+    private static final char COLOR_FLAG = 3;
+    
+    /**
+     * 手牌の枚数
+     */
+    private static final int HAND_SIZE = 13;
+    
+    /**
+     * 捨て牌の枚数
+     */
+    private static final int RIVER_SIZE = 18;
+    
+    /**
+     * ウォームアップ回数
+     */
+    private static final int WARMUP_COUNT = 200000;
+    
+    /**
+     * 計測回数
+     */
+    private static final int RENDER_COUNT = 1000000;
+    
+}
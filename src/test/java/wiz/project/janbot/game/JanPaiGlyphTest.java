@@ -0,0 +1,67 @@
+/**
+ * JanPaiGlyphTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * JanPaiGlyphのテスト
+ */
+public final class JanPaiGlyphTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public JanPaiGlyphTest() {
+    }
+    
+    
+    
+    /**
+     * get() のテスト
+     * 
+     * @type 正常系。
+     * @note 雀牌の種類ごとの色で囲み、同じ雀牌には同じインスタンスを返す。
+     */
+    @Test
+    public void testGet_Normal() {
+        Assert.assertEquals("\u000304" + JanPai.MAN_1 + "\u0003", JanPaiGlyph.get(JanPai.MAN_1));
+        Assert.assertEquals("\u000312" + JanPai.PIN_5 + "\u0003", JanPaiGlyph.get(JanPai.PIN_5));
+        Assert.assertEquals("\u000303" + JanPai.HATU + "\u0003", JanPaiGlyph.get(JanPai.HATU));
+        Assert.assertEquals("\u000306" + JanPai.PEI + "\u0003", JanPaiGlyph.get(JanPai.PEI));
+        Assert.assertEquals("\u000301" + JanPai.HAKU + "\u0003", JanPaiGlyph.get(JanPai.HAKU));
+        Assert.assertSame(JanPaiGlyph.get(JanPai.CHUN), JanPaiGlyph.get(JanPai.CHUN));
+        
+        Assert.assertEquals("\u000314" + JanPai.SOU_9 + "\u0003", JanPaiGlyph.getCalled(JanPai.SOU_9));
+        Assert.assertEquals("\u000304[■]" + JanPai.MAN_3 + JanPai.MAN_3 + "[■]\u0003", JanPaiGlyph.getKanDark(JanPai.MAN_3));
+    }
+    
+    /**
+     * append() のテスト
+     * 
+     * @type 正常系。
+     * @note 雀牌リストは先頭の雀牌の色で1つにまとめる。
+     */
+    @Test
+    public void testAppend_Normal() {
+        final StringBuilder buf = new StringBuilder();
+        JanPaiGlyph.append(buf, JanPai.TON);
+        JanPaiGlyph.append(buf, Arrays.asList(JanPai.PIN_1, JanPai.PIN_2, JanPai.PIN_3));
+        final String expected = "\u000306" + JanPai.TON + "\u0003" + "\u000312" + JanPai.PIN_1 + JanPai.PIN_2 + JanPai.PIN_3 + "\u0003";
+        Assert.assertEquals(expected, buf.toString());
+    }
+    
+}
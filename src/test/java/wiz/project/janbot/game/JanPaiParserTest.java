@@ -0,0 +1,112 @@
+/**
+ * JanPaiParserTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.janbot.game.exception.InvalidInputException;
+
+
+
+/**
+ * JanPaiParserのテスト
+ */
+public final class JanPaiParserTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public JanPaiParserTest() {
+    }
+    
+    
+    
+    /**
+     * parse() のテスト
+     * 
+     * @type 正常系。
+     * @note 数牌。
+     */
+    @Test
+    public void testParse_Normal_Number() throws InvalidInputException {
+        Assert.assertEquals(JanPai.MAN_1, JanPaiParser.parse("1m"));
+        Assert.assertEquals(JanPai.PIN_5, JanPaiParser.parse("5p"));
+        Assert.assertEquals(JanPai.SOU_9, JanPaiParser.parse("9s"));
+    }
+    
+    /**
+     * parse() のテスト
+     * 
+     * @type 正常系。
+     * @note 字牌の別名。
+     */
+    @Test
+    public void testParse_Normal_Ji() throws InvalidInputException {
+        Assert.assertEquals(JanPai.TON, JanPaiParser.parse("東"));
+        Assert.assertEquals(JanPai.TON, JanPaiParser.parse("dong"));
+        Assert.assertEquals(JanPai.SHA, JanPaiParser.parse("sya"));
+        Assert.assertEquals(JanPai.PEI, JanPaiParser.parse("pe"));
+        Assert.assertEquals(JanPai.HATU, JanPaiParser.parse("hatsu"));
+        Assert.assertEquals(JanPai.CHUN, JanPaiParser.parse("ch"));
+    }
+    
+    /**
+     * parse() のテスト
+     * 
+     * @type 異常系。
+     */
+    @Test(expected = InvalidInputException.class)
+    public void testParse_Error_Invalid() throws InvalidInputException {
+        JanPaiParser.parse("0m");
+    }
+    
+    /**
+     * parseCount() のテスト
+     * 
+     * @type 正常系。
+     * @note 複数牌の省略表記。
+     */
+    @Test
+    public void testParseCount_Normal() throws InvalidInputException {
+        final JanPaiCount result = JanPaiParser.parseCount("123m456p東東shachun9s");
+        Assert.assertEquals(11, result.getTotal());
+        Assert.assertEquals(1, result.get(JanPai.MAN_1));
+        Assert.assertEquals(1, result.get(JanPai.MAN_3));
+        Assert.assertEquals(1, result.get(JanPai.PIN_4));
+        Assert.assertEquals(2, result.get(JanPai.TON));
+        Assert.assertEquals(1, result.get(JanPai.SHA));
+        Assert.assertEquals(1, result.get(JanPai.CHUN));
+        Assert.assertEquals(1, result.get(JanPai.SOU_9));
+    }
+    
+    /**
+     * parseCount() のテスト
+     * 
+     * @type 異常系。
+     * @note 種類の指定が無い数字。
+     */
+    @Test(expected = InvalidInputException.class)
+    public void testParseCount_Error_MissingSuit() throws InvalidInputException {
+        JanPaiParser.parseCount("123m45");
+    }
+    
+    /**
+     * parseCount() のテスト
+     * 
+     * @type 異常系。
+     * @note 5枚目の同じ牌。
+     */
+    @Test(expected = InvalidInputException.class)
+    public void testParseCount_Error_TooMany() throws InvalidInputException {
+        JanPaiParser.parseCount("11111m");
+    }
+    
+}
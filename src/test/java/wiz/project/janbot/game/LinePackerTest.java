@@ -0,0 +1,102 @@
+/**
+ * LinePackerTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+
+
+/**
+ * LinePackerのテスト
+ */
+public final class LinePackerTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public LinePackerTest() {
+    }
+    
+    
+    
+    /**
+     * getByteLength() のテスト
+     * 
+     * @type 正常系。
+     * @note 全角文字は3バイト、色付けの制御文字は1バイトで数える。
+     */
+    @Test
+    public void testGetByteLength_Normal() {
+        Assert.assertEquals(0, LinePacker.getByteLength(""));
+        Assert.assertEquals(3, LinePacker.getByteLength("1m "));
+        Assert.assertEquals(9, LinePacker.getByteLength("捨牌："));
+        Assert.assertEquals(8, LinePacker.getByteLength("\u000304[1m]\u0003"));
+        Assert.assertEquals(4, LinePacker.getByteLength("\uD83C\uDC00"));
+    }
+    
+    /**
+     * pack() のテスト
+     * 
+     * @type 正常系。
+     * @note 上限に収まる限り連結し、収まらない行は次の行に回す。
+     */
+    @Test
+    public void testPack_Normal() {
+        final List<String> resultList = LinePacker.pack(Arrays.asList("abc", "", "de", "fghij"), 12);
+        Assert.assertEquals(Arrays.asList("abc  |  de", "fghij"), resultList);
+        
+        final List<String> sourceList = Arrays.asList("東1局", "ドラ：[1m]", "残り枚数：70");
+        final List<String> packedList = LinePacker.pack(sourceList, LinePacker.getMaxBytes("Mr.A"));
+        Assert.assertEquals(Arrays.asList("東1局  |  ドラ：[1m]  |  残り枚数：70"), packedList);
+    }
+    
+    /**
+     * pack() のテスト
+     * 
+     * @type 正常系。
+     * @note 上限を超える行は、色付けの範囲の途中では分割しない。
+     */
+    @Test
+    public void testPack_Normal_Split() {
+        final String tile = "\u000304[1m]\u0003";
+        final List<String> resultList = LinePacker.pack(Arrays.asList("ab" + tile + tile + "c"), 12);
+        Assert.assertEquals(Arrays.asList("ab" + tile, tile + "c"), resultList);
+        for (final String line : resultList) {
+            Assert.assertTrue(LinePacker.getByteLength(line) <= 12);
+        }
+    }
+    
+    /**
+     * pack() のテスト
+     * 
+     * @type 異常系。
+     */
+    @Test
+    public void testPack_Error() {
+        try {
+            LinePacker.pack(null, 100);
+            Assert.fail();
+        }
+        catch (final NullPointerException e) {
+            Assert.assertEquals("Message list is null.", e.getMessage());
+        }
+        try {
+            LinePacker.pack(Arrays.asList("a"), 5);
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            Assert.assertEquals("Invalid max bytes : 5", e.getMessage());
+        }
+    }
+    
+}
@@ -0,0 +1,306 @@
+/**
+ * OutboundDispatcherTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+
+
+/**
+ * OutboundDispatcherのテスト
+ */
+public final class OutboundDispatcherTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public OutboundDispatcherTest() {
+    }
+    
+    
+    
+    /**
+     * talk() のテスト
+     * 
+     * @type 正常系。
+     * @note 送信待ちの間に届いた入力待ちのメッセージは、先に積まれた更新より先に送る。
+     */
+    @Test
+    public void testTalk_Normal_Priority() throws InterruptedException {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final RecordingSink sink = new RecordingSink(blocker, 3);
+        final OutboundDispatcher dispatcher = new OutboundDispatcher(sink, 1, 100, TimeUnit.MILLISECONDS.toNanos(1));
+        
+        dispatcher.talk("Mr.A", Arrays.asList("river1"), MessagePriority.BULK);
+        Assert.assertTrue(sink.awaitStarted());
+        dispatcher.talk("Mr.A", Arrays.asList("river2"), MessagePriority.BULK);
+        dispatcher.talk("Mr.A", Arrays.asList("hand"), MessagePriority.PROMPT);
+        Assert.assertEquals(2, dispatcher.getQueueDepth());
+        blocker.countDown();
+        
+        Assert.assertTrue(sink.awaitFinished());
+        Assert.assertEquals(Arrays.asList("Mr.A:river1", "Mr.A:hand", "Mr.A:river2"), sink.getResultList());
+        Assert.assertEquals(0, dispatcher.getQueueDepth());
+    }
+    
+    /**
+     * talk() のテスト
+     * 
+     * @type 正常系。
+     * @note 通し番号は送信時に振るため、入力待ちのメッセージが追い越しても番号は送信順に増える。
+     */
+    @Test
+    public void testTalk_Normal_LineCounter() throws InterruptedException {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final RecordingSink sink = new RecordingSink(blocker, 4);
+        final OutboundDispatcher dispatcher = new OutboundDispatcher(sink, 1, 100, TimeUnit.MILLISECONDS.toNanos(1));
+        final AtomicInteger lineCounter = new AtomicInteger();
+        
+        dispatcher.talk("Mr.A", Arrays.asList("field"), MessagePriority.BULK, lineCounter);
+        Assert.assertTrue(sink.awaitStarted());
+        dispatcher.talk("Mr.A", Arrays.asList("river"), MessagePriority.BULK, lineCounter);
+        dispatcher.talk("Mr.A", Arrays.asList("hand"), MessagePriority.PROMPT, lineCounter);
+        dispatcher.talk("Mr.A", Arrays.asList("plain"), MessagePriority.BULK);
+        blocker.countDown();
+        
+        Assert.assertTrue(sink.awaitFinished());
+        Assert.assertEquals(Arrays.asList("Mr.A:#1 field", "Mr.A:#2 hand", "Mr.A:#3 river", "Mr.A:plain"), sink.getResultList());
+        Assert.assertEquals(3, lineCounter.get());
+    }
+    
+    /**
+     * talk() のテスト
+     * 
+     * @type 正常系。
+     * @note 送信枠を使い切った送信先だけが待たされる。送信枠は連結後の行数で消費する。
+     */
+    @Test
+    public void testTalk_Normal_RateLimit() throws InterruptedException {
+        final RecordingSink sink = new RecordingSink(new CountDownLatch(0), 4);
+        final long refillNanos = TimeUnit.MILLISECONDS.toNanos(200);
+        final OutboundDispatcher dispatcher = new OutboundDispatcher(sink, 2, 1, refillNanos);
+        
+        final long startTime = System.nanoTime();
+        dispatcher.talk("Mr.A", Arrays.asList("1", "2"), MessagePriority.BULK);
+        dispatcher.talk("Mr.A", Arrays.asList("3"), MessagePriority.BULK);
+        dispatcher.println(Arrays.asList("open"), MessagePriority.BULK);
+        dispatcher.talk("Mr.B", Arrays.asList("4"), MessagePriority.BULK);
+        
+        Assert.assertTrue(sink.awaitFinished());
+        Assert.assertTrue(System.nanoTime() - startTime >= refillNanos / 2);
+        
+        // 待たされた送信先が最後に届く
+        final List<String> resultList = sink.getResultList();
+        Assert.assertEquals("Mr.A:3", resultList.get(resultList.size() - 1));
+        Assert.assertTrue(resultList.contains("Mr.A:1  |  2"));
+        Assert.assertTrue(resultList.contains(":open"));
+        Assert.assertTrue(resultList.contains("Mr.B:4"));
+    }
+    
+    /**
+     * talk() のテスト
+     * 
+     * @type 正常系。
+     * @note 送り終えて送信枠が回復したユーザのキューは一覧から外し、次の送信で作り直す。
+     */
+    @Test
+    public void testTalk_Normal_RecipientRemoved() throws InterruptedException {
+        final RecordingSink sink = new RecordingSink(new CountDownLatch(0), 21);
+        final OutboundDispatcher dispatcher = new OutboundDispatcher(sink, 2, 2, TimeUnit.MILLISECONDS.toNanos(5));
+        
+        for (int i = 0; i < 20; i++) {
+            dispatcher.talk("Mr." + i, Arrays.asList("hello"), MessagePriority.BULK);
+        }
+        awaitRecipientCount(dispatcher, 0);
+        
+        dispatcher.talk("Mr.0", Arrays.asList("again"), MessagePriority.PROMPT);
+        Assert.assertTrue(sink.awaitFinished());
+        Assert.assertEquals("Mr.0:again", sink.getResultList().get(20));
+        awaitRecipientCount(dispatcher, 0);
+    }
+    
+    /**
+     * talk() のテスト
+     * 
+     * @type 異常系。
+     */
+    @Test
+    public void testTalk_Error() {
+        final OutboundDispatcher dispatcher = new OutboundDispatcher(new RecordingSink(new CountDownLatch(0), 0), 1, 1, 1);
+        try {
+            dispatcher.talk(null, Arrays.asList("1"), MessagePriority.BULK);
+            Assert.fail();
+        }
+        catch (final NullPointerException e) {
+            Assert.assertEquals("Target is null.", e.getMessage());
+        }
+        try {
+            dispatcher.talk("Mr.A", Arrays.asList("1"), null);
+            Assert.fail();
+        }
+        catch (final NullPointerException e) {
+            Assert.assertEquals("Priority is null.", e.getMessage());
+        }
+        try {
+            dispatcher.talk("Mr.A", (String)null, MessagePriority.PROMPT);
+            Assert.fail();
+        }
+        catch (final NullPointerException e) {
+            Assert.assertEquals("Message is null.", e.getMessage());
+        }
+        try {
+            new OutboundDispatcher(new RecordingSink(new CountDownLatch(0), 0), 1, 0, 1);
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            Assert.assertEquals("Invalid bucket capacity : 0", e.getMessage());
+        }
+    }
+    
+    
+    
+    /**
+     * ユーザごとのキューの数が指定値になるまで待機
+     * 
+     * @param dispatcher 送信の振り分け。
+     * @param expected 期待するキューの数。
+     */
+    private void awaitRecipientCount(final OutboundDispatcher dispatcher, final int expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (dispatcher.getRecipientCount() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(expected, dispatcher.getRecipientCount());
+    }
+    
+    
+    
+    /**
+     * 送信内容を記録する送信先
+     */
+    private static final class RecordingSink implements MessageSink {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param blocker 送信を止めておくラッチ。
+         * @param expectedCount 送信されるメッセージ数。
+         */
+        public RecordingSink(final CountDownLatch blocker, final int expectedCount) {
+            _blocker = blocker;
+            _finished = new CountDownLatch(expectedCount);
+        }
+        
+        
+        
+        /**
+         * 最初の送信が始まるまで待機
+         * 
+         * @return 時間内に始まった場合はtrue。
+         */
+        public boolean awaitStarted() throws InterruptedException {
+            return _started.await(10, TimeUnit.SECONDS);
+        }
+        
+        /**
+         * 全ての送信が終わるまで待機
+         * 
+         * @return 時間内に終わった場合はtrue。
+         */
+        public boolean awaitFinished() throws InterruptedException {
+            return _finished.await(10, TimeUnit.SECONDS);
+        }
+        
+        /**
+         * 送信内容を取得
+         * 
+         * @return 送信内容。(送信先:メッセージ)
+         */
+        public List<String> getResultList() {
+            synchronized (_resultList) {
+                return new ArrayList<>(_resultList);
+            }
+        }
+        
+        /**
+         * チャンネルにメッセージを送信
+         * 
+         * @param messageList メッセージリスト。
+         */
+        public void println(final List<String> messageList) {
+            record("", messageList);
+        }
+        
+        /**
+         * 指定ユーザにメッセージを送信
+         * 
+         * @param target 送信先のニックネーム。
+         * @param messageList メッセージリスト。
+         */
+        public void talk(final String target, final List<String> messageList) {
+            record(target, messageList);
+        }
+        
+        
+        
+        /**
+         * 送信内容を記録
+         * 
+         * @param target 送信先。
+         * @param messageList メッセージリスト。
+         */
+        private void record(final String target, final List<String> messageList) {
+            _started.countDown();
+            try {
+                _blocker.await();
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            
+            for (final String message : messageList) {
+                _resultList.add(target + ":" + message);
+            }
+            _finished.countDown();
+        }
+        
+        
+        
+        /**
+         * 送信を止めておくラッチ
+         */
+        private final CountDownLatch _blocker;
+        
+        /**
+         * 送信開始の通知
+         */
+        private final CountDownLatch _started = new CountDownLatch(1);
+        
+        /**
+         * 送信終了の通知
+         */
+        private final CountDownLatch _finished;
+        
+        /**
+         * 送信内容
+         */
+        private final List<String> _resultList = Collections.synchronizedList(new ArrayList<String>());
+        
+    }
+    
+}
@@ -0,0 +1,35 @@
+/**
+ * RandomTestParam.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * 乱数を使うテストの共通パラメータ
+ */
+final class RandomTestParam {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private RandomTestParam() {
+    }
+    
+    
+    
+    /**
+     * 乱数の種
+     */
+    static final long SEED = 20150614L;
+    
+    /**
+     * 試行回数
+     */
+    static final int COUNT = 1000;
+    
+}
@@ -0,0 +1,75 @@
+/**
+ * RenderCacheTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * RenderCacheのテスト
+ */
+public final class RenderCacheTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public RenderCacheTest() {
+    }
+    
+    
+    
+    /**
+     * getHand() のテスト
+     * 
+     * @type 正常系。
+     * @note 表示の種類ごとに保持し、版が変わると古い描画結果を全て破棄する。
+     */
+    @Test
+    public void testGetHand_Normal() {
+        final RenderCache cache = new RenderCache();
+        final int tsumoVariant = RenderCache.getTsumoVariant(JanPai.MAN_1);
+        Assert.assertNull(cache.getHand(Wind.TON, 1L, RenderCache.PLAIN_VARIANT));
+        
+        cache.putHand(Wind.TON, 1L, RenderCache.PLAIN_VARIANT, "plain");
+        cache.putHand(Wind.TON, 1L, tsumoVariant, "tsumo");
+        Assert.assertEquals("plain", cache.getHand(Wind.TON, 1L, RenderCache.PLAIN_VARIANT));
+        Assert.assertEquals("tsumo", cache.getHand(Wind.TON, 1L, tsumoVariant));
+        Assert.assertNull(cache.getHand(Wind.TON, 1L, RenderCache.getDiscardVariant(JanPai.MAN_1)));
+        Assert.assertNull(cache.getHand(Wind.NAN, 1L, RenderCache.PLAIN_VARIANT));
+        
+        cache.putHand(Wind.TON, 2L, RenderCache.PLAIN_VARIANT, "next");
+        Assert.assertNull(cache.getHand(Wind.TON, 1L, tsumoVariant));
+        Assert.assertNull(cache.getHand(Wind.TON, 2L, tsumoVariant));
+        Assert.assertEquals("next", cache.getHand(Wind.TON, 2L, RenderCache.PLAIN_VARIANT));
+        
+        Assert.assertEquals(3L, cache.getHitCount());
+        Assert.assertEquals(5L, cache.getMissCount());
+    }
+    
+    /**
+     * getRiver() のテスト
+     * 
+     * @type 正常系。
+     * @note 席ごとに最新の版のみ保持する。
+     */
+    @Test
+    public void testGetRiver_Normal() {
+        final RenderCache cache = new RenderCache();
+        cache.putRiver(Wind.SHA, 3L, "river");
+        Assert.assertEquals("river", cache.getRiver(Wind.SHA, 3L));
+        Assert.assertNull(cache.getRiver(Wind.SHA, 4L));
+        Assert.assertNull(cache.getRiver(Wind.PEI, 3L));
+    }
+    
+}
@@ -0,0 +1,276 @@
+/**
+ * ShantenTableTest.java
+ * 
+ * @Author
+ *   D-freak
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.util.JanPaiUtil;
+import wiz.project.janbot.game.exception.InvalidInputException;
+
+
+
+/**
+ * ShantenTableのテスト
+ */
+public final class ShantenTableTest {
+    
+    /**
+     * コンストラクタ
+     */
+    public ShantenTableTest() {
+    }
+    
+    
+    
+    /**
+     * getShanten() のテスト
+     * 
+     * @type 正常系。
+     */
+    @Test
+    public void testGetShanten_Normal() throws InvalidInputException {
+        Assert.assertEquals(-1, ShantenTable.getShanten(JanPaiParser.parseCount("123m456p789s東東東白白"), 0));
+        Assert.assertEquals(0, ShantenTable.getShanten(JanPaiParser.parseCount("123m456p789s東東白白"), 0));
+        Assert.assertEquals(1, ShantenTable.getShanten(JanPaiParser.parseCount("23m456p789s東東白白中"), 0));
+        Assert.assertEquals(0, ShantenTable.getShanten(JanPaiParser.parseCount("456p東東白白"), 2));
+        Assert.assertEquals(-1, ShantenTable.getShanten(JanPaiParser.parseCount("東東"), 4));
+        
+        // 同じ牌4枚を2組の対子とみなす七対子
+        Assert.assertEquals(-1, ShantenTable.getShanten(JanPaiParser.parseCount("111133m5577p99s東東"), 0));
+        Assert.assertEquals(0, ShantenTable.getShanten(JanPaiParser.parseCount("111133m5577p99s東"), 0));
+        
+        // 十三么九
+        Assert.assertEquals(-1, ShantenTable.getShanten(JanPaiParser.parseCount("19m19p19s東南西北白發中中"), 0));
+        Assert.assertEquals(0, ShantenTable.getShanten(JanPaiParser.parseCount("19m19p19s東南西北白發中"), 0));
+        Assert.assertEquals(1, ShantenTable.getShanten(JanPaiParser.parseCount("159m19p19s東南西北白發"), 0));
+    }
+    
+    /**
+     * getShanten() のテスト
+     * 
+     * @type 正常系。
+     * @note 配牌から素朴な全探索と結果を比較。
+     */
+    @Test
+    public void testGetShanten_Normal_Random() {
+        final Random random = new Random(RandomTestParam.SEED);
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        for (int i = 0; i < RandomTestParam.COUNT; i++) {
+            Collections.shuffle(deck, random);
+            final int size = i % 2 == 0 ? 13 : 14;
+            final int[] countArray = new int[JanPaiCount.JANPAI_COUNT];
+            for (final JanPai pai : deck.subList(0, size)) {
+                countArray[pai.ordinal()]++;
+            }
+            
+            final JanPaiCount hand = JanPaiCount.valueOf(countArray);
+            Assert.assertEquals(hand.toString(), getReferenceShanten(countArray), ShantenTable.getShanten(hand, 0));
+        }
+    }
+    
+    /**
+     * getShanten() のテスト
+     * 
+     * @type 異常系。
+     */
+    @Test
+    public void testGetShanten_Error() throws InvalidInputException {
+        try {
+            ShantenTable.getShanten(null, 0);
+            Assert.fail();
+        }
+        catch (final NullPointerException e) {
+            Assert.assertEquals("Hand is null.", e.getMessage());
+        }
+        
+        try {
+            ShantenTable.getShanten(JanPaiParser.parseCount("123m456p789s東東東"), 0);
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            Assert.assertEquals("Invalid hand size : 12", e.getMessage());
+        }
+        
+        try {
+            ShantenTable.getShanten(JanPaiParser.parseCount("東"), 5);
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            Assert.assertEquals("Invalid fixed meld count : 5", e.getMessage());
+        }
+    }
+    
+    /**
+     * getUkeireList() のテスト
+     * 
+     * @type 正常系。
+     */
+    @Test
+    public void testGetUkeireList_Normal() throws InvalidInputException {
+        final JanPaiCount hand = JanPaiParser.parseCount("239m456p789s東東白白中");
+        final JanPaiCount visible = hand.clone();
+        visible.add(JanPai.MAN_1, 3);
+        
+        final List<UkeireInfo> ukeireList = ShantenTable.getUkeireList(hand, 0, visible);
+        Assert.assertEquals(12, ukeireList.size());
+        
+        // 打9mと打中は同じ受け入れで、序数順に並ぶ
+        final List<JanPai> expectedList = Arrays.asList(JanPai.MAN_1, JanPai.MAN_4, JanPai.TON, JanPai.HAKU);
+        for (int i = 0; i < 2; i++) {
+            final UkeireInfo ukeire = ukeireList.get(i);
+            Assert.assertEquals(i == 0 ? JanPai.MAN_9 : JanPai.CHUN, ukeire.getDiscard());
+            Assert.assertEquals(1, ukeire.getShanten());
+            Assert.assertEquals(expectedList, ukeire.getAcceptableList());
+            Assert.assertEquals(1 + 4 + 2 + 2, ukeire.getAcceptableCount());
+        }
+    }
+    
+    /**
+     * getUkeireList() のテスト
+     * 
+     * @type 正常系。
+     * @note 配牌から1枚ずつgetShanten()で確認した結果と比較。
+     */
+    @Test
+    public void testGetUkeireList_Normal_Random() {
+        final Random random = new Random(RandomTestParam.SEED);
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        for (int i = 0; i < RandomTestParam.COUNT / 10; i++) {
+            Collections.shuffle(deck, random);
+            final JanPaiCount hand = new JanPaiCount();
+            for (final JanPai pai : deck.subList(0, 14)) {
+                hand.add(pai);
+            }
+            
+            final List<UkeireInfo> ukeireList = ShantenTable.getUkeireList(hand, 0, hand);
+            for (final UkeireInfo ukeire : ukeireList) {
+                final JanPaiCount rest = hand.clone();
+                rest.remove(ukeire.getDiscard());
+                final int shanten = ShantenTable.getShanten(rest, 0);
+                Assert.assertEquals(shanten, ukeire.getShanten());
+                
+                final List<JanPai> expectedList = new ArrayList<>();
+                for (final JanPai pai : JanPai.values()) {
+                    if (rest.get(pai) < JanPaiCount.MAX_COUNT) {
+                        final JanPaiCount next = rest.clone();
+                        next.add(pai);
+                        if (ShantenTable.getShanten(next, 0) < shanten) {
+                            expectedList.add(pai);
+                        }
+                    }
+                }
+                Assert.assertEquals(hand.toString(), expectedList, ukeire.getAcceptableList());
+            }
+            Assert.assertEquals(ShantenTable.getShanten(hand, 0), ukeireList.get(0).getShanten());
+        }
+    }
+    
+    
+    
+    /**
+     * 素朴な全探索で向聴数を取得
+     * 
+     * @param countArray 牌ごとの枚数。
+     * @return 向聴数。
+     */
+    private int getReferenceShanten(final int[] countArray) {
+        int pairCount = 0;
+        int yaoKindCount = 0;
+        boolean hasYaoPair = false;
+        for (int i = 0; i < countArray.length; i++) {
+            pairCount += countArray[i] / 2;
+            final boolean isYao = i >= JanPai.TON.ordinal() || i % 9 == 0 || i % 9 == 8;
+            if (isYao && countArray[i] > 0) {
+                yaoKindCount++;
+                hasYaoPair |= countArray[i] >= 2;
+            }
+        }
+        
+        final int sevenPairs = 6 - Math.min(pairCount, 7);
+        final int thirteenOrphans = 13 - yaoKindCount - (hasYaoPair ? 1 : 0);
+        final int regular = searchRegular(countArray.clone(), 0, 0, 0, 0);
+        return Math.min(regular, Math.min(sevenPairs, thirteenOrphans));
+    }
+    
+    /**
+     * 一般形の向聴数を全探索
+     * 
+     * @param countArray 残りの牌ごとの枚数。
+     * @param start 探索を始める序数。
+     * @param meld 面子数。
+     * @param taatsu 塔子数。
+     * @param pair 雀頭数。
+     * @return 向聴数。
+     */
+    private int searchRegular(final int[] countArray, final int start, final int meld, final int taatsu, final int pair) {
+        int ordinal = start;
+        while (ordinal < countArray.length && countArray[ordinal] == 0) {
+            ordinal++;
+        }
+        if (ordinal == countArray.length) {
+            return 8 - meld * 2 - Math.min(taatsu, 4 - meld) - pair;
+        }
+        
+        final boolean isNumber = ordinal < JanPai.TON.ordinal();
+        final int rank = ordinal % 9;
+        final int[][] blockArray = {
+            // 面子数, 塔子数, 雀頭数, 使う牌の相対位置
+            { 1, 0, 0, 0, 0, 0 },
+            { 1, 0, 0, 0, 1, 2 },
+            { 0, 0, 1, 0, 0 },
+            { 0, 1, 0, 0, 0 },
+            { 0, 1, 0, 0, 1 },
+            { 0, 1, 0, 0, 2 },
+            { 0, 0, 0, 0 },
+        };
+        
+        int result = Integer.MAX_VALUE;
+        for (final int[] block : blockArray) {
+            if (meld + block[0] > 4 || pair + block[2] > 1) {
+                continue;
+            }
+            
+            boolean isValid = true;
+            for (int i = 3; i < block.length; i++) {
+                final int offset = block[i];
+                if (offset > 0 && (!isNumber || rank + offset > 8)) {
+                    isValid = false;
+                }
+            }
+            if (!isValid) {
+                continue;
+            }
+            
+            int used = 0;
+            for (int i = 3; i < block.length; i++) {
+                if (countArray[ordinal + block[i]] == 0) {
+                    isValid = false;
+                }
+                countArray[ordinal + block[i]]--;
+                used = i;
+            }
+            if (isValid) {
+                result = Math.min(result, searchRegular(countArray, ordinal, meld + block[0], taatsu + block[1], pair + block[2]));
+            }
+            for (int i = 3; i <= used; i++) {
+                countArray[ordinal + block[i]]++;
+            }
+        }
+        return result;
+    }
+    
+}
@@ -9,8 +9,16 @@ package wiz.project.janbot.game;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
 import org.junit.Test;
 
+import wiz.project.jan.Wind;
+import wiz.project.janbot.game.exception.JanException;
+
 
 
 /**
@@ -68,10 +76,72 @@ public final class VSChmJanControllerTest {
     
     /**
      * next() のテスト
+     * 
+     * @type 正常系。
+     * @note COMだけの卓は1回の呼び出しで局の最後まで進み、COMの手番が続いてもスタックは深くならない。
      */
     @Test
-    public void testNext() {
-        fail("まだ実装されていません");
+    public void testNext() throws JanException {
+        final JanInfo info = new JanInfo();
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        for (final Wind wind : Wind.values()) {
+            playerTable.put(wind, new Player(wind.ordinal(), "COM_0" + wind.ordinal(), PlayerType.COM));
+        }
+        info.setPlayerTable(playerTable);
+        
+        final List<Integer> depthList = new ArrayList<>();
+        final List<AnnounceParam> paramList = new ArrayList<>();
+        info.getEventBus().subscribe(JanEventType.ANNOUNCE, new JanEventListener<AnnounceParam>() {
+            public void onEvent(final JanInfo source, final AnnounceParam param) {
+                depthList.add(Thread.currentThread().getStackTrace().length);
+                paramList.add(param);
+            }
+        });
+        
+        new VSChmJanController().startRound(info);
+        
+        // 局の開始、まとめた打牌、流局
+        assertEquals(3, paramList.size());
+        assertTrue(paramList.get(0).hasFlag(AnnounceFlag.GAME_START));
+        assertEquals(84, paramList.get(1).getDiscardList().size());
+        assertEquals(MessagePriority.BULK, paramList.get(1).getPriority());
+        assertTrue(paramList.get(2).hasFlag(AnnounceFlag.GAME_OVER));
+        assertEquals(0, info.getRemainCount());
+        
+        // 84回の手番を再帰せずに処理している
+        assertTrue(depthList.get(2) - depthList.get(0) < 10);
+    }
+    
+    /**
+     * next() のテスト
+     * 
+     * @type 正常系。
+     * @note 人間の手番に戻る時は、まとめたCOMの打牌を入力待ちの実況と同じ優先度で先に流す。
+     */
+    @Test
+    public void testNext_Prompt() throws JanException {
+        final JanInfo info = new JanInfo();
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        for (final Wind wind : Wind.values()) {
+            final PlayerType type = wind == Wind.SHA ? PlayerType.HUMAN : PlayerType.COM;
+            playerTable.put(wind, new Player(wind.ordinal(), "Player_0" + wind.ordinal(), type));
+        }
+        info.setPlayerTable(playerTable);
+        
+        final List<AnnounceParam> paramList = new ArrayList<>();
+        info.getEventBus().subscribe(JanEventType.ANNOUNCE, new JanEventListener<AnnounceParam>() {
+            public void onEvent(final JanInfo source, final AnnounceParam param) {
+                paramList.add(param);
+            }
+        });
+        
+        new VSChmJanController().startRound(info);
+        
+        // 局の開始、まとめた打牌、人間への入力待ち (ツモまたは鳴き確認)
+        assertTrue(paramList.size() >= 3);
+        assertTrue(paramList.get(1).hasFlag(AnnounceFlag.DISCARD_DIGEST));
+        assertEquals(MessagePriority.PROMPT, paramList.get(1).getPriority());
+        assertEquals(MessagePriority.PROMPT, paramList.get(2).getPriority());
     }
     
     /**